@@ -0,0 +1,51 @@
+package com.example.lorryManagement.cache;
+
+import com.example.lorryManagement.event.LorrySnapshot;
+import com.example.lorryManagement.repository.LorryRepository;
+import com.example.lorryManagement.repository.ValueCount;
+
+import java.util.List;
+import java.util.function.Function;
+
+public enum DistinctField {
+    LORRY_NUMBER("lorry-numbers", LorrySnapshot::lorryNumber, LorryRepository::countByLorryNumber),
+    FROM_LOCATION("from-locations", LorrySnapshot::fromLocation, LorryRepository::countByFromLocation),
+    TO_LOCATION("to-locations", LorrySnapshot::toLocation, LorryRepository::countByToLocation),
+    CONSIGNOR_NAME("consignors", LorrySnapshot::consignorName, LorryRepository::countByConsignorName);
+
+    private final String pathName;
+    private final Function<LorrySnapshot, String> extractor;
+    private final Function<LorryRepository, List<ValueCount>> loader;
+
+    DistinctField(
+            String pathName,
+            Function<LorrySnapshot, String> extractor,
+            Function<LorryRepository, List<ValueCount>> loader
+    ) {
+        this.pathName = pathName;
+        this.extractor = extractor;
+        this.loader = loader;
+    }
+
+    // matches the /distinct/{...} path segment
+    public String pathName() {
+        return pathName;
+    }
+
+    public String valueOf(LorrySnapshot snapshot) {
+        return snapshot == null ? null : extractor.apply(snapshot);
+    }
+
+    public List<ValueCount> load(LorryRepository lorryRepository) {
+        return loader.apply(lorryRepository);
+    }
+
+    public static DistinctField fromPathName(String pathName) {
+        for (DistinctField field : values()) {
+            if (field.pathName.equals(pathName)) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException("Unknown field: " + pathName);
+    }
+}
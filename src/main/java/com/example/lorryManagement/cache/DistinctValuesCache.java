@@ -0,0 +1,175 @@
+package com.example.lorryManagement.cache;
+
+import com.example.lorryManagement.event.LorryChangedEvent;
+import com.example.lorryManagement.repository.LorryRepository;
+import com.example.lorryManagement.repository.ValueCount;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Collator;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+/*
+ * Distinct values per column in the database's collation order, kept as
+ * value -> row count so writes can be applied incrementally: a value disappears
+ * only when its last LR is gone. A value the cache has not seen yet is slotted in
+ * with a locale collator; that may differ slightly from the database collation
+ * until the next reload.
+ *
+ * Bounded in two ways: a column with more than max-values distinct values is not
+ * cached at all, and every column is reloaded after refresh-after to repair any
+ * drift from writes racing a load.
+ */
+@Component
+@Slf4j
+public class DistinctValuesCache implements LocalLorryCache {
+    private final LorryRepository lorryRepository;
+    private final int maxValues;
+    private final long refreshAfterNanos;
+    private final Map<DistinctField, FieldCache> fields = new EnumMap<>(DistinctField.class);
+
+    public DistinctValuesCache(
+            LorryRepository lorryRepository,
+            MeterRegistry meterRegistry,
+            @Value("${lorry.distinct-cache.max-values:50000}") int maxValues,
+            @Value("${lorry.distinct-cache.refresh-after:10m}") Duration refreshAfter
+    ) {
+        this.lorryRepository = lorryRepository;
+        this.maxValues = maxValues;
+        this.refreshAfterNanos = refreshAfter.toNanos();
+        for (DistinctField field : DistinctField.values()) {
+            fields.put(field, new FieldCache(field, meterRegistry));
+        }
+    }
+
+    public List<String> get(DistinctField field) {
+        return fields.get(field).get();
+    }
+
+    @Override
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLorryChanged(LorryChangedEvent event) {
+        for (FieldCache cache : fields.values()) {
+            if (event.isBulk()) {
+                cache.reset();
+            } else {
+                cache.apply(
+                        cache.field.valueOf(event.before()),
+                        cache.field.valueOf(event.after())
+                );
+            }
+        }
+    }
+
+    @Override
+    public void invalidateAll() {
+        fields.values().forEach(FieldCache::reset);
+    }
+
+    private final class FieldCache {
+        private final DistinctField field;
+        private final Counter hits;
+        private final Counter misses;
+        // Collator instances are not thread-safe; this one is only used under the lock
+        private final Collator collator = Collator.getInstance(Locale.ROOT);
+
+        // guarded by this; in the order the database returned the values
+        private LinkedHashMap<String, Long> counts;
+        private volatile long loadedAt;
+        private volatile List<String> snapshot;
+
+        private FieldCache(DistinctField field, MeterRegistry meterRegistry) {
+            this.field = field;
+            this.hits = Counter.builder("lorry.distinct.cache")
+                    .tag("field", field.pathName())
+                    .tag("result", "hit")
+                    .register(meterRegistry);
+            this.misses = Counter.builder("lorry.distinct.cache")
+                    .tag("field", field.pathName())
+                    .tag("result", "miss")
+                    .register(meterRegistry);
+        }
+
+        List<String> get() {
+            List<String> current = snapshot;
+            if (current != null && !isStale()) {
+                hits.increment();
+                return current;
+            }
+            synchronized (this) {
+                if (counts != null && !isStale()) {
+                    // only the list view was dropped by a write; no database trip needed
+                    hits.increment();
+                    snapshot = List.copyOf(counts.keySet());
+                    return snapshot;
+                }
+                misses.increment();
+                List<ValueCount> rows = field.load(lorryRepository);
+                if (rows.size() > maxValues) {
+                    log.warn("{} has {} distinct values (limit {}), not caching",
+                            field.pathName(), rows.size(), maxValues);
+                    counts = null;
+                    snapshot = null;
+                    return rows.stream().map(ValueCount::getTerm).toList();
+                }
+                LinkedHashMap<String, Long> loaded = new LinkedHashMap<>();
+                for (ValueCount row : rows) {
+                    loaded.merge(row.getTerm(), row.getTotal(), Long::sum);
+                }
+                counts = loaded;
+                loadedAt = System.nanoTime();
+                snapshot = List.copyOf(loaded.keySet());
+                return snapshot;
+            }
+        }
+
+        synchronized void apply(String oldValue, String newValue) {
+            if (counts == null || Objects.equals(oldValue, newValue)) {
+                return;
+            }
+            if (oldValue != null) {
+                counts.computeIfPresent(oldValue, (value, count) -> count > 1 ? count - 1 : null);
+            }
+            if (newValue != null && counts.computeIfPresent(newValue, (value, count) -> count + 1) == null) {
+                insert(newValue);
+            }
+            snapshot = null;
+        }
+
+        private void insert(String value) {
+            if (counts.size() >= maxValues) {
+                counts = null;
+                return;
+            }
+            List<String> values = new ArrayList<>(counts.keySet());
+            int at = Collections.binarySearch(values, value, collator);
+            values.add(at < 0 ? -at - 1 : at, value);
+            LinkedHashMap<String, Long> inserted = new LinkedHashMap<>();
+            for (String existing : values) {
+                inserted.put(existing, existing.equals(value) ? 1L : counts.get(existing));
+            }
+            counts = inserted;
+        }
+
+        synchronized void reset() {
+            counts = null;
+            snapshot = null;
+        }
+
+        private boolean isStale() {
+            return System.nanoTime() - loadedAt > refreshAfterNanos;
+        }
+    }
+}
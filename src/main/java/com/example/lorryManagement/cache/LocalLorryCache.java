@@ -0,0 +1,15 @@
+package com.example.lorryManagement.cache;
+
+import com.example.lorryManagement.event.LorryChangedEvent;
+
+/*
+ * In-memory state derived from lorry rows. Local writes reach it through
+ * LorryChangedEvent after commit; writes made by other instances through
+ * LorryChangeListener.
+ */
+public interface LocalLorryCache {
+    void onLorryChanged(LorryChangedEvent event);
+
+    // changes may have been missed (e.g. while the notification connection was down)
+    void invalidateAll();
+}
@@ -0,0 +1,56 @@
+package com.example.lorryManagement.cache;
+
+import com.example.lorryManagement.event.LorryChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.function.Supplier;
+
+/*
+ * Short-lived totals per filter combination, dropped on every change this instance
+ * hears of. Totals served from here are still approximate: one loaded while a write
+ * commits may miss it until the configured ttl expires.
+ */
+@Component
+public class LorryCountCache implements LocalLorryCache {
+    private final Cache<Key, Long> counts;
+
+    public LorryCountCache(
+            MeterRegistry meterRegistry,
+            @Value("${lorry.count-cache.ttl:30s}") Duration ttl,
+            @Value("${lorry.count-cache.max-size:1000}") long maxSize
+    ) {
+        this.counts = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, counts, "lorry.count");
+    }
+
+    public long get(String search, LocalDate from, LocalDate to, Supplier<Long> loader) {
+        String normalizedSearch = search == null ? "" : search.toLowerCase();
+        return counts.get(new Key(normalizedSearch, from, to), key -> loader.get());
+    }
+
+    @Override
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLorryChanged(LorryChangedEvent event) {
+        counts.invalidateAll();
+    }
+
+    @Override
+    public void invalidateAll() {
+        counts.invalidateAll();
+    }
+
+    private record Key(String search, LocalDate from, LocalDate to) {
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.lorryManagement.cache;
+
+import com.example.lorryManagement.entity.LorryEntity;
+import com.example.lorryManagement.event.LorryChangedEvent;
+import com.example.lorryManagement.event.LorrySnapshot;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/*
+ * Keeps the LorryEntity second-level cache in step with writes Hibernate does not
+ * see: update() is a JDBC UPDATE ... RETURNING, imports use COPY and the archive job
+ * moves rows in SQL. Evicting after commit drops whatever was cached before the write,
+ * but it does not lock the entry: a read that loaded the old row before the commit
+ * can still put it back just after the eviction. Such an entry stays until the next
+ * write to that LR or the region's ttl (EntityCacheConfig), which bounds the window.
+ */
+@Component
+public class LorryEntityCacheEvictor implements LocalLorryCache {
+    private final Cache cache;
+
+    public LorryEntityCacheEvictor(EntityManagerFactory entityManagerFactory) {
+        this.cache = entityManagerFactory.getCache();
+    }
+
+    @Override
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLorryChanged(LorryChangedEvent event) {
+        if (event.isBulk()) {
+            invalidateAll();
+            return;
+        }
+        evict(event.before());
+        evict(event.after());
+    }
+
+    @Override
+    public void invalidateAll() {
+        cache.evict(LorryEntity.class);
+    }
+
+    private void evict(LorrySnapshot snapshot) {
+        if (snapshot != null) {
+            cache.evict(LorryEntity.class, snapshot.lr());
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.example.lorryManagement.cache;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/*
+ * Compressed prefix tree of keys with a frequency per key. Every node also keeps
+ * the highest frequency found in its subtree, which lets top() walk best-first
+ * and stop after `limit` results instead of visiting every key under the prefix.
+ *
+ * Not thread-safe; callers guard access.
+ */
+final class RadixTrie {
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    private final Node root = new Node("");
+    private int size;
+
+    record Entry(String value, long count) {
+    }
+
+    int size() {
+        return size;
+    }
+
+    /*
+     * Adjusts the frequency of key by delta (negative to remove occurrences).
+     * display is what top() returns for the key; the first one seen is kept.
+     */
+    void add(String key, String display, long delta) {
+        List<Node> path = new ArrayList<>();
+        path.add(root);
+        Node node = root;
+        int i = 0;
+
+        while (i < key.length()) {
+            int slot = indexOf(node, key.charAt(i));
+            if (slot < 0) {
+                if (delta <= 0) {
+                    return;
+                }
+                Node leaf = new Node(key.substring(i));
+                insertChild(node, leaf, -(slot + 1));
+                node = leaf;
+                path.add(node);
+                break;
+            }
+            Node child = node.children[slot];
+            int common = commonPrefix(child.label, key, i);
+            if (common < child.label.length()) {
+                if (delta <= 0) {
+                    return;
+                }
+                // split the edge so the key can branch off (or end) in the middle of it
+                Node middle = new Node(child.label.substring(0, common));
+                child.label = child.label.substring(common);
+                middle.children = new Node[]{child};
+                middle.maxCount = child.maxCount;
+                node.children[slot] = middle;
+                child = middle;
+            }
+            node = child;
+            path.add(node);
+            i += common;
+        }
+
+        if (node.count == 0 && delta <= 0) {
+            return;
+        }
+        if (node.count == 0) {
+            size++;
+            node.value = display;
+        }
+        node.count = Math.max(0, node.count + delta);
+        if (node.count == 0) {
+            node.value = null;
+            size--;
+        }
+
+        for (int depth = path.size() - 1; depth >= 0; depth--) {
+            Node current = path.get(depth);
+            if (depth > 0) {
+                compact(path.get(depth - 1), current);
+            }
+            recomputeMax(current);
+        }
+    }
+
+    /*
+     * Up to limit entries whose key starts with prefix, highest count first,
+     * ties broken by key.
+     */
+    List<Entry> top(String prefix, int limit) {
+        Node node = root;
+        StringBuilder path = new StringBuilder();
+        int i = 0;
+        while (i < prefix.length()) {
+            int slot = indexOf(node, prefix.charAt(i));
+            if (slot < 0) {
+                return List.of();
+            }
+            Node child = node.children[slot];
+            int common = commonPrefix(child.label, prefix, i);
+            if (i + common < prefix.length() && common < child.label.length()) {
+                return List.of();
+            }
+            node = child;
+            path.append(child.label);
+            i += common;
+        }
+
+        PriorityQueue<Candidate> queue = new PriorityQueue<>(Candidate.ORDER);
+        queue.add(new Candidate(node, false, path.toString()));
+        List<Entry> result = new ArrayList<>(limit);
+
+        while (!queue.isEmpty() && result.size() < limit) {
+            Candidate candidate = queue.poll();
+            Node current = candidate.node();
+            if (candidate.terminal()) {
+                result.add(new Entry(current.value, current.count));
+                continue;
+            }
+            if (current.count > 0) {
+                queue.add(new Candidate(current, true, candidate.key()));
+            }
+            for (Node child : current.children) {
+                queue.add(new Candidate(child, false, candidate.key() + child.label));
+            }
+        }
+        return result;
+    }
+
+    // drops a node that no longer leads anywhere, or merges it into its only child
+    private void compact(Node parent, Node node) {
+        if (node.count > 0) {
+            return;
+        }
+        if (node.children.length == 0) {
+            removeChild(parent, node);
+        } else if (node.children.length == 1) {
+            Node child = node.children[0];
+            node.label = node.label + child.label;
+            node.children = child.children;
+            node.count = child.count;
+            node.value = child.value;
+            node.maxCount = child.maxCount;
+        }
+    }
+
+    private static void recomputeMax(Node node) {
+        long max = node.count;
+        for (Node child : node.children) {
+            max = Math.max(max, child.maxCount);
+        }
+        node.maxCount = max;
+    }
+
+    private static int indexOf(Node node, char first) {
+        int low = 0;
+        int high = node.children.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            char c = node.children[mid].label.charAt(0);
+            if (c < first) {
+                low = mid + 1;
+            } else if (c > first) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private static void insertChild(Node parent, Node child, int at) {
+        Node[] children = Arrays.copyOf(parent.children, parent.children.length + 1);
+        System.arraycopy(children, at, children, at + 1, parent.children.length - at);
+        children[at] = child;
+        parent.children = children;
+    }
+
+    private static void removeChild(Node parent, Node child) {
+        int at = indexOf(parent, child.label.charAt(0));
+        Node[] children = new Node[parent.children.length - 1];
+        System.arraycopy(parent.children, 0, children, 0, at);
+        System.arraycopy(parent.children, at + 1, children, at, children.length - at);
+        parent.children = children.length == 0 ? NO_CHILDREN : children;
+    }
+
+    private static int commonPrefix(String label, String key, int offset) {
+        int max = Math.min(label.length(), key.length() - offset);
+        int i = 0;
+        while (i < max && label.charAt(i) == key.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static final class Node {
+        private String label;
+        private Node[] children = NO_CHILDREN;
+        private long count;
+        private String value;
+        private long maxCount;
+
+        private Node(String label) {
+            this.label = label;
+        }
+    }
+
+    /*
+     * A key to emit (terminal) or a subtree still to expand. key is the full key
+     * for a terminal and the path prefix for a subtree, which is a lower bound of
+     * every key below it, so equal counts come out in key order.
+     */
+    private record Candidate(Node node, boolean terminal, String key) {
+        static final Comparator<Candidate> ORDER = Comparator
+                .comparingLong(Candidate::priority).reversed()
+                .thenComparing(Candidate::key)
+                .thenComparing(Candidate::terminal, Comparator.reverseOrder());
+
+        long priority() {
+            return terminal ? node.count : node.maxCount;
+        }
+    }
+}
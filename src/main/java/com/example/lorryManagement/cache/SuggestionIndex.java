@@ -0,0 +1,130 @@
+package com.example.lorryManagement.cache;
+
+import com.example.lorryManagement.event.LorryChangedEvent;
+import com.example.lorryManagement.repository.LorryRepository;
+import com.example.lorryManagement.repository.ValueCount;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/*
+ * Prefix autocomplete per column, ranked by how many LRs carry each value.
+ * Built lazily from the same GROUP BY counts as DistinctValuesCache and patched
+ * from LorryChangedEvent after commit. Matching is case-insensitive.
+ */
+@Component
+public class SuggestionIndex implements LocalLorryCache {
+    private final LorryRepository lorryRepository;
+    private final Map<DistinctField, FieldIndex> fields = new EnumMap<>(DistinctField.class);
+
+    public SuggestionIndex(LorryRepository lorryRepository) {
+        this.lorryRepository = lorryRepository;
+        for (DistinctField field : DistinctField.values()) {
+            fields.put(field, new FieldIndex(field));
+        }
+    }
+
+    public List<String> suggest(DistinctField field, String prefix, int limit) {
+        return fields.get(field).top(normalize(prefix), limit);
+    }
+
+    @Override
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLorryChanged(LorryChangedEvent event) {
+        for (FieldIndex index : fields.values()) {
+            if (event.isBulk()) {
+                index.reset();
+            } else {
+                index.apply(
+                        index.field.valueOf(event.before()),
+                        index.field.valueOf(event.after())
+                );
+            }
+        }
+    }
+
+    @Override
+    public void invalidateAll() {
+        fields.values().forEach(FieldIndex::reset);
+    }
+
+    private static String normalize(String value) {
+        return value.trim().toUpperCase(Locale.ROOT);
+    }
+
+    private final class FieldIndex {
+        private final DistinctField field;
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        // guarded by lock; null until first use
+        private RadixTrie trie;
+
+        private FieldIndex(DistinctField field) {
+            this.field = field;
+        }
+
+        List<String> top(String prefix, int limit) {
+            lock.readLock().lock();
+            try {
+                if (trie != null) {
+                    return values(trie.top(prefix, limit));
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+
+            lock.writeLock().lock();
+            try {
+                if (trie == null) {
+                    RadixTrie loaded = new RadixTrie();
+                    for (ValueCount row : field.load(lorryRepository)) {
+                        loaded.add(normalize(row.getTerm()), row.getTerm(), row.getTotal());
+                    }
+                    trie = loaded;
+                }
+                return values(trie.top(prefix, limit));
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void apply(String oldValue, String newValue) {
+            if (Objects.equals(oldValue, newValue)) {
+                return;
+            }
+            lock.writeLock().lock();
+            try {
+                if (trie == null) {
+                    return;
+                }
+                if (oldValue != null) {
+                    trie.add(normalize(oldValue), oldValue, -1);
+                }
+                if (newValue != null) {
+                    trie.add(normalize(newValue), newValue, 1);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void reset() {
+            lock.writeLock().lock();
+            try {
+                trie = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private List<String> values(List<RadixTrie.Entry> entries) {
+            return entries.stream().map(RadixTrie.Entry::value).toList();
+        }
+    }
+}
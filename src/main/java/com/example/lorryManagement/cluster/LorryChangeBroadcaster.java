@@ -0,0 +1,90 @@
+package com.example.lorryManagement.cluster;
+
+import com.example.lorryManagement.event.LorryChangedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/*
+ * Tells the other instances about every LorryChangedEvent. pg_notify runs inside the
+ * writing transaction, so PostgreSQL delivers the notification when, and only if, it
+ * commits; listeners never hear of a change before they can read it. All changes of
+ * one transaction go out as a single notification, a bulk one when there are several.
+ */
+@Component
+@ConditionalOnProperty(prefix = "lorry.cache-sync", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class LorryChangeBroadcaster {
+    public static final String CHANNEL = "lorry_changed";
+    // NOTIFY payloads must be shorter than 8000 bytes
+    private static final int MAX_PAYLOAD_BYTES = 7900;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final String instanceId = UUID.randomUUID().toString();
+
+    public LorryChangeBroadcaster(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    public String instanceId() {
+        return instanceId;
+    }
+
+    @EventListener
+    public void onLorryChanged(LorryChangedEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+                || !TransactionSynchronizationManager.isActualTransactionActive()) {
+            send(event);
+            return;
+        }
+        PendingChanges pending = (PendingChanges) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingChanges();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.events.add(event);
+    }
+
+    private void send(LorryChangedEvent event) {
+        String payload = toPayload(LorryChangeMessage.of(instanceId, event));
+        if (payload.getBytes(StandardCharsets.UTF_8).length > MAX_PAYLOAD_BYTES) {
+            payload = toPayload(LorryChangeMessage.of(instanceId, LorryChangedEvent.bulk()));
+        }
+        jdbcTemplate.query("SELECT pg_notify(?, ?)", rs -> {
+        }, CHANNEL, payload);
+    }
+
+    private String toPayload(LorryChangeMessage message) {
+        try {
+            return objectMapper.writeValueAsString(message);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize change notification", e);
+        }
+    }
+
+    private class PendingChanges implements TransactionSynchronization {
+        private final List<LorryChangedEvent> events = new ArrayList<>();
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            send(events.size() == 1 ? events.get(0) : LorryChangedEvent.bulk());
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(LorryChangeBroadcaster.this);
+        }
+    }
+}
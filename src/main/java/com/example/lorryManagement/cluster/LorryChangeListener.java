@@ -0,0 +1,167 @@
+package com.example.lorryManagement.cluster;
+
+import com.example.lorryManagement.cache.LocalLorryCache;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+
+/*
+ * Applies other instances' writes to the local caches. A dedicated thread holds one
+ * connection from the pool with LISTEN lorry_changed.
+ *
+ * NOTIFY is not queued for a session that is not listening, so whatever was sent
+ * while this instance was disconnected is lost. Every (re)connect therefore LISTENs
+ * first and then drops all local caches; they reload from the database and any
+ * change committed after that arrives as a notification. While disconnected the
+ * caches are dropped again on every retry.
+ */
+@Component
+@ConditionalOnProperty(prefix = "lorry.cache-sync", name = "enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class LorryChangeListener implements SmartLifecycle {
+    private final DataSource dataSource;
+    private final ObjectMapper objectMapper;
+    private final String instanceId;
+    private final List<LocalLorryCache> caches;
+    private final Duration pollInterval;
+    private final Duration retryDelay;
+    private final Counter applied;
+
+    private volatile boolean running;
+    private volatile boolean connected;
+    private Thread thread;
+
+    public LorryChangeListener(
+            DataSource dataSource,
+            ObjectMapper objectMapper,
+            LorryChangeBroadcaster broadcaster,
+            List<LocalLorryCache> caches,
+            MeterRegistry meterRegistry,
+            @Value("${lorry.cache-sync.poll-interval:5s}") Duration pollInterval,
+            @Value("${lorry.cache-sync.retry-delay:5s}") Duration retryDelay
+    ) {
+        this.dataSource = dataSource;
+        this.objectMapper = objectMapper;
+        this.instanceId = broadcaster.instanceId();
+        this.caches = caches;
+        this.pollInterval = pollInterval;
+        this.retryDelay = retryDelay;
+        this.applied = Counter.builder("lorry.cache.sync.applied")
+                .description("Changes made by other instances applied to the local caches")
+                .register(meterRegistry);
+        Gauge.builder("lorry.cache.sync.connected", this, listener -> listener.connected ? 1 : 0)
+                .description("1 while this instance is listening for other instances' changes")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        thread = new Thread(this::run, "lorry-change-listener");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    public boolean isConnected() {
+        return connected;
+    }
+
+    private void run() {
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                listen(connection);
+            } catch (SQLException | RuntimeException e) {
+                if (running) {
+                    log.warn("Lost the change notification connection; local caches are dropped until it is back", e);
+                }
+            }
+            connected = false;
+            if (!running) {
+                return;
+            }
+            invalidateAll();
+            try {
+                Thread.sleep(retryDelay.toMillis());
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private void listen(Connection connection) throws SQLException {
+        connection.setAutoCommit(true);
+        PGConnection pgConnection = connection.unwrap(PGConnection.class);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("LISTEN " + LorryChangeBroadcaster.CHANNEL);
+        }
+        invalidateAll();
+        connected = true;
+        log.info("Listening for changes made by other instances");
+
+        while (running) {
+            PGNotification[] notifications = pgConnection.getNotifications((int) pollInterval.toMillis());
+            if (notifications == null || notifications.length == 0) {
+                // waiting for notifications alone does not notice a dead connection
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("SELECT 1");
+                }
+                continue;
+            }
+            for (PGNotification notification : notifications) {
+                handle(notification.getParameter());
+            }
+        }
+    }
+
+    void handle(String payload) {
+        LorryChangeMessage message;
+        try {
+            message = objectMapper.readValue(payload, LorryChangeMessage.class);
+        } catch (JsonProcessingException e) {
+            log.warn("Unreadable change notification; dropping local caches", e);
+            invalidateAll();
+            return;
+        }
+        // this instance's own changes reached its caches after commit already
+        if (instanceId.equals(message.origin())) {
+            return;
+        }
+        for (LocalLorryCache cache : caches) {
+            cache.onLorryChanged(message.toEvent());
+        }
+        applied.increment();
+    }
+
+    private void invalidateAll() {
+        caches.forEach(LocalLorryCache::invalidateAll);
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.lorryManagement.cluster;
+
+import com.example.lorryManagement.event.LorryChangedEvent;
+import com.example.lorryManagement.event.LorrySnapshot;
+
+/*
+ * NOTIFY payload: a LorryChangedEvent plus the instance that made the change.
+ */
+public record LorryChangeMessage(String origin, LorrySnapshot before, LorrySnapshot after) {
+
+    public static LorryChangeMessage of(String origin, LorryChangedEvent event) {
+        return new LorryChangeMessage(origin, event.before(), event.after());
+    }
+
+    public LorryChangedEvent toEvent() {
+        return new LorryChangedEvent(before, after);
+    }
+}
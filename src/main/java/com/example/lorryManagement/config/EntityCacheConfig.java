@@ -0,0 +1,60 @@
+package com.example.lorryManagement.config;
+
+import com.example.lorryManagement.entity.LorryEntity;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.time.Duration;
+import java.util.OptionalLong;
+
+/*
+ * Hibernate's second-level cache, backed by Caffeine through JCache. The region is
+ * created here rather than by Hibernate so it is bounded and reports to actuator
+ * (cache.gets / cache.size / cache.evictions with cache=lorry.entity).
+ */
+@Configuration
+public class EntityCacheConfig {
+
+    @Bean(destroyMethod = "close")
+    public CacheManager entityCacheManager(
+            MeterRegistry meterRegistry,
+            @Value("${lorry.entity-cache.max-size:10000}") long maxSize,
+            @Value("${lorry.entity-cache.ttl:10m}") Duration ttl
+    ) {
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        CacheManager cacheManager = provider.getCacheManager(provider.getDefaultURI(), getClass().getClassLoader());
+
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(maxSize));
+        // our own writes evict, but not atomically with a concurrent load (see LorryEntityCacheEvictor):
+        // the ttl bounds how long such a stale entry, or one from a write made outside this application, lives
+        configuration.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+        // entries are Hibernate's immutable cache entries, no need to copy them on every get
+        configuration.setStoreByValue(false);
+        configuration.setNativeStatisticsEnabled(true);
+
+        Cache<Object, Object> region = cacheManager.createCache(LorryEntity.CACHE_REGION, configuration);
+        CaffeineCacheMetrics.monitor(
+                meterRegistry,
+                region.unwrap(com.github.benmanes.caffeine.cache.Cache.class),
+                "lorry.entity"
+        );
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer entityCacheCustomizer(CacheManager entityCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, entityCacheManager);
+    }
+}
@@ -4,6 +4,19 @@ public final class PaginationConfig {
 
     public static final int DEFAULT_PAGE_SIZE = 5;
     public static final int MAX_PAGE_SIZE = 50;
+    public static final int MAX_SUGGESTIONS = 50;
+    public static final int MAX_BATCH_SIZE = 500;
+    public static final int MAX_LOOKUP_SIZE = 200;
+    // upper bound on rows a single bulk update/delete may touch
+    public static final int MAX_BULK_ROWS = 1000;
+    // rows per round trip when streaming an export from a server-side cursor
+    public static final int EXPORT_FETCH_SIZE = 1000;
+    // route / consignor rows returned by one analytics request
+    public static final int DEFAULT_ANALYTICS_ROWS = 100;
+    public static final int MAX_ANALYTICS_ROWS = 1000;
+    // entries per change feed response
+    public static final int DEFAULT_CHANGES_PAGE = 500;
+    public static final int MAX_CHANGES_PAGE = 1000;
 
     private PaginationConfig() {}
 }
@@ -0,0 +1,87 @@
+package com.example.lorryManagement.config;
+
+import com.example.lorryManagement.datasource.ReadYourWritesFilter;
+import com.example.lorryManagement.datasource.ReplicaLagMonitor;
+import com.example.lorryManagement.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/*
+ * Optional read replica. Only active when lorry.datasource.replica.url is set
+ * (e.g. LORRY_DATASOURCE_REPLICA_URL); otherwise Spring Boot's single datasource
+ * is used unchanged. Pointing the replica at the primary works as a local stand-in.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "lorry.datasource.replica", name = "url")
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public HikariDataSource replicaDataSource(
+            DataSourceProperties properties,
+            @Value("${lorry.datasource.replica.url}") String url,
+            @Value("${lorry.datasource.replica.username:${spring.datasource.username}}") String username,
+            @Value("${lorry.datasource.replica.password:${spring.datasource.password}}") String password,
+            @Value("${lorry.datasource.replica.maximum-pool-size:10}") int maximumPoolSize
+    ) {
+        HikariDataSource replica = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(properties.determineDriverClassName())
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+        replica.setPoolName("replica");
+        replica.setReadOnly(true);
+        replica.setMaximumPoolSize(maximumPoolSize);
+        return replica;
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(
+            @Qualifier("replicaDataSource") DataSource replica,
+            @Value("${lorry.datasource.replica.max-lag:5s}") Duration maxLag,
+            @Value("${lorry.datasource.replica.lag-check-interval:PT2S}") Duration checkInterval
+    ) {
+        return new ReplicaLagMonitor(new JdbcTemplate(replica), maxLag, checkInterval);
+    }
+
+    // what JPA, JdbcTemplate and Flyway see; only read-only transactions reach the replica
+    @Bean
+    @Primary
+    public DataSource dataSource(
+            @Qualifier("primaryDataSource") DataSource primary,
+            @Qualifier("replicaDataSource") DataSource replica,
+            ReplicaLagMonitor lagMonitor
+    ) {
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, replica, lagMonitor);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    @Bean
+    public ReadYourWritesFilter readYourWritesFilter(
+            @Value("${lorry.datasource.replica.max-lag:5s}") Duration maxLag,
+            @Value("${lorry.datasource.replica.lag-check-interval:PT2S}") Duration checkInterval
+    ) {
+        return new ReadYourWritesFilter(maxLag.plus(checkInterval.multipliedBy(2)));
+    }
+}
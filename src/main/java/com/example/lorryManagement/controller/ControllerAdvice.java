@@ -1,10 +1,13 @@
 package com.example.lorryManagement.controller;
 
+import com.example.lorryManagement.exception.ArchivedLrException;
 import com.example.lorryManagement.exception.BadRequestException;
+import com.example.lorryManagement.exception.ChangeTokenExpiredException;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -36,6 +39,53 @@ public class ControllerAdvice {
         );
     }
 
+    @ExceptionHandler(ArchivedLrException.class)
+    public ResponseEntity<?> handleArchivedLr(
+            ArchivedLrException e,
+            HttpServletRequest request
+    ) {
+        return ResponseEntity.status(409).body(
+                errorBody(
+                        409,
+                        "Conflict",
+                        e.getMessage(),
+                        request
+                )
+        );
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<?> handleOptimisticLockingFailure(
+            OptimisticLockingFailureException e,
+            HttpServletRequest request
+    ) {
+        log.warn("Stale update rejected: {}", e.getMessage());
+
+        return ResponseEntity.status(412).body(
+                errorBody(
+                        412,
+                        "Precondition Failed",
+                        e.getMessage(),
+                        request
+                )
+        );
+    }
+
+    @ExceptionHandler(ChangeTokenExpiredException.class)
+    public ResponseEntity<?> handleChangeTokenExpired(
+            ChangeTokenExpiredException e,
+            HttpServletRequest request
+    ) {
+        return ResponseEntity.status(410).body(
+                errorBody(
+                        410,
+                        "Gone",
+                        e.getMessage(),
+                        request
+                )
+        );
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<?> handleMethodArgumentNotValidException(
             MethodArgumentNotValidException e,
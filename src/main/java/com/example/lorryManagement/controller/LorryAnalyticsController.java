@@ -0,0 +1,80 @@
+package com.example.lorryManagement.controller;
+
+import com.example.lorryManagement.config.PaginationConfig;
+import com.example.lorryManagement.dtos.ConsignorTotalDto;
+import com.example.lorryManagement.dtos.DailyTotalDto;
+import com.example.lorryManagement.dtos.RouteTotalDto;
+import com.example.lorryManagement.exception.BadRequestException;
+import com.example.lorryManagement.service.LorryAnalyticsService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/lorry/analytics")
+public class LorryAnalyticsController {
+    private final LorryAnalyticsService analyticsService;
+
+    public LorryAnalyticsController(LorryAnalyticsService analyticsService) {
+        this.analyticsService = analyticsService;
+    }
+
+    @Operation(
+            summary = "Freight and weight per day",
+            description = "Trips, total weight and total freight for every day with LRs between from and to (inclusive, both optional), oldest first."
+    )
+    @ApiResponse(responseCode = "200", description = "Daily totals fetched successfully")
+    @ApiResponse(responseCode = "400", description = "from is after to")
+
+    @GetMapping("/daily")
+    public List<DailyTotalDto> dailyTotals(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return analyticsService.dailyTotals(from, to);
+    }
+
+    @Operation(
+            summary = "Freight and weight per route",
+            description = "Totals per fromLocation -> toLocation route for LRs between from and to, highest freight first, at most limit routes."
+    )
+    @ApiResponse(responseCode = "200", description = "Route totals fetched successfully")
+    @ApiResponse(responseCode = "400", description = "from is after to, or invalid limit")
+
+    @GetMapping("/routes")
+    public List<RouteTotalDto> routeTotals(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "" + PaginationConfig.DEFAULT_ANALYTICS_ROWS) int limit) throws BadRequestException {
+        validateLimit(limit);
+        return analyticsService.routeTotals(from, to, limit);
+    }
+
+    @Operation(
+            summary = "Freight and weight per consignor",
+            description = "Totals per consignor for LRs between from and to, highest freight first, at most limit consignors."
+    )
+    @ApiResponse(responseCode = "200", description = "Consignor totals fetched successfully")
+    @ApiResponse(responseCode = "400", description = "from is after to, or invalid limit")
+
+    @GetMapping("/consignors")
+    public List<ConsignorTotalDto> consignorTotals(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "" + PaginationConfig.DEFAULT_ANALYTICS_ROWS) int limit) throws BadRequestException {
+        validateLimit(limit);
+        return analyticsService.consignorTotals(from, to, limit);
+    }
+
+    private static void validateLimit(int limit) {
+        if (limit < 1 || limit > PaginationConfig.MAX_ANALYTICS_ROWS) {
+            throw new BadRequestException("limit must be between 1 and " + PaginationConfig.MAX_ANALYTICS_ROWS);
+        }
+    }
+}
@@ -1,39 +1,87 @@
 package com.example.lorryManagement.controller;
 
+import com.example.lorryManagement.cache.DistinctField;
 import com.example.lorryManagement.config.PaginationConfig;
+import com.example.lorryManagement.dtos.BatchResponseDto;
+import com.example.lorryManagement.dtos.BulkUpdateRequestDto;
+import com.example.lorryManagement.dtos.ChangeFeedDto;
+import com.example.lorryManagement.dtos.ChangeToken;
+import com.example.lorryManagement.dtos.ImportReportDto;
+import com.example.lorryManagement.dtos.LookupResponseDto;
+import com.example.lorryManagement.dtos.LorryCursor;
+import com.example.lorryManagement.dtos.LorryFieldSet;
+import com.example.lorryManagement.dtos.LorryListItemDto;
 import com.example.lorryManagement.dtos.LorryRequestDto;
 import com.example.lorryManagement.dtos.LorryResponseDto;
+import com.example.lorryManagement.dtos.LorrySelectionDto;
+import com.example.lorryManagement.dtos.SliceResponseDto;
+import com.example.lorryManagement.dtos.VehicleTripCursor;
+import com.example.lorryManagement.dtos.VehicleTripsDto;
 import com.example.lorryManagement.entity.LorryEntity;
 import com.example.lorryManagement.exception.BadRequestException;
+import com.example.lorryManagement.export.ExportFormat;
+import com.example.lorryManagement.export.LorryExportWriter;
 import com.example.lorryManagement.mapper.LorryMapper;
+import com.example.lorryManagement.service.LorryChangeFeedService;
+import com.example.lorryManagement.service.LorryImportService;
 import com.example.lorryManagement.service.LorryService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import jakarta.validation.Valid;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.*;
 
 @RestController
 @RequestMapping("/api/lorry")
 public class LorryController {
+    private static final String TOTAL_EXACT = "exact";
+    private static final String TOTAL_ESTIMATE = "estimate";
+    private static final String TOTAL_NONE = "none";
+    private static final String VIEW_FULL = "full";
+    private static final String VIEW_LIST = "list";
+
     private final LorryService lorryService;
+    private final LorryImportService lorryImportService;
+    private final LorryChangeFeedService changeFeedService;
+    private final ObjectMapper objectMapper;
 
-    public LorryController(LorryService lorryService) {
+    public LorryController(
+            LorryService lorryService,
+            LorryImportService lorryImportService,
+            LorryChangeFeedService changeFeedService,
+            ObjectMapper objectMapper
+    ) {
         this.lorryService = lorryService;
+        this.lorryImportService = lorryImportService;
+        this.changeFeedService = changeFeedService;
+        this.objectMapper = objectMapper;
     }
 
     @Operation(
             summary = "Create a new LR entry",
-            description = "Creates a new lorry receipt with LR number, lorry details, consignor info, weight and freight. Returns 409 if the LR already exists."
+            description = "Creates a new lorry receipt with LR number, lorry details, consignor info, weight and freight. If the LR number is omitted, the next free one is allocated. Returns 409 if the LR already exists."
     )
     @ApiResponse(responseCode = "201", description = "LR created successfully")
     @ApiResponse(responseCode = "409", description = "LR already exists")
@@ -46,17 +94,50 @@ public class LorryController {
         return ResponseEntity.created(URI.create("/api/lorry/" + saved.getLr())).body(LorryMapper.toDto(saved));
     }
 
+    @Operation(
+            summary = "Create many LR entries at once",
+            description = """
+                Accepts an array of LR entries (at most 500), e.g. a queue flushed by an offline client.
+                Each item is validated like POST /api/lorry; the valid ones are written in one transaction
+                with a single bulk insert. The response lists every item in request order with status
+                created, conflict (LR already exists or repeated in the batch) or invalid (with field errors).
+                """
+    )
+    @ApiResponse(responseCode = "200", description = "Batch processed; see per-item statuses")
+    @ApiResponse(responseCode = "400", description = "Empty batch or more than 500 items")
+
+    @PostMapping("/batch")
+    public BatchResponseDto createBatch(@RequestBody List<LorryRequestDto> items) {
+        if (items.isEmpty() || items.size() > PaginationConfig.MAX_BATCH_SIZE) {
+            throw new BadRequestException(
+                    "Batch must contain between 1 and " + PaginationConfig.MAX_BATCH_SIZE + " items"
+            );
+        }
+        return lorryImportService.createAll(items);
+    }
+
     @Operation(
             summary = "Get LR by its number",
-            description = "Returns details of a single LR by its LR number. Returns 404 if not found."
+            description = "Returns details of a single LR by its LR number. Returns 404 if not found. "
+                    + "fields=lr,date,freight limits the columns read and returned to the named LorryResponseDto properties. "
+                    + "Archived LRs are read-only: they are returned without version and ETag."
     )
     @ApiResponse(responseCode = "404", description = "LR does not exist")
-    @ApiResponse(responseCode = "200", description = "LR fetched successfully")
+    @ApiResponse(responseCode = "200", description = "LR fetched successfully; the ETag header carries its version unless the LR is archived")
+    @ApiResponse(responseCode = "304", description = "If-None-Match matches the current version")
 
     @GetMapping("/{lr}")
-    public ResponseEntity<LorryResponseDto> getLorry(@PathVariable("lr") Long lr) {
+    public ResponseEntity<?> getLorry(
+            @PathVariable("lr") Long lr,
+            @RequestParam(required = false) String fields) {
+        if (fields != null) {
+            LorryFieldSet fieldSet = LorryFieldSet.parse(fields);
+            // version is always read so the response keeps its ETag
+            Optional<Map<String, Object>> row = lorryService.findFieldsByLr(lr, fieldSet.with("version"));
+            return row.map(r -> okWithETag(r, fieldSet)).orElseGet(() -> ResponseEntity.notFound().build());
+        }
         Optional<LorryEntity> entity = lorryService.findByLr(lr);
-        return entity.map(lorryEntity -> ResponseEntity.ok(LorryMapper.toDto(lorryEntity))).orElseGet(() -> ResponseEntity.notFound().build());
+        return entity.map(LorryController::okWithETag).orElseGet(() -> ResponseEntity.notFound().build());
     }
 
     @Operation(
@@ -64,9 +145,21 @@ public class LorryController {
             description = """
                 Returns a paginated list of LR records.
                 You can filter by:
-                - search term (search) matching LR number, consignor name, from/to locations, or lorry number
+                - search term (search) matching LR number, consignor name, from/to locations, or lorry number.
+                  A number of up to four digits matches LRs starting with it and any text containing it
+                  (e.g. 1234 finds MH12AB1234); a longer number only matches LRs starting with it
                 - date range (fromDate / toDate)
                 If no filters are provided, all LR entries are returned paginated and sorted in descending order.
+                The total parameter controls how totals are computed:
+                - exact (default): full page with an exact count(*)
+                - estimate: has-next slice plus an approximate total (planner statistics or a short-lived cache)
+                - none: has-next slice only, no count query at all
+                The view parameter controls the row shape:
+                - full (default): every LR field
+                - list: only the list grid columns (no consignorAddress, description or version),
+                  read straight from the query without loading entities
+                The fields parameter (e.g. fields=lr,date,freight) selects exactly the named
+                LorryResponseDto properties; only those columns are read. It cannot be combined with view=list.
                 """
     )
     /*
@@ -75,23 +168,35 @@ public class LorryController {
      * - Supported filters: search, from, to
      * - Sorting defaults to lr DESC
      * - Client must NOT apply local filtering
+     * - total=estimate|none returns a SliceResponseDto instead of a Page
+     * - view=list returns LorryListItemDto rows instead of LorryResponseDto
+     * - fields=... returns one object per row holding only the requested properties
      */
     @GetMapping
-    public ResponseEntity<Page<LorryResponseDto>> getAllLorries(
+    public ResponseEntity<?> getAllLorries(
             @RequestParam(required = false) String search,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) throws BadRequestException {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = TOTAL_EXACT) String total,
+            @RequestParam(defaultValue = VIEW_FULL) String view,
+            @RequestParam(required = false) String fields) throws BadRequestException {
 
         if (page < 0) {
             throw new BadRequestException("Page index must be >= 0");
         }
 
-        if (size < 1 || size > PaginationConfig.MAX_PAGE_SIZE) {
-            throw new BadRequestException(
-                    "Page size must be between 1 and " + PaginationConfig.MAX_PAGE_SIZE
-            );
+        validatePageSize(size);
+
+        if (!TOTAL_EXACT.equals(total) && !TOTAL_ESTIMATE.equals(total) && !TOTAL_NONE.equals(total)) {
+            throw new BadRequestException("total must be one of: exact, estimate, none");
+        }
+        if (!VIEW_FULL.equals(view) && !VIEW_LIST.equals(view)) {
+            throw new BadRequestException("view must be one of: full, list");
+        }
+        if (fields != null && VIEW_LIST.equals(view)) {
+            throw new BadRequestException("fields cannot be combined with view=list");
         }
 
         Pageable pageable = PageRequest.of(
@@ -100,6 +205,29 @@ public class LorryController {
                 Sort.by(Sort.Direction.DESC, "lr")
         );
 
+        if (fields != null) {
+            List<String> selected = LorryFieldSet.parse(fields).fields();
+            if (TOTAL_EXACT.equals(total)) {
+                return ResponseEntity.ok(lorryService.findFieldsWithFilters(search, from, to, pageable, selected));
+            }
+            Slice<Map<String, Object>> rows = lorryService.findFieldSliceWithFilters(search, from, to, pageable, selected);
+            return ResponseEntity.ok(toSliceBody(rows, search, from, to, TOTAL_ESTIMATE.equals(total)));
+        }
+
+        if (VIEW_LIST.equals(view)) {
+            if (TOTAL_EXACT.equals(total)) {
+                return ResponseEntity.ok(lorryService.findListItemsWithFilters(search, from, to, pageable));
+            }
+            Slice<LorryListItemDto> items = lorryService.findListItemSliceWithFilters(search, from, to, pageable);
+            return ResponseEntity.ok(toSliceBody(items, search, from, to, TOTAL_ESTIMATE.equals(total)));
+        }
+
+        if (!TOTAL_EXACT.equals(total)) {
+            Slice<LorryEntity> result = lorryService.findSliceWithFilters(search, from, to, pageable);
+            return ResponseEntity.ok(
+                    toSliceBody(result.map(LorryMapper::toDto), search, from, to, TOTAL_ESTIMATE.equals(total))
+            );
+        }
 
         Page<LorryEntity> result = lorryService.findWithFilters(
                 search,
@@ -115,31 +243,170 @@ public class LorryController {
         return ResponseEntity.ok(dtoPage);
     }
 
+    @Operation(
+            summary = "Get LR entries using cursor (keyset) pagination",
+            description = """
+                Cursor mode of the list endpoint, selected by the cursor parameter.
+                Start with an empty cursor (cursor=) plus the usual search / from / to filters.
+                Each response carries nextCursor, which holds the last LR and the active filters;
+                pass it back as cursor (filters are then taken from the cursor) until hasNext is false.
+                Results are sorted by LR descending and every page costs the same, however deep.
+                """
+    )
+    @ApiResponse(responseCode = "400", description = "Invalid cursor or page size")
+
+    @GetMapping(params = {"cursor", "!lr"})
+    public ResponseEntity<SliceResponseDto<LorryResponseDto>> getLorriesByCursor(
+            @RequestParam String cursor,
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "10") int size) throws BadRequestException {
+
+        validatePageSize(size);
+
+        LorryCursor position = cursor.isEmpty()
+                ? new LorryCursor(null, search, from, to)
+                : LorryCursor.decode(cursor);
+
+        Slice<LorryEntity> result = lorryService.findWithFiltersAfter(
+                position.search(),
+                position.from(),
+                position.to(),
+                position.lastLr(),
+                size
+        );
+
+        List<LorryResponseDto> content = result.map(LorryMapper::toDto).getContent();
+
+        SliceResponseDto<LorryResponseDto> body = new SliceResponseDto<>();
+        body.setContent(content);
+        body.setSize(size);
+        body.setHasNext(result.hasNext());
+        if (result.hasNext()) {
+            Long lastLr = content.get(content.size() - 1).getLr();
+            body.setNextCursor(
+                    new LorryCursor(lastLr, position.search(), position.from(), position.to()).encode()
+            );
+        }
+
+        return ResponseEntity.ok(body);
+    }
+
+    @Operation(
+            summary = "Trip history of one lorry",
+            description = """
+                Trips of the lorry number (exact match, case and spaces ignored), newest first
+                by date then LR, as list rows. Keyset paged: pass nextCursor back as cursor
+                until hasNext is false. The first page also carries summary: total trips,
+                first / last trip date and total weight / freight. Archived LRs are not included.
+                """
+    )
+    @ApiResponse(responseCode = "200", description = "Trips fetched successfully; empty when the lorry has none")
+    @ApiResponse(responseCode = "400", description = "Invalid cursor or page size")
+
+    @GetMapping("/vehicle/{lorryNumber}/trips")
+    public VehicleTripsDto getVehicleTrips(
+            @PathVariable String lorryNumber,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) throws BadRequestException {
+
+        validatePageSize(size);
+
+        VehicleTripCursor position = cursor == null || cursor.isEmpty() ? null : VehicleTripCursor.decode(cursor);
+
+        Slice<LorryListItemDto> trips = lorryService.findVehicleTrips(
+                lorryNumber,
+                position == null ? null : position.lastDate(),
+                position == null ? null : position.lastLr(),
+                size
+        );
+
+        VehicleTripsDto body = new VehicleTripsDto();
+        body.setContent(trips.getContent());
+        body.setSize(size);
+        body.setHasNext(trips.hasNext());
+        if (trips.hasNext()) {
+            LorryListItemDto last = trips.getContent().get(trips.getNumberOfElements() - 1);
+            body.setNextCursor(new VehicleTripCursor(last.date(), last.lr()).encode());
+        }
+        if (position == null) {
+            body.setSummary(lorryService.summarizeVehicle(lorryNumber));
+        }
+        return body;
+    }
+
+    @Operation(
+            summary = "Get several LR entries by number",
+            description = """
+                Multi-get mode of the list endpoint, selected by the lr parameter (lr=101,102,... or repeated lr=).
+                All LRs are resolved with one query and returned in request order (duplicates once);
+                archived LRs are included like in GET /{lr}. LR numbers that do not exist are listed
+                in notFound. At most 200 LRs per request; cannot be combined with cursor.
+                """
+    )
+    @ApiResponse(responseCode = "200", description = "LRs fetched; missing ones are listed in notFound")
+    @ApiResponse(responseCode = "400", description = "No LR numbers, more than 200, or lr combined with cursor")
+
+    @GetMapping(params = "lr")
+    public LookupResponseDto getLorriesByLr(
+            @RequestParam("lr") List<Long> lrs,
+            @Parameter(hidden = true) @RequestParam(required = false) String cursor
+    ) throws BadRequestException {
+        if (cursor != null) {
+            throw new BadRequestException("lr and cursor cannot be combined");
+        }
+        List<Long> requested = lrs.stream().filter(Objects::nonNull).distinct().toList();
+        if (requested.isEmpty() || requested.size() > PaginationConfig.MAX_LOOKUP_SIZE) {
+            throw new BadRequestException(
+                    "Between 1 and " + PaginationConfig.MAX_LOOKUP_SIZE + " LR numbers are required"
+            );
+        }
+
+        List<LorryEntity> found = lorryService.findAllByLr(requested);
+
+        Set<Long> foundLrs = new HashSet<>();
+        found.forEach(entity -> foundLrs.add(entity.getLr()));
+
+        LookupResponseDto body = new LookupResponseDto();
+        body.setContent(found.stream().map(LorryMapper::toDto).toList());
+        body.setNotFound(requested.stream().filter(lr -> !foundLrs.contains(lr)).toList());
+        return body;
+    }
+
     @Operation(
             summary = "Update an existing LR entry",
-            description = "Updates non-null fields of an existing LR. Returns 404 if the LR does not exist."
+            description = "Updates non-null fields of an existing LR. Send the ETag from GET as If-Match to update only if nobody has changed the LR since (a list of ETags matches any of them); without If-Match, or with If-Match: *, the update is unconditional. Returns 404 if the LR does not exist, 409 if it is archived."
     )
-    @ApiResponse(responseCode = "200", description = "Updated successfully")
+    @ApiResponse(responseCode = "200", description = "Updated successfully; the ETag header carries the new version")
     @ApiResponse(responseCode = "400", description = "Path LR and body LR do not match")
     @ApiResponse(responseCode = "404", description = "LR does not exist")
+    @ApiResponse(responseCode = "409", description = "LR is archived and read-only")
+    @ApiResponse(responseCode = "412", description = "If-Match does not match the current version")
 
     @PutMapping("/{lr}")
-    public ResponseEntity<LorryResponseDto> updateLorry(@PathVariable Long lr, @Valid @RequestBody LorryRequestDto dto) {
+    public ResponseEntity<LorryResponseDto> updateLorry(
+            @PathVariable Long lr,
+            @Valid @RequestBody LorryRequestDto dto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
+    ) {
         if (!Objects.equals(lr, dto.getLr())) {
             return ResponseEntity.badRequest().build();
         }
         LorryEntity toUpdate = LorryMapper.toEntity(dto);
-        LorryEntity updated = lorryService.update(toUpdate);
+        LorryEntity updated = lorryService.update(toUpdate, expectedVersions(ifMatch));
 
-        return ResponseEntity.ok(LorryMapper.toDto(updated));
+        return okWithETag(updated);
     }
 
     @Operation(
             summary = "Delete an LR entry",
-            description = "Deletes the LR with the given LR number. Returns 204 on success, 404 if the LR does not exist."
+            description = "Deletes the LR with the given LR number. Returns 204 on success, 404 if the LR does not exist, "
+                    + "409 if it is archived."
     )
     @ApiResponse(responseCode = "204", description = "LR deleted successfully")
     @ApiResponse(responseCode = "404", description = "LR not found")
+    @ApiResponse(responseCode = "409", description = "LR is archived and read-only")
 
     @DeleteMapping("/{lr}")
     public ResponseEntity<Void> deleteLorry(@PathVariable Long lr) {
@@ -147,12 +414,85 @@ public class LorryController {
         return ResponseEntity.noContent().build();
     }
 
+    @Operation(
+            summary = "Update many LR entries at once",
+            description = """
+                Sets the given non-null fields on every selected LR with a single UPDATE statement.
+                Select LRs either with lrs (a list of LR numbers) or with search / from / to filters, not both.
+                At most 1000 LRs can be changed per call; a larger selection is rejected and nothing changes.
+                """
+    )
+    @ApiResponse(responseCode = "200", description = "Number of LRs updated")
+    @ApiResponse(responseCode = "400", description = "Invalid selection, no fields to set or too many LRs")
+
+    @PostMapping("/bulk/update")
+    public Map<String, Long> bulkUpdate(@Valid @RequestBody BulkUpdateRequestDto dto) throws BadRequestException {
+        validateSelection(dto);
+        if (!hasChanges(dto)) {
+            throw new BadRequestException("At least one field to set is required");
+        }
+        LorryEntity changes = LorryMapper.toChanges(dto);
+        long affected = lorryService.updateAll(dto.getLrs(), dto.getSearch(), dto.getFrom(), dto.getTo(), changes);
+        return Collections.singletonMap("affected", affected);
+    }
+
+    @Operation(
+            summary = "Delete many LR entries at once",
+            description = """
+                Deletes every selected LR with a single DELETE statement.
+                Select LRs either with lrs (a list of LR numbers) or with search / from / to filters, not both.
+                At most 1000 LRs can be deleted per call; a larger selection is rejected and nothing is deleted.
+                """
+    )
+    @ApiResponse(responseCode = "200", description = "Number of LRs deleted")
+    @ApiResponse(responseCode = "400", description = "Invalid selection or too many LRs")
+
+    @PostMapping("/bulk/delete")
+    public Map<String, Long> bulkDelete(@RequestBody LorrySelectionDto dto) throws BadRequestException {
+        validateSelection(dto);
+        long affected = lorryService.deleteAll(dto.getLrs(), dto.getSearch(), dto.getFrom(), dto.getTo());
+        return Collections.singletonMap("affected", affected);
+    }
+
+    @Operation(
+            summary = "Changes since a sync token",
+            description = """
+                Delta sync feed. Without since, starts from the beginning (a full first sync).
+                Returns LRs created, updated or deleted after the token, oldest change first;
+                each entry is either the LR's current state or a tombstone (deleted = true).
+                Keep requesting with nextToken while hasMore is true, then store nextToken for
+                the next sync. Changes of transactions still in flight are held back until they
+                finish, so none is ever skipped. Tokens older than the tombstone retention get 410.
+                """
+    )
+    @ApiResponse(responseCode = "200", description = "Changes fetched successfully")
+    @ApiResponse(responseCode = "400", description = "Invalid token or limit")
+    @ApiResponse(responseCode = "410", description = "Token expired; resync without since")
+
+    @GetMapping("/changes")
+    public ChangeFeedDto getChanges(
+            @RequestParam(required = false) String since,
+            @RequestParam(defaultValue = "" + PaginationConfig.DEFAULT_CHANGES_PAGE) int limit) throws BadRequestException {
+        if (limit < 1 || limit > PaginationConfig.MAX_CHANGES_PAGE) {
+            throw new BadRequestException("limit must be between 1 and " + PaginationConfig.MAX_CHANGES_PAGE);
+        }
+        ChangeToken token = since == null || since.isEmpty() ? null : ChangeToken.decode(since);
+        return changeFeedService.changesSince(token, limit);
+    }
+
+    @Operation(
+            summary = "Reserve the next LR number",
+            description = "Allocates a unique LR number from the database sequence. Every call reserves a new number, so concurrent clients never receive the same one; numbers that are never saved leave gaps."
+    )
+    @ApiResponse(responseCode = "200", description = "LR number reserved")
+
     @GetMapping("/next-lr")
     public Map<String, Long> getNextLr() {
         Long nextLr = lorryService.getNextLr();
         return Collections.singletonMap("lr", nextLr);
     }
 
+    // the /distinct lists cover LRs that are not archived
     @GetMapping("/distinct/lorry-numbers")
     public List<String> getLorryNumbers() {
         return lorryService.getDistinctLorryNumbers();
@@ -172,4 +512,206 @@ public class LorryController {
     public List<String> getDistinctConsignors() {
         return lorryService.getDistinctConsignorNames();
     }
-}
\ No newline at end of file
+
+    @Operation(
+            summary = "Autocomplete values for a field",
+            description = """
+                Returns up to limit values of the field starting with prefix (case-insensitive),
+                most frequently used first. field is one of: lorry-numbers, from-locations, to-locations, consignors.
+                Values and frequencies come from LRs that are not archived, like the /distinct lists.
+                """
+    )
+    @ApiResponse(responseCode = "200", description = "Suggestions fetched successfully")
+    @ApiResponse(responseCode = "400", description = "Unknown field or invalid limit")
+
+    @GetMapping("/suggest/{field}")
+    public List<String> suggest(
+            @PathVariable String field,
+            @RequestParam(defaultValue = "") String prefix,
+            @RequestParam(defaultValue = "10") int limit) throws BadRequestException {
+
+        if (limit < 1 || limit > PaginationConfig.MAX_SUGGESTIONS) {
+            throw new BadRequestException(
+                    "Limit must be between 1 and " + PaginationConfig.MAX_SUGGESTIONS
+            );
+        }
+        return lorryService.suggest(DistinctField.fromPathName(field), prefix, limit);
+    }
+
+    @Operation(
+            summary = "Export filtered LR entries",
+            description = """
+                Streams every LR matching the same filters as the list endpoint (search, from, to),
+                newest first, as CSV or newline-delimited JSON (format=csv|ndjson).
+                Rows are written as they are read from a database cursor, so exports of any size
+                need a single request and constant server memory.
+                """
+    )
+    @ApiResponse(responseCode = "200", description = "Export streamed")
+    @ApiResponse(responseCode = "400", description = "Unknown format, or from is after to")
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "csv") String format) {
+
+        // checked here: once the body streams, the 200 and the attachment headers are already sent
+        ExportFormat exportFormat = ExportFormat.fromParam(format);
+        validateDateRange(from, to);
+
+        StreamingResponseBody body = out -> {
+            try (LorryExportWriter writer = LorryExportWriter.open(exportFormat, out, objectMapper)) {
+                lorryService.forEachWithFilters(search, from, to, entity -> writer.write(LorryMapper.toDto(entity)));
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.contentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("lorries." + exportFormat.extension())
+                        .build()
+                        .toString())
+                .body(body);
+    }
+
+    @Operation(
+            summary = "Bulk import LR entries from CSV",
+            description = """
+                Imports a CSV with the same header as the export (lr may be left blank to allocate one).
+                Send it as a multipart upload (part "file") or directly as a text/csv body.
+                Rows are validated like POST /api/lorry and loaded in chunks with COPY; invalid rows
+                and LRs that already exist are skipped and listed in the report. A record that cannot
+                be parsed (e.g. an unterminated quoted field) ends the import: it is listed as the last
+                error and the rows before it are still loaded.
+                """
+    )
+    @ApiResponse(responseCode = "200", description = "Import finished; see the report for rejected rows")
+    @ApiResponse(responseCode = "400", description = "Empty file, malformed header or unknown header column")
+
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ImportReportDto importCsvUpload(@RequestParam("file") MultipartFile file) throws IOException {
+        try (InputStream in = file.getInputStream()) {
+            return importCsvBody(in);
+        }
+    }
+
+    @Operation(summary = "Bulk import LR entries from a text/csv body", description = "Same as the multipart upload.")
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ImportReportDto importCsvBody(InputStream body) throws IOException {
+        return lorryImportService.importCsv(new InputStreamReader(body, StandardCharsets.UTF_8));
+    }
+
+    private <T> SliceResponseDto<T> toSliceBody(
+            Slice<T> result,
+            String search,
+            LocalDate from,
+            LocalDate to,
+            boolean estimateTotal
+    ) {
+        SliceResponseDto<T> body = new SliceResponseDto<>();
+        body.setContent(result.getContent());
+        body.setPage(result.getNumber());
+        body.setSize(result.getSize());
+        body.setHasNext(result.hasNext());
+        if (estimateTotal) {
+            body.setTotalElements(lorryService.estimateCount(search, from, to));
+            body.setTotalEstimated(true);
+        }
+        return body;
+    }
+
+    private static ResponseEntity<LorryResponseDto> okWithETag(LorryEntity entity) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (entity.getVersion() != null) {
+            response.eTag("\"" + entity.getVersion() + "\"");
+        }
+        return response.body(LorryMapper.toDto(entity));
+    }
+
+    private static ResponseEntity<Map<String, Object>> okWithETag(Map<String, Object> row, LorryFieldSet fieldSet) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        Object version = fieldSet.contains("version") ? row.get("version") : row.remove("version");
+        if (version != null) {
+            response.eTag("\"" + version + "\"");
+        }
+        return response.body(row);
+    }
+
+    /*
+     * Versions named by an If-Match header (RFC 9110 13.1.1: "*" or a comma-separated
+     * list of entity tags), empty when the update is unconditional. "*" only needs
+     * the LR to exist, which the update checks anyway. Tags that are not ours can
+     * never match; a header naming none of ours fails without touching the row.
+     */
+    private static List<Long> expectedVersions(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return List.of();
+        }
+        List<Long> versions = new ArrayList<>();
+        int i = 0;
+        while (i < ifMatch.length()) {
+            char c = ifMatch.charAt(i);
+            if (c == ',' || Character.isWhitespace(c)) {
+                i++;
+                continue;
+            }
+            // If-Match compares strongly, so a weak tag never matches
+            boolean weak = ifMatch.startsWith("W/", i);
+            if (weak) {
+                i += 2;
+            }
+            if (i >= ifMatch.length() || ifMatch.charAt(i) != '"') {
+                throw new OptimisticLockingFailureException("Malformed If-Match " + ifMatch);
+            }
+            int close = ifMatch.indexOf('"', i + 1);
+            if (close < 0) {
+                throw new OptimisticLockingFailureException("Malformed If-Match " + ifMatch);
+            }
+            try {
+                long version = Long.parseLong(ifMatch.substring(i + 1, close));
+                if (!weak) {
+                    versions.add(version);
+                }
+            } catch (NumberFormatException e) {
+                // not one of our tags
+            }
+            i = close + 1;
+        }
+        if (versions.isEmpty()) {
+            throw new OptimisticLockingFailureException("If-Match " + ifMatch + " does not match the current version");
+        }
+        return versions;
+    }
+
+    private static void validateSelection(LorrySelectionDto selection) {
+        if (selection.hasLrs() == selection.hasFilters()) {
+            throw new BadRequestException("Select LRs either by lrs or by search / from / to filters");
+        }
+        if (selection.hasLrs() && selection.getLrs().size() > PaginationConfig.MAX_BULK_ROWS) {
+            throw new BadRequestException("At most " + PaginationConfig.MAX_BULK_ROWS + " LRs can be changed at once");
+        }
+    }
+
+    private static boolean hasChanges(BulkUpdateRequestDto dto) {
+        return dto.getLorryNumber() != null || dto.getDate() != null
+                || dto.getFromLocation() != null || dto.getToLocation() != null
+                || dto.getConsignorName() != null || dto.getConsignorAddress() != null
+                || dto.getDescription() != null || dto.getWeight() != null || dto.getFreight() != null;
+    }
+
+    private void validateDateRange(LocalDate from, LocalDate to) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new BadRequestException("From date cannot be after To date");
+        }
+    }
+
+    private void validatePageSize(int size) {
+        if (size < 1 || size > PaginationConfig.MAX_PAGE_SIZE) {
+            throw new BadRequestException(
+                    "Page size must be between 1 and " + PaginationConfig.MAX_PAGE_SIZE
+            );
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.lorryManagement.csv;
+
+public final class Csv {
+
+    private Csv() {
+    }
+
+    // RFC 4180: quote when the value contains a separator, quote or line break
+    public static String field(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0
+                && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
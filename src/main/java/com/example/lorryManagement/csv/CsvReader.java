@@ -0,0 +1,109 @@
+package com.example.lorryManagement.csv;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * Minimal streaming RFC 4180 reader: comma separated, double-quote escaping,
+ * quoted fields may span lines, CRLF or LF record endings. Reads one record at
+ * a time, so the input is never held in memory.
+ */
+public class CsvReader implements Closeable {
+    private static final int BOM = '\uFEFF';
+
+    private final BufferedReader in;
+    private long recordNumber;
+    private boolean started;
+
+    public CsvReader(Reader in) {
+        this.in = in instanceof BufferedReader buffered ? buffered : new BufferedReader(in, 64 * 1024);
+    }
+
+    /*
+     * Next record, or null at end of input. Blank lines are skipped.
+     */
+    public List<String> next() throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean fieldStarted = false;
+
+        int c = read();
+        if (c == -1) {
+            return null;
+        }
+        while (c == '\r' || c == '\n') {
+            c = read();
+            if (c == -1) {
+                return null;
+            }
+        }
+
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new MalformedCsvException(recordNumber + 1, "Unterminated quoted field");
+                }
+                if (c == '"') {
+                    int peek = read();
+                    if (peek == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        c = peek;
+                        continue;
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"' && !fieldStarted) {
+                quoted = true;
+                fieldStarted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+                fieldStarted = false;
+            } else if (c == '\r' || c == '\n' || c == -1) {
+                if (c == '\r') {
+                    in.mark(1);
+                    if (in.read() != '\n') {
+                        in.reset();
+                    }
+                }
+                fields.add(field.toString());
+                recordNumber++;
+                return fields;
+            } else {
+                field.append((char) c);
+                fieldStarted = true;
+            }
+            c = read();
+        }
+    }
+
+    // 1-based number of the record last returned by next()
+    public long recordNumber() {
+        return recordNumber;
+    }
+
+    private int read() throws IOException {
+        int c = in.read();
+        if (!started) {
+            started = true;
+            // spreadsheet exports often start with a UTF-8 byte order mark
+            if (c == BOM) {
+                c = in.read();
+            }
+        }
+        return c;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
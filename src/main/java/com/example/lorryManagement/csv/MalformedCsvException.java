@@ -0,0 +1,20 @@
+package com.example.lorryManagement.csv;
+
+import java.io.IOException;
+
+/*
+ * A record that cannot be parsed. Nothing after it can be read reliably, so the
+ * reader gives up; recordNumber is the 1-based number of the broken record.
+ */
+public class MalformedCsvException extends IOException {
+    private final long recordNumber;
+
+    public MalformedCsvException(long recordNumber, String message) {
+        super(message);
+        this.recordNumber = recordNumber;
+    }
+
+    public long recordNumber() {
+        return recordNumber;
+    }
+}
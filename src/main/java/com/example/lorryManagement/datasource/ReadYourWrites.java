@@ -0,0 +1,62 @@
+package com.example.lorryManagement.datasource;
+
+import java.time.Instant;
+import java.util.function.Consumer;
+
+/*
+ * Per-request routing state. A request that has written reads from the primary for
+ * the rest of the request; lastWrite carries the client's previous write (from the
+ * cookie set by ReadYourWritesFilter) so it is not served from a replica that has
+ * not replayed that write yet. Threads outside a request (scheduled jobs, async
+ * export) have no state and are routed by replica lag alone.
+ */
+public final class ReadYourWrites {
+    private static final ThreadLocal<Request> CURRENT = new ThreadLocal<>();
+
+    private ReadYourWrites() {
+    }
+
+    public static void begin(Instant lastWrite, Consumer<Instant> onCommit) {
+        CURRENT.set(new Request(lastWrite, onCommit));
+    }
+
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    static void markWrite() {
+        Request request = CURRENT.get();
+        if (request != null) {
+            request.wrote = true;
+        }
+    }
+
+    // the commit time of a write made by this request
+    static void committed(Instant at) {
+        Request request = CURRENT.get();
+        if (request != null) {
+            request.onCommit.accept(at);
+        }
+    }
+
+    static boolean wroteInThisRequest() {
+        Request request = CURRENT.get();
+        return request != null && request.wrote;
+    }
+
+    static Instant lastWrite() {
+        Request request = CURRENT.get();
+        return request == null ? null : request.lastWrite;
+    }
+
+    private static final class Request {
+        private final Instant lastWrite;
+        private final Consumer<Instant> onCommit;
+        private boolean wrote;
+
+        private Request(Instant lastWrite, Consumer<Instant> onCommit) {
+            this.lastWrite = lastWrite;
+            this.onCommit = onCommit;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.lorryManagement.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+
+/*
+ * Carries a client's last write between requests: a request that commits a write
+ * answers with a short-lived cookie holding the commit time, and later requests
+ * presenting it are kept off the replica until the replica has replayed past it.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+    static final String COOKIE = "lorry_last_write";
+
+    private final int cookieMaxAgeSeconds;
+
+    // after maxAge the replica has either caught up or is too far behind to be used at all
+    public ReadYourWritesFilter(Duration maxAge) {
+        this.cookieMaxAgeSeconds = (int) Math.max(1, maxAge.toSeconds());
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain
+    ) throws ServletException, IOException {
+
+        ReadYourWrites.begin(lastWrite(request), committedAt -> {
+            // a streamed response may already be on the wire; its later reads still stay on the primary
+            if (!response.isCommitted()) {
+                Cookie cookie = new Cookie(COOKIE, Long.toString(committedAt.toEpochMilli()));
+                cookie.setPath("/");
+                cookie.setHttpOnly(true);
+                cookie.setMaxAge(cookieMaxAgeSeconds);
+                response.addCookie(cookie);
+            }
+        });
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReadYourWrites.end();
+        }
+    }
+
+    private static Instant lastWrite(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return null;
+        }
+        for (Cookie cookie : cookies) {
+            if (COOKIE.equals(cookie.getName())) {
+                try {
+                    return Instant.ofEpochMilli(Long.parseLong(cookie.getValue()));
+                } catch (NumberFormatException e) {
+                    // a tampered cookie is treated as a write just now
+                    return Instant.now();
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.lorryManagement.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/*
+ * Samples replication lag on the replica. From a sample taken at T with lag L the
+ * replica is known to hold every commit made before T - L; reads that need a later
+ * commit, and all reads while the replica is unreachable, too far behind or not
+ * sampled recently, go to the primary.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+    // a server that is not a standby (e.g. the primary used as a local stand-in) has no lag
+    private static final String LAG_MILLIS = """
+            SELECT CASE
+                WHEN NOT pg_is_in_recovery() THEN 0
+                WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                ELSE CAST(COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0) AS BIGINT)
+            END
+            """;
+
+    private final JdbcTemplate replica;
+    private final Duration maxLag;
+    private final Duration staleAfter;
+    // every commit before this instant is visible on the replica; null while unusable
+    private volatile Instant replayedUpTo;
+
+    public ReplicaLagMonitor(JdbcTemplate replica, Duration maxLag, Duration checkInterval) {
+        this.replica = replica;
+        this.maxLag = maxLag;
+        this.staleAfter = maxLag.plus(checkInterval.multipliedBy(2));
+    }
+
+    @Scheduled(fixedDelayString = "${lorry.datasource.replica.lag-check-interval:PT2S}")
+    public void check() {
+        Instant sampledAt = Instant.now();
+        Instant upTo = null;
+        try {
+            Long lagMillis = replica.queryForObject(LAG_MILLIS, Long.class);
+            Duration lag = Duration.ofMillis(lagMillis == null ? 0 : lagMillis);
+            if (lag.compareTo(maxLag) <= 0) {
+                upTo = sampledAt.minus(lag);
+            } else if (replayedUpTo != null) {
+                log.warn("Replica is {} ms behind; reads go to the primary", lag.toMillis());
+            }
+        } catch (DataAccessException e) {
+            if (replayedUpTo != null) {
+                log.warn("Replica unreachable; reads go to the primary", e);
+            }
+        }
+        if (upTo != null && replayedUpTo == null) {
+            log.info("Replica is within {} ms of the primary; read-only transactions use it", maxLag.toMillis());
+        }
+        replayedUpTo = upTo;
+    }
+
+    // whether the replica can serve a read that must see a write committed at lastWrite (null: no such write)
+    public boolean hasReplayed(Instant lastWrite) {
+        Instant upTo = replayedUpTo;
+        if (upTo == null || upTo.isBefore(Instant.now().minus(staleAfter))) {
+            return false;
+        }
+        return lastWrite == null || lastWrite.isBefore(upTo);
+    }
+}
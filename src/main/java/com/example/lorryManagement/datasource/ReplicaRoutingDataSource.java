@@ -0,0 +1,77 @@
+package com.example.lorryManagement.datasource;
+
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Instant;
+import java.util.Map;
+
+/*
+ * Sends read-only transactions to the replica and everything else to the primary.
+ * Must sit behind a LazyConnectionDataSourceProxy: the transaction's read-only flag
+ * is only known once the transaction has started, i.e. when its first statement
+ * fetches the physical connection, not when the transaction manager asks for one.
+ * Rows read from the replica never go into the second-level cache: the write they may
+ * lag behind has already evicted its entry, so a stale put would outlive the lag.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+    enum Target { PRIMARY, REPLICA }
+
+    private final ReplicaLagMonitor lagMonitor;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagMonitor lagMonitor) {
+        this.lagMonitor = lagMonitor;
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        // no transaction: migrations, startup checks, sequence calls
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return Target.PRIMARY;
+        }
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            ReadYourWrites.markWrite();
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    ReadYourWrites.committed(Instant.now());
+                }
+            });
+            return Target.PRIMARY;
+        }
+        if (ReadYourWrites.wroteInThisRequest()) {
+            return Target.PRIMARY;
+        }
+        if (!lagMonitor.hasReplayed(ReadYourWrites.lastWrite())) {
+            return Target.PRIMARY;
+        }
+        skipEntityCachePuts();
+        return Target.REPLICA;
+    }
+
+    // with open-in-view the session outlives the transaction, so hand its mode back afterwards
+    private static void skipEntityCachePuts() {
+        TransactionSynchronizationManager.getResourceMap().values().stream()
+                .filter(EntityManagerHolder.class::isInstance)
+                .map(holder -> ((EntityManagerHolder) holder).getEntityManager().unwrap(Session.class))
+                .forEach(session -> {
+                    CacheMode previous = session.getCacheMode();
+                    session.setCacheMode(CacheMode.GET);
+                    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                        @Override
+                        public void afterCompletion(int status) {
+                            if (session.isOpen()) {
+                                session.setCacheMode(previous);
+                            }
+                        }
+                    });
+                });
+    }
+}
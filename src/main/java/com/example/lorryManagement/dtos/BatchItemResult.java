@@ -0,0 +1,23 @@
+package com.example.lorryManagement.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.util.List;
+import java.util.Map;
+
+/*
+ * Outcome of one item of POST /api/lorry/batch. index is the item's position in the request.
+ */
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public record BatchItemResult(int index, Long lr, Status status, List<Map<String, String>> errors) {
+
+    public enum Status {
+        CREATED, CONFLICT, INVALID;
+
+        @JsonValue
+        public String value() {
+            return name().toLowerCase();
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.lorryManagement.dtos;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+public class BatchResponseDto {
+    private int created;
+    private int conflicts;
+    private int invalid;
+    private List<BatchItemResult> items = new ArrayList<>();
+
+}
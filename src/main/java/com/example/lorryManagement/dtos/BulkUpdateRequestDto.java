@@ -0,0 +1,43 @@
+package com.example.lorryManagement.dtos;
+
+import jakarta.validation.constraints.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/*
+ * Selection plus the fields to set on every selected LR. Null fields are left unchanged,
+ * the same partial-update rule as PUT /api/lorry/{lr}.
+ */
+@Getter
+@Setter
+public class BulkUpdateRequestDto extends LorrySelectionDto {
+    @Pattern(
+            regexp = "^[A-Z]{2}\\d{1,2}[A-Z]{1,3}\\d{1,4}$",
+            message = "Invalid lorry number format (e.g. MH12AB1234)"
+    )
+    private String lorryNumber;
+    @Size(min = 3, max = 100, message = "Consignor name must be at least 3 characters")
+    private String consignorName;
+    private LocalDate date;
+
+    @Size(min = 2, max = 100, message = "From location is too short")
+    private String fromLocation;
+    @Size(min = 2, max = 100, message = "To location is too short")
+    private String toLocation;
+
+    @Size(max = 255, message = "Consignor address is too long")
+    private String consignorAddress;
+
+    @Size(max = 500, message = "Description is too long")
+    private String description;
+
+    @Positive(message = "Weight must be greater than zero")
+    private BigDecimal weight;
+
+    @Positive(message = "Freight must be greater than zero")
+    private BigDecimal freight;
+
+}
@@ -0,0 +1,16 @@
+package com.example.lorryManagement.dtos;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+public class ChangeFeedDto {
+    private List<LorryChangeDto> changes;
+    // pass back as since; also returned when there are no changes
+    private String nextToken;
+    // more changes are ready now; request again with nextToken right away
+    private boolean hasMore;
+}
@@ -0,0 +1,41 @@
+package com.example.lorryManagement.dtos;
+
+import com.example.lorryManagement.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/*
+ * Opaque position in the change feed: every change ordered at or before
+ * (changeXid, changeSeq) has been delivered.
+ */
+public record ChangeToken(long changeXid, long changeSeq) {
+    public static final ChangeToken START = new ChangeToken(0, 0);
+
+    private static final String SEPARATOR = ":";
+
+    public String encode() {
+        String raw = changeXid + SEPARATOR + changeSeq;
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ChangeToken decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(SEPARATOR, 2);
+            if (parts.length != 2) {
+                throw new BadRequestException("Invalid change token");
+            }
+            return new ChangeToken(Long.parseLong(parts[0]), Long.parseLong(parts[1]));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid change token");
+        }
+    }
+
+    public boolean isAfter(ChangeToken other) {
+        return changeXid > other.changeXid
+                || (changeXid == other.changeXid && changeSeq > other.changeSeq);
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.lorryManagement.dtos;
+
+import java.math.BigDecimal;
+
+// totals of one consignor over the requested date range
+public record ConsignorTotalDto(
+        String consignorName,
+        long trips,
+        BigDecimal totalWeight,
+        BigDecimal totalFreight
+) {
+}
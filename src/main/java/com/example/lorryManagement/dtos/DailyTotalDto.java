@@ -0,0 +1,13 @@
+package com.example.lorryManagement.dtos;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// trips, weight and freight of all LRs dated on one day
+public record DailyTotalDto(
+        LocalDate date,
+        long trips,
+        BigDecimal totalWeight,
+        BigDecimal totalFreight
+) {
+}
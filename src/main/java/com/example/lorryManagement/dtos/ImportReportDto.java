@@ -0,0 +1,19 @@
+package com.example.lorryManagement.dtos;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+public class ImportReportDto {
+    private long totalRows;
+    private long imported;
+    private long failed;
+    // true when more errors occurred than are listed
+    private boolean errorsTruncated;
+    private List<ImportRowError> errors = new ArrayList<>();
+
+}
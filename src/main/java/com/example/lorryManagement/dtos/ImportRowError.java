@@ -0,0 +1,8 @@
+package com.example.lorryManagement.dtos;
+
+/*
+ * One problem with one imported row. row is the 1-based record number in the file,
+ * header included, so it matches the row number shown by spreadsheet tools.
+ */
+public record ImportRowError(long row, Long lr, String field, String message) {
+}
@@ -0,0 +1,15 @@
+package com.example.lorryManagement.dtos;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+public class LookupResponseDto {
+    // found LRs, in the order they were requested
+    private List<LorryResponseDto> content;
+    private List<Long> notFound;
+
+}
@@ -0,0 +1,15 @@
+package com.example.lorryManagement.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.OffsetDateTime;
+
+// one entry of the change feed: the current state of an LR, or a tombstone (deleted, no lorry)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record LorryChangeDto(
+        Long lr,
+        boolean deleted,
+        OffsetDateTime changedAt,
+        LorryResponseDto lorry
+) {
+}
@@ -0,0 +1,47 @@
+package com.example.lorryManagement.dtos;
+
+import com.example.lorryManagement.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.Base64;
+
+/*
+ * Opaque position for keyset pagination: the last lr returned plus the filters
+ * it was returned for, so a follow-up request only needs to send the cursor.
+ */
+public record LorryCursor(Long lastLr, String search, LocalDate from, LocalDate to) {
+    private static final String SEPARATOR = "\u001f";
+
+    public String encode() {
+        String raw = String.join(
+                SEPARATOR,
+                String.valueOf(lastLr),
+                from == null ? "" : from.toString(),
+                to == null ? "" : to.toString(),
+                search == null ? "" : search
+        );
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static LorryCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split(SEPARATOR, 4);
+            if (parts.length != 4) {
+                throw new BadRequestException("Invalid cursor");
+            }
+            return new LorryCursor(
+                    Long.parseLong(parts[0]),
+                    parts[3].isEmpty() ? null : parts[3],
+                    parts[1].isEmpty() ? null : LocalDate.parse(parts[1]),
+                    parts[2].isEmpty() ? null : LocalDate.parse(parts[2])
+            );
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+}
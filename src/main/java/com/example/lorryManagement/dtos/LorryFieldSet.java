@@ -0,0 +1,55 @@
+package com.example.lorryManagement.dtos;
+
+import com.example.lorryManagement.exception.BadRequestException;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/*
+ * Sparse fieldset from a fields=lr,date,freight parameter. Names are the
+ * LorryResponseDto properties, which are also the LorryEntity attribute names,
+ * so they go straight into the select list.
+ */
+public record LorryFieldSet(List<String> fields) {
+    public static final List<String> ALLOWED = List.of(
+            "lr", "lorryNumber", "date", "fromLocation", "toLocation", "consignorName",
+            "consignorAddress", "description", "weight", "freight", "version"
+    );
+
+    public static LorryFieldSet parse(String fields) {
+        Set<String> requested = new LinkedHashSet<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!ALLOWED.contains(name)) {
+                throw new BadRequestException(
+                        "Unknown field: " + name + " (allowed: " + String.join(",", ALLOWED) + ")"
+                );
+            }
+            requested.add(name);
+        }
+        if (requested.isEmpty()) {
+            throw new BadRequestException("fields must name at least one field");
+        }
+        return new LorryFieldSet(List.copyOf(requested));
+    }
+
+    public boolean contains(String field) {
+        return fields.contains(field);
+    }
+
+    // the requested fields plus extra ones needed internally (e.g. version for the ETag)
+    public List<String> with(String... extra) {
+        List<String> all = new ArrayList<>(fields);
+        for (String field : extra) {
+            if (!all.contains(field)) {
+                all.add(field);
+            }
+        }
+        return all;
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.lorryManagement.dtos;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/*
+ * Row of the LR list grid. Selected straight from the query (no entity, no
+ * persistence context); the TEXT columns consignorAddress and description are
+ * never read for it.
+ */
+public record LorryListItemDto(
+        Long lr,
+        String lorryNumber,
+        LocalDate date,
+        String fromLocation,
+        String toLocation,
+        String consignorName,
+        BigDecimal weight,
+        BigDecimal freight
+) {
+}
@@ -10,7 +10,7 @@ import java.time.LocalDate;
 @Getter
 @Setter
 public class LorryRequestDto {
-    @NotNull(message = "LR is missing. Try regenerating.")
+    // optional on create: a fresh LR is allocated when it is left out
     private Long lr;
     @NotBlank(message = "Lorry number is required")
     @Pattern(
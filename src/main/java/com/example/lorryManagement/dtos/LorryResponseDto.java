@@ -19,5 +19,6 @@ public class LorryResponseDto {
     private String description;
     private  BigDecimal weight;
     private BigDecimal freight;
+    private Long version;
 
 }
@@ -0,0 +1,28 @@
+package com.example.lorryManagement.dtos;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/*
+ * Which LRs a bulk operation applies to: either an explicit list of LR numbers
+ * or the same search / from / to filters as the list endpoint, never both.
+ */
+@Getter
+@Setter
+public class LorrySelectionDto {
+    private List<Long> lrs;
+    private String search;
+    private LocalDate from;
+    private LocalDate to;
+
+    public boolean hasLrs() {
+        return lrs != null && !lrs.isEmpty();
+    }
+
+    public boolean hasFilters() {
+        return (search != null && !search.isBlank()) || from != null || to != null;
+    }
+}
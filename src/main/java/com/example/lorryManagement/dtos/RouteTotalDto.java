@@ -0,0 +1,13 @@
+package com.example.lorryManagement.dtos;
+
+import java.math.BigDecimal;
+
+// totals of one fromLocation -> toLocation route over the requested date range
+public record RouteTotalDto(
+        String fromLocation,
+        String toLocation,
+        long trips,
+        BigDecimal totalWeight,
+        BigDecimal totalFreight
+) {
+}
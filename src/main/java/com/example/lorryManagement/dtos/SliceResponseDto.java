@@ -0,0 +1,21 @@
+package com.example.lorryManagement.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SliceResponseDto<T> {
+    private List<T> content;
+    private Integer page;
+    private int size;
+    private boolean hasNext;
+    private String nextCursor;
+    private Long totalElements;
+    private Boolean totalEstimated;
+
+}
@@ -0,0 +1,19 @@
+package com.example.lorryManagement.dtos;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// all-time counts for one lorry number; dates are null when it has no trips
+public record VehicleSummaryDto(
+        Long totalTrips,
+        LocalDate firstTripDate,
+        LocalDate lastTripDate,
+        BigDecimal totalWeight,
+        BigDecimal totalFreight
+) {
+    public VehicleSummaryDto {
+        // sum() over no rows is null
+        totalWeight = totalWeight == null ? BigDecimal.ZERO : totalWeight;
+        totalFreight = totalFreight == null ? BigDecimal.ZERO : totalFreight;
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.lorryManagement.dtos;
+
+import com.example.lorryManagement.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.Base64;
+
+/*
+ * Opaque position in a vehicle's trip history, ordered by date DESC, lr DESC:
+ * the date and lr of the last trip returned.
+ */
+public record VehicleTripCursor(LocalDate lastDate, Long lastLr) {
+    private static final String SEPARATOR = "\u001f";
+
+    public String encode() {
+        String raw = lastDate + SEPARATOR + lastLr;
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static VehicleTripCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split(SEPARATOR, 2);
+            if (parts.length != 2) {
+                throw new BadRequestException("Invalid cursor");
+            }
+            return new VehicleTripCursor(LocalDate.parse(parts[0]), Long.parseLong(parts[1]));
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.lorryManagement.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class VehicleTripsDto {
+    // first page only
+    private VehicleSummaryDto summary;
+    private List<LorryListItemDto> content;
+    private int size;
+    private boolean hasNext;
+    private String nextCursor;
+}
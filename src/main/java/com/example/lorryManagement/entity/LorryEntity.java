@@ -1,20 +1,34 @@
 package com.example.lorryManagement.entity;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.Transient;
+import jakarta.persistence.Version;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.springframework.data.domain.Persistable;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 
 @Entity(name = "lorry")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = LorryEntity.CACHE_REGION)
 @Getter
 @Setter
 @AllArgsConstructor
-public class LorryEntity {
+public class LorryEntity implements Persistable<Long> {
+    // second-level cache by id; most writes bypass Hibernate, see LorryEntityCacheEvictor
+    public static final String CACHE_REGION = "lorry-entity";
+
     @Id
     private Long lr;
     @Column(nullable = false, length = 10)
@@ -31,7 +45,38 @@ public class LorryEntity {
     private BigDecimal weight;
     @Column(precision = 10, scale = 2)
     private BigDecimal freight;
+    @Version
+    private Long version;
+    // maintained by the database (see V3__add_search_trigram_index.sql)
+    @Column(insertable = false, updatable = false)
+    private String searchText;
+    // LR is an assigned id, so Spring Data cannot tell new from existing by itself;
+    // without this, save() would merge() and SELECT before every INSERT
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private boolean newEntity;
     public LorryEntity() {
 
     }
+
+    @Override
+    public Long getId() {
+        return lr;
+    }
+
+    @Override
+    public boolean isNew() {
+        return newEntity;
+    }
+
+    public void markNew() {
+        this.newEntity = true;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.newEntity = false;
+    }
 }
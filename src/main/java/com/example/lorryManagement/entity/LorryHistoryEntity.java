@@ -0,0 +1,54 @@
+package com.example.lorryManagement.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.Getter;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/*
+ * Read-only view over hot and archived LRs (see V11__add_lorry_archive.sql).
+ * Attribute names match LorryEntity, so the same specifications apply to both.
+ */
+@Entity(name = "lorry_history")
+@Immutable
+@Getter
+public class LorryHistoryEntity {
+    @Id
+    private Long lr;
+    private String lorryNumber;
+    private LocalDate date;
+    private String fromLocation;
+    private String toLocation;
+    private String consignorName;
+    private String consignorAddress;
+    private String description;
+    private BigDecimal weight;
+    private BigDecimal freight;
+    private Long version;
+    private String searchText;
+
+    protected LorryHistoryEntity() {
+
+    }
+
+    // a detached copy; callers treat hot and archived rows alike
+    public LorryEntity toLorryEntity() {
+        LorryEntity entity = new LorryEntity();
+        entity.setLr(lr);
+        entity.setLorryNumber(lorryNumber);
+        entity.setDate(date);
+        entity.setFromLocation(fromLocation);
+        entity.setToLocation(toLocation);
+        entity.setConsignorName(consignorName);
+        entity.setConsignorAddress(consignorAddress);
+        entity.setDescription(description);
+        entity.setWeight(weight);
+        entity.setFreight(freight);
+        entity.setVersion(version);
+        entity.setSearchText(searchText);
+        return entity;
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.lorryManagement.event;
+
+import com.example.lorryManagement.entity.LorryEntity;
+
+/*
+ * Published by the service write paths. Listeners receive it after the
+ * transaction commits and patch their in-memory state from before/after.
+ * A bulk event (no before/after) means many rows changed and derived state
+ * should be rebuilt.
+ */
+public record LorryChangedEvent(LorrySnapshot before, LorrySnapshot after) {
+
+    public static LorryChangedEvent created(LorryEntity entity) {
+        return new LorryChangedEvent(null, LorrySnapshot.of(entity));
+    }
+
+    public static LorryChangedEvent updated(LorrySnapshot before, LorryEntity after) {
+        return new LorryChangedEvent(before, LorrySnapshot.of(after));
+    }
+
+    public static LorryChangedEvent deleted(LorryEntity entity) {
+        return new LorryChangedEvent(LorrySnapshot.of(entity), null);
+    }
+
+    public static LorryChangedEvent bulk() {
+        return new LorryChangedEvent(null, null);
+    }
+
+    public boolean isBulk() {
+        return before == null && after == null;
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.lorryManagement.event;
+
+import com.example.lorryManagement.entity.LorryEntity;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/*
+ * Immutable copy of the fields that derived data (caches, suggestions) is built from.
+ * Free-text columns are left out on purpose.
+ */
+public record LorrySnapshot(
+        Long lr,
+        String lorryNumber,
+        LocalDate date,
+        String fromLocation,
+        String toLocation,
+        String consignorName,
+        BigDecimal weight,
+        BigDecimal freight
+) {
+    public static LorrySnapshot of(LorryEntity entity) {
+        return new LorrySnapshot(
+                entity.getLr(),
+                entity.getLorryNumber(),
+                entity.getDate(),
+                entity.getFromLocation(),
+                entity.getToLocation(),
+                entity.getConsignorName(),
+                entity.getWeight(),
+                entity.getFreight()
+        );
+    }
+}
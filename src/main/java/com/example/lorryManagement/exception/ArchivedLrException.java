@@ -0,0 +1,8 @@
+package com.example.lorryManagement.exception;
+
+// archived LRs are read-only: they can be fetched but no longer changed or deleted
+public class ArchivedLrException extends RuntimeException {
+    public ArchivedLrException(Long lr) {
+        super("LR " + lr + " is archived and can no longer be changed");
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.lorryManagement.exception;
+
+// the token predates purged tombstones, so deletions may have been missed; the client must resync in full
+public class ChangeTokenExpiredException extends RuntimeException {
+    public ChangeTokenExpiredException(String message) {
+        super(message);
+    }
+}
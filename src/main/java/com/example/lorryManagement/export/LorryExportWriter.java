@@ -0,0 +1,108 @@
+package com.example.lorryManagement.export;
+
+import com.example.lorryManagement.csv.Csv;
+import com.example.lorryManagement.dtos.LorryResponseDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/*
+ * Writes exported rows one at a time, so memory use does not depend on
+ * how many rows are exported. Nothing is held back beyond the output buffer.
+ */
+public abstract class LorryExportWriter implements Closeable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    protected final Writer out;
+
+    protected LorryExportWriter(OutputStream out) {
+        this.out = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    public static LorryExportWriter open(ExportFormat format, OutputStream out, ObjectMapper objectMapper) {
+        return switch (format) {
+            case CSV -> new CsvWriter(out);
+            case NDJSON -> new NdjsonWriter(out, objectMapper);
+        };
+    }
+
+    // unchecked so it can be used from a stream's forEach
+    public void write(LorryResponseDto row) {
+        try {
+            writeRow(row);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    protected abstract void writeRow(LorryResponseDto row) throws IOException;
+
+    @Override
+    public void close() throws IOException {
+        out.flush();
+    }
+
+    private static final class CsvWriter extends LorryExportWriter {
+        private static final String HEADER =
+                "lr,lorryNumber,date,fromLocation,toLocation,consignorName,consignorAddress,description,weight,freight\r\n";
+
+        private boolean headerWritten;
+
+        private CsvWriter(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        protected void writeRow(LorryResponseDto row) throws IOException {
+            if (!headerWritten) {
+                out.write(HEADER);
+                headerWritten = true;
+            }
+            out.write(String.join(",",
+                    Csv.field(row.getLr()),
+                    Csv.field(row.getLorryNumber()),
+                    Csv.field(row.getDate()),
+                    Csv.field(row.getFromLocation()),
+                    Csv.field(row.getToLocation()),
+                    Csv.field(row.getConsignorName()),
+                    Csv.field(row.getConsignorAddress()),
+                    Csv.field(row.getDescription()),
+                    Csv.field(row.getWeight() == null ? null : row.getWeight().toPlainString()),
+                    Csv.field(row.getFreight() == null ? null : row.getFreight().toPlainString())
+            ));
+            out.write("\r\n");
+        }
+
+        @Override
+        public void close() throws IOException {
+            // an empty export is still a valid CSV with its header
+            if (!headerWritten) {
+                out.write(HEADER);
+                headerWritten = true;
+            }
+            super.close();
+        }
+    }
+
+    private static final class NdjsonWriter extends LorryExportWriter {
+        private final ObjectMapper objectMapper;
+
+        private NdjsonWriter(OutputStream out, ObjectMapper objectMapper) {
+            super(out);
+            this.objectMapper = objectMapper;
+        }
+
+        @Override
+        protected void writeRow(LorryResponseDto row) throws IOException {
+            out.write(objectMapper.writeValueAsString(row));
+            out.write('\n');
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.lorryManagement.mapper;
 
+import com.example.lorryManagement.dtos.BulkUpdateRequestDto;
 import com.example.lorryManagement.dtos.LorryRequestDto;
 import com.example.lorryManagement.dtos.LorryResponseDto;
 import com.example.lorryManagement.entity.LorryEntity;
@@ -22,6 +23,20 @@ public final class LorryMapper {
         entity.setDescription(dto.getDescription());
         return entity;
     }
+    // fields to set in a bulk update; lr stays null
+    public static LorryEntity toChanges(BulkUpdateRequestDto dto) {
+        LorryEntity entity = new LorryEntity();
+        entity.setDate(dto.getDate());
+        entity.setLorryNumber(dto.getLorryNumber());
+        entity.setFreight(dto.getFreight());
+        entity.setWeight(dto.getWeight());
+        entity.setConsignorName(dto.getConsignorName());
+        entity.setConsignorAddress(dto.getConsignorAddress());
+        entity.setFromLocation(dto.getFromLocation());
+        entity.setToLocation(dto.getToLocation());
+        entity.setDescription(dto.getDescription());
+        return entity;
+    }
     public static LorryResponseDto toDto(LorryEntity entity) {
         LorryResponseDto dto = new LorryResponseDto();
         dto.setLr(entity.getLr());
@@ -34,6 +49,7 @@ public final class LorryMapper {
         dto.setFromLocation(entity.getFromLocation());
         dto.setToLocation(entity.getToLocation());
         dto.setDescription(entity.getDescription());
+        dto.setVersion(entity.getVersion());
         return dto;
     }
 }
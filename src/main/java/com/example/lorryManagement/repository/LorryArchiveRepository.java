@@ -0,0 +1,99 @@
+package com.example.lorryManagement.repository;
+
+import com.example.lorryManagement.entity.LorryEntity;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/*
+ * Moves old LRs from lorry to lorry_archive (V11) and reads archived LRs by number.
+ * Range queries over both tables go through lorry_history (LorryRepository's *WithArchive methods).
+ */
+@Repository
+public class LorryArchiveRepository {
+    private static final String COLUMNS = "lr, lorry_number, date, from_location, to_location, consignor_name, "
+            + "consignor_address, description, weight, freight, version, updated_at";
+    // archived LRs are read-only, so reads hand out no version to send back as If-Match;
+    // search_text is derived, not stored, in the archive and nothing outside the search predicate reads it
+    private static final String READ_COLUMNS = "lr, lorry_number, date, from_location, to_location, consignor_name, "
+            + "consignor_address, description, weight, freight, NULL::bigint AS version, NULL AS search_text";
+
+    /*
+     * One batch: the oldest LRs dated before the cutoff are locked, deleted from lorry
+     * and inserted into the archive by a single statement, so a batch is moved entirely
+     * or not at all. SKIP LOCKED leaves rows that are being edited (or moved by another
+     * instance) for a later batch.
+     */
+    private static final String MOVE_BATCH = """
+            WITH batch AS (
+                SELECT lr, date
+                FROM lorry
+                WHERE date < :cutoff
+                ORDER BY date, lr
+                LIMIT :limit
+                FOR UPDATE SKIP LOCKED
+            ),
+            moved AS (
+                DELETE FROM lorry l
+                USING batch b
+                WHERE l.lr = b.lr AND l.date = b.date
+                RETURNING l.*
+            )
+            INSERT INTO lorry_archive (%1$s)
+            SELECT %1$s FROM moved
+            ORDER BY date, lr
+            """.formatted(COLUMNS);
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public LorryArchiveRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // moves up to limit LRs dated before cutoff; returns how many moved. Must run inside a transaction.
+    public int moveBatch(LocalDate cutoff, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("cutoff", cutoff)
+                .addValue("limit", limit);
+
+        // tells the DELETE triggers on lorry that this is a move, not a deletion (see V11); reset on commit
+        jdbcTemplate.getJdbcTemplate().queryForObject("SELECT set_config('lorry.archiving', 'on', true)", String.class);
+        int moved = jdbcTemplate.update(MOVE_BATCH, params);
+        jdbcTemplate.getJdbcTemplate().queryForObject("SELECT set_config('lorry.archiving', 'off', true)", String.class);
+        return moved;
+    }
+
+    public Optional<LocalDate> findLatestDate() {
+        return Optional.ofNullable(jdbcTemplate.getJdbcTemplate()
+                .queryForObject("SELECT max(date) FROM lorry_archive", LocalDate.class));
+    }
+
+    public Optional<LorryEntity> findByLr(Long lr) {
+        return jdbcTemplate.query(
+                "SELECT " + READ_COLUMNS + " FROM lorry_archive WHERE lr = :lr",
+                new MapSqlParameterSource("lr", lr),
+                (rs, rowNum) -> LorryRepositoryCustomImpl.mapRow(rs, "")
+        ).stream().findFirst();
+    }
+
+    public boolean existsByLr(Long lr) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM lorry_archive WHERE lr = :lr)",
+                new MapSqlParameterSource("lr", lr),
+                Boolean.class
+        ));
+    }
+
+    public List<LorryEntity> findAllByLr(Collection<Long> lrs) {
+        return jdbcTemplate.query(
+                "SELECT " + READ_COLUMNS + " FROM lorry_archive WHERE lr IN (:lrs)",
+                new MapSqlParameterSource("lrs", lrs),
+                (rs, rowNum) -> LorryRepositoryCustomImpl.mapRow(rs, "")
+        );
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.lorryManagement.repository;
+
+import com.example.lorryManagement.entity.LorryEntity;
+
+import java.time.OffsetDateTime;
+
+/*
+ * Row of the change feed. lorry is the current row, or null for a tombstone.
+ */
+public record LorryChange(long changeXid, long changeSeq, Long lr, OffsetDateTime changedAt, LorryEntity lorry) {
+    public boolean deleted() {
+        return lorry == null;
+    }
+}
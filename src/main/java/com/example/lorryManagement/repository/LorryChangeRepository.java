@@ -0,0 +1,99 @@
+package com.example.lorryManagement.repository;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/*
+ * Reads the change feed columns and tombstones added in V9. Transaction ids are
+ * xid8 in the database and passed as text, since JDBC has no unsigned 64-bit type.
+ */
+@Repository
+public class LorryChangeRepository {
+    private static final String CHANGES = """
+            SELECT * FROM (
+                (SELECT l.change_xid, l.change_seq, l.updated_at AS changed_at, FALSE AS deleted,
+                        l.lr, l.lorry_number, l.date, l.from_location, l.to_location, l.consignor_name,
+                        l.consignor_address, l.description, l.weight, l.freight, l.search_text, l.version
+                 FROM lorry l
+                 WHERE (l.change_xid, l.change_seq) > (CAST(:xid AS xid8), :seq)
+                   AND l.change_xid < CAST(:horizon AS xid8)
+                 ORDER BY l.change_xid, l.change_seq
+                 LIMIT :limit)
+                UNION ALL
+                (SELECT t.change_xid, t.change_seq, t.deleted_at, TRUE,
+                        t.lr, NULL, NULL, NULL, NULL, NULL,
+                        NULL, NULL, NULL, NULL, NULL, NULL
+                 FROM lorry_tombstone t
+                 WHERE (t.change_xid, t.change_seq) > (CAST(:xid AS xid8), :seq)
+                   AND t.change_xid < CAST(:horizon AS xid8)
+                 ORDER BY t.change_xid, t.change_seq
+                 LIMIT :limit)
+            ) c
+            ORDER BY change_xid, change_seq
+            LIMIT :limit
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public LorryChangeRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /*
+     * Oldest transaction id that may still be running. Every change below it is
+     * committed (or rolled back) and can no longer appear behind a token.
+     */
+    public long findChangeHorizon() {
+        String xmin = jdbcTemplate.getJdbcTemplate().queryForObject(
+                "SELECT pg_snapshot_xmin(pg_current_snapshot())::text", String.class);
+        return Long.parseLong(xmin);
+    }
+
+    // highest change_xid among purged tombstones; 0 when nothing was purged yet
+    public long findPurgedXid() {
+        String xid = jdbcTemplate.getJdbcTemplate().queryForObject(
+                "SELECT purged_xid::text FROM lorry_feed_state WHERE id = 1", String.class);
+        return Long.parseLong(xid);
+    }
+
+    // changes after (xid, seq) and below horizon, ordered by (change_xid, change_seq)
+    public List<LorryChange> findChangesAfter(long xid, long seq, long horizon, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("xid", Long.toString(xid))
+                .addValue("seq", seq)
+                .addValue("horizon", Long.toString(horizon))
+                .addValue("limit", limit);
+
+        return jdbcTemplate.query(CHANGES, params, (rs, rowNum) -> new LorryChange(
+                Long.parseLong(rs.getString("change_xid")),
+                rs.getLong("change_seq"),
+                rs.getLong("lr"),
+                rs.getObject("changed_at", OffsetDateTime.class),
+                rs.getBoolean("deleted") ? null : LorryRepositoryCustomImpl.mapRow(rs, "")
+        ));
+    }
+
+    // drops tombstones deleted before cutoff and moves the purge horizon past them
+    public int purgeTombstones(OffsetDateTime cutoff) {
+        MapSqlParameterSource params = new MapSqlParameterSource("cutoff", cutoff);
+        List<String> newest = jdbcTemplate.queryForList("""
+                SELECT change_xid::text
+                FROM lorry_tombstone
+                WHERE deleted_at < :cutoff
+                ORDER BY change_xid DESC
+                LIMIT 1
+                """, params, String.class);
+        if (newest.isEmpty()) {
+            return 0;
+        }
+        jdbcTemplate.update(
+                "UPDATE lorry_feed_state SET purged_xid = GREATEST(purged_xid, CAST(:xid AS xid8)) WHERE id = 1",
+                new MapSqlParameterSource("xid", newest.get(0))
+        );
+        return jdbcTemplate.update("DELETE FROM lorry_tombstone WHERE deleted_at < :cutoff", params);
+    }
+}
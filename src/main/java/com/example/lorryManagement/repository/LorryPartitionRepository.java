@@ -0,0 +1,30 @@
+package com.example.lorryManagement.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/*
+ * Maintenance of the monthly lorry partitions (V10). Partition DDL lives in the
+ * database functions so the migration and the application create them the same way.
+ */
+@Repository
+public class LorryPartitionRepository {
+    private final JdbcTemplate jdbcTemplate;
+
+    public LorryPartitionRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // partitions for the current month through monthsAhead months from now; returns how many were new
+    public int createPartitions(int monthsAhead) {
+        Integer created = jdbcTemplate.queryForObject(
+                "SELECT lorry_create_partitions(?)", Integer.class, monthsAhead);
+        return created == null ? 0 : created;
+    }
+
+    // LRs dated outside every monthly partition; these are never pruned away from a date filter
+    public long countUnpartitioned() {
+        Long count = jdbcTemplate.queryForObject("SELECT count(*) FROM lorry_default", Long.class);
+        return count == null ? 0 : count;
+    }
+}
@@ -1,21 +1,71 @@
 package com.example.lorryManagement.repository;
 
+import com.example.lorryManagement.dtos.VehicleSummaryDto;
 import com.example.lorryManagement.entity.LorryEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
 @Repository
 public interface LorryRepository
         extends JpaRepository<LorryEntity, Long>,
-        JpaSpecificationExecutor<LorryEntity> {
+        JpaSpecificationExecutor<LorryEntity>,
+        LorryRepositoryCustom {
 
-    @Query("SELECT COALESCE(MAX(l.lr), 0) FROM  lorry l")
-    Long findMaxLr();
+    // the paged listing; as with findSlice, rows on a page are not put into the entity cache
+    @Override
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHE_MODE, value = "IGNORE"))
+    Page<LorryEntity> findAll(Specification<LorryEntity> spec, Pageable pageable);
 
+    // first number of a fresh block; the block spans the sequence's increment
+    @Query(value = "SELECT nextval('lorry_lr_seq')", nativeQuery = true)
+    Long reserveLrBlock();
+
+    @Query(
+            value = """
+                SELECT increment_by
+                FROM pg_sequences
+                WHERE schemaname = current_schema() AND sequencename = 'lorry_lr_seq'
+            """,
+            nativeQuery = true
+    )
+    Long findLrBlockSize();
+
+    // planner statistics, kept fresh by autovacuum. lorry is partitioned (V10) and its own
+    // reltuples stays -1, so the partitions' estimates are summed; never-analyzed ones count as 0
+    @Query(
+            value = """
+                SELECT CAST(COALESCE(SUM(GREATEST(c.reltuples, 0)), 0) AS BIGINT)
+                FROM pg_inherits i
+                JOIN pg_class c ON c.oid = i.inhrelid
+                WHERE i.inhparent = to_regclass('lorry')
+            """,
+            nativeQuery = true
+    )
+    Long findEstimatedRowCount();
+
+    @Query("""
+        select new com.example.lorryManagement.dtos.VehicleSummaryDto(
+            count(l), min(l.date), max(l.date), sum(l.weight), sum(l.freight)
+        )
+        from lorry l
+        where l.lorryNumber = :lorryNumber
+    """)
+    VehicleSummaryDto summarizeVehicle(@Param("lorryNumber") String lorryNumber);
+
+    // declared queries get no transaction from Spring Data; read-only ones may run on the read replica
+    @Transactional(readOnly = true)
     @Query("""
         select distinct l.lorryNumber
         from lorry l
@@ -24,6 +74,7 @@ public interface LorryRepository
     """)
     List<String> findDistinctLorryNumbers();
 
+    @Transactional(readOnly = true)
     @Query("""
         select distinct l.fromLocation
         from lorry l
@@ -32,6 +83,7 @@ public interface LorryRepository
     """)
     List<String> findDistinctFromLocations();
 
+    @Transactional(readOnly = true)
     @Query("""
         select distinct l.toLocation
         from lorry l
@@ -40,6 +92,7 @@ public interface LorryRepository
     """)
     List<String> findDistinctToLocations();
 
+    @Transactional(readOnly = true)
     @Query("""
         select distinct l.consignorName
         from lorry l
@@ -47,4 +100,42 @@ public interface LorryRepository
         order by l.consignorName
     """)
     List<String> findDistinctConsignorNames();
+
+    // the loads behind /distinct and /suggest: no transaction, so they run on the primary;
+    // a lagging replica would leave its stale values cached until the next reload
+    @Query("""
+        select l.lorryNumber as term, count(l) as total
+        from lorry l
+        where l.lorryNumber is not null
+        group by l.lorryNumber
+        order by l.lorryNumber
+    """)
+    List<ValueCount> countByLorryNumber();
+
+    @Query("""
+        select l.fromLocation as term, count(l) as total
+        from lorry l
+        where l.fromLocation is not null
+        group by l.fromLocation
+        order by l.fromLocation
+    """)
+    List<ValueCount> countByFromLocation();
+
+    @Query("""
+        select l.toLocation as term, count(l) as total
+        from lorry l
+        where l.toLocation is not null
+        group by l.toLocation
+        order by l.toLocation
+    """)
+    List<ValueCount> countByToLocation();
+
+    @Query("""
+        select l.consignorName as term, count(l) as total
+        from lorry l
+        where l.consignorName is not null
+        group by l.consignorName
+        order by l.consignorName
+    """)
+    List<ValueCount> countByConsignorName();
 }
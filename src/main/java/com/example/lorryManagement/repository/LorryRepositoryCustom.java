@@ -0,0 +1,116 @@
+package com.example.lorryManagement.repository;
+
+import com.example.lorryManagement.dtos.LorryListItemDto;
+import com.example.lorryManagement.entity.LorryEntity;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+public interface LorryRepositoryCustom {
+
+    /*
+     * Like findAll(spec, pageable) but fetches one extra row to detect a next page
+     * instead of issuing a count query.
+     */
+    Slice<LorryEntity> findSlice(Specification<LorryEntity> spec, Pageable pageable);
+
+    /*
+     * List-grid projection: only the LorryListItemDto columns are selected and
+     * constructed directly, nothing is loaded into the persistence context.
+     */
+    Page<LorryListItemDto> findListItems(Specification<LorryEntity> spec, Pageable pageable);
+
+    // same projection, has-next slice without a count query
+    Slice<LorryListItemDto> findListItemSlice(Specification<LorryEntity> spec, Pageable pageable);
+
+    /*
+     * Sparse fieldset: selects only the given entity attributes and returns each row
+     * as an attribute -> value map in that order.
+     */
+    Page<Map<String, Object>> findFields(Specification<LorryEntity> spec, Pageable pageable, List<String> attributes);
+
+    Slice<Map<String, Object>> findFieldSlice(Specification<LorryEntity> spec, Pageable pageable, List<String> attributes);
+
+    /*
+     * The *WithArchive variants run the same queries against lorry_history, i.e. hot
+     * and archived LRs together. Returned entities are detached read-only copies.
+     */
+    Page<LorryEntity> findAllWithArchive(Specification<LorryEntity> spec, Pageable pageable);
+
+    Slice<LorryEntity> findSliceWithArchive(Specification<LorryEntity> spec, Pageable pageable);
+
+    Page<LorryListItemDto> findListItemsWithArchive(Specification<LorryEntity> spec, Pageable pageable);
+
+    Slice<LorryListItemDto> findListItemSliceWithArchive(Specification<LorryEntity> spec, Pageable pageable);
+
+    Page<Map<String, Object>> findFieldsWithArchive(
+            Specification<LorryEntity> spec,
+            Pageable pageable,
+            List<String> attributes
+    );
+
+    Slice<Map<String, Object>> findFieldSliceWithArchive(
+            Specification<LorryEntity> spec,
+            Pageable pageable,
+            List<String> attributes
+    );
+
+    long countWithArchive(Specification<LorryEntity> spec);
+
+    Stream<LorryEntity> streamAllWithArchive(Specification<LorryEntity> spec, Sort sort, int fetchSize);
+
+    /*
+     * Applies the non-null fields of patch to the row with the same lr in one
+     * UPDATE ... RETURNING statement. Empty when no such row exists.
+     * When patch carries a version, throws OptimisticLockingFailureException
+     * if the stored row has moved past it.
+     */
+    Optional<LorryUpdate> updateSuppliedFields(LorryEntity patch);
+
+    /*
+     * Same as above, but the row must still be at one of expectedVersions (any
+     * version when empty); patch's own version is ignored.
+     */
+    Optional<LorryUpdate> updateSuppliedFields(LorryEntity patch, Collection<Long> expectedVersions);
+
+    /*
+     * Streams matching rows from a server-side cursor, fetchSize rows per round trip.
+     * Rows are detached as they are handed out, so the persistence context stays empty.
+     * Must be consumed (and closed) inside a transaction.
+     */
+    Stream<LorryEntity> streamAll(Specification<LorryEntity> spec, Sort sort, int fetchSize);
+
+    /*
+     * Bulk insert: COPY into a temporary staging table, then one
+     * INSERT ... SELECT of the rows whose LR is not taken yet. Rows whose LR already exists are skipped.
+     * Returns the LRs that were inserted. Must run inside a transaction.
+     */
+    Set<Long> insertIgnoringExisting(List<LorryEntity> rows);
+
+    /*
+     * Moves lorry_lr_seq past an LR the client chose (e.g. a historical one) so the
+     * allocator never hands it out; never moves it back into reserved blocks.
+     */
+    void moveLrSequencePast(long lr);
+
+    // rows matching spec, counted up to limit; cheap even when the selection is huge
+    long countUpTo(Specification<LorryEntity> spec, int limit);
+
+    /*
+     * Set-based partial update: one UPDATE setting the non-null fields of changes
+     * (and bumping version) on every row matching spec. Returns the affected row count.
+     */
+    long updateMatching(Specification<LorryEntity> spec, LorryEntity changes);
+
+    // one DELETE for every row matching spec; returns the affected row count
+    long deleteMatching(Specification<LorryEntity> spec);
+}
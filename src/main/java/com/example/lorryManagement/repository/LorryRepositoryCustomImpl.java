@@ -0,0 +1,564 @@
+package com.example.lorryManagement.repository;
+
+import com.example.lorryManagement.csv.Csv;
+import com.example.lorryManagement.dtos.LorryListItemDto;
+import com.example.lorryManagement.entity.LorryEntity;
+import com.example.lorryManagement.entity.LorryHistoryEntity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaDelete;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.hibernate.CacheMode;
+import org.hibernate.jpa.AvailableHints;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+public class LorryRepositoryCustomImpl implements LorryRepositoryCustom {
+
+    private static final String OLD_PREFIX = "old_";
+
+    // column -> accessor for every field a partial update may touch
+    private static final Map<String, Function<LorryEntity, Object>> UPDATABLE_COLUMNS = new LinkedHashMap<>();
+
+    static {
+        UPDATABLE_COLUMNS.put("lorry_number", LorryEntity::getLorryNumber);
+        UPDATABLE_COLUMNS.put("date", LorryEntity::getDate);
+        UPDATABLE_COLUMNS.put("from_location", LorryEntity::getFromLocation);
+        UPDATABLE_COLUMNS.put("to_location", LorryEntity::getToLocation);
+        UPDATABLE_COLUMNS.put("consignor_name", LorryEntity::getConsignorName);
+        UPDATABLE_COLUMNS.put("consignor_address", LorryEntity::getConsignorAddress);
+        UPDATABLE_COLUMNS.put("description", LorryEntity::getDescription);
+        UPDATABLE_COLUMNS.put("weight", LorryEntity::getWeight);
+        UPDATABLE_COLUMNS.put("freight", LorryEntity::getFreight);
+    }
+
+    private static final String INSERT_COLUMNS = "lr, lorry_number, date, from_location, to_location, "
+            + "consignor_name, consignor_address, description, weight, freight";
+
+    // per-connection scratch table for bulk inserts; emptied again on commit
+    private static final String CREATE_STAGING = """
+            CREATE TEMP TABLE IF NOT EXISTS lorry_staging (
+                lr BIGINT,
+                lorry_number VARCHAR(10),
+                date DATE,
+                from_location VARCHAR(100),
+                to_location VARCHAR(100),
+                consignor_name VARCHAR(100),
+                consignor_address TEXT,
+                description TEXT,
+                weight NUMERIC(10,2),
+                freight NUMERIC(10,2)
+            ) ON COMMIT DELETE ROWS
+            """;
+
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public LorryRepositoryCustomImpl(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public Slice<LorryEntity> findSlice(Specification<LorryEntity> spec, Pageable pageable) {
+        // list pages are read once; caching every row shown would push out the LRs opened by number
+        List<LorryEntity> rows = entityManager.createQuery(select(LorryEntity.class, spec, pageable.getSort()))
+                .setHint(AvailableHints.HINT_CACHE_MODE, CacheMode.IGNORE)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize() + 1)
+                .getResultList();
+
+        return toSlice(rows, pageable);
+    }
+
+    @Override
+    public Page<LorryEntity> findAllWithArchive(Specification<LorryEntity> spec, Pageable pageable) {
+        List<LorryEntity> content = selectHistory(spec, pageable, pageable.getPageSize());
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(LorryHistoryEntity.class, spec));
+    }
+
+    @Override
+    public Slice<LorryEntity> findSliceWithArchive(Specification<LorryEntity> spec, Pageable pageable) {
+        return toSlice(selectHistory(spec, pageable, pageable.getPageSize() + 1), pageable);
+    }
+
+    private List<LorryEntity> selectHistory(Specification<LorryEntity> spec, Pageable pageable, int limit) {
+        return entityManager.createQuery(select(LorryHistoryEntity.class, spec, pageable.getSort()))
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(limit)
+                .getResultList()
+                .stream()
+                .map(LorryHistoryEntity::toLorryEntity)
+                .toList();
+    }
+
+    @Override
+    public Page<LorryListItemDto> findListItems(Specification<LorryEntity> spec, Pageable pageable) {
+        List<LorryListItemDto> content = selectListItems(LorryEntity.class, spec, pageable, pageable.getPageSize());
+        // the count is skipped when the page itself shows where the result ends
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(LorryEntity.class, spec));
+    }
+
+    @Override
+    public Slice<LorryListItemDto> findListItemSlice(Specification<LorryEntity> spec, Pageable pageable) {
+        return toSlice(selectListItems(LorryEntity.class, spec, pageable, pageable.getPageSize() + 1), pageable);
+    }
+
+    @Override
+    public Page<LorryListItemDto> findListItemsWithArchive(Specification<LorryEntity> spec, Pageable pageable) {
+        List<LorryListItemDto> content = selectListItems(LorryHistoryEntity.class, spec, pageable, pageable.getPageSize());
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(LorryHistoryEntity.class, spec));
+    }
+
+    @Override
+    public Slice<LorryListItemDto> findListItemSliceWithArchive(Specification<LorryEntity> spec, Pageable pageable) {
+        return toSlice(selectListItems(LorryHistoryEntity.class, spec, pageable, pageable.getPageSize() + 1), pageable);
+    }
+
+    private List<LorryListItemDto> selectListItems(
+            Class<?> entity,
+            Specification<LorryEntity> spec,
+            Pageable pageable,
+            int limit
+    ) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<LorryListItemDto> query = cb.createQuery(LorryListItemDto.class);
+        Root<?> root = query.from(entity);
+
+        query.select(cb.construct(
+                LorryListItemDto.class,
+                root.get("lr"),
+                root.get("lorryNumber"),
+                root.get("date"),
+                root.get("fromLocation"),
+                root.get("toLocation"),
+                root.get("consignorName"),
+                root.get("weight"),
+                root.get("freight")
+        ));
+        Predicate predicate = toPredicate(spec, root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+
+        return entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public Page<Map<String, Object>> findFields(
+            Specification<LorryEntity> spec,
+            Pageable pageable,
+            List<String> attributes
+    ) {
+        List<Map<String, Object>> content = selectFields(LorryEntity.class, spec, pageable, attributes, pageable.getPageSize());
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(LorryEntity.class, spec));
+    }
+
+    @Override
+    public Slice<Map<String, Object>> findFieldSlice(
+            Specification<LorryEntity> spec,
+            Pageable pageable,
+            List<String> attributes
+    ) {
+        return toSlice(selectFields(LorryEntity.class, spec, pageable, attributes, pageable.getPageSize() + 1), pageable);
+    }
+
+    @Override
+    public Page<Map<String, Object>> findFieldsWithArchive(
+            Specification<LorryEntity> spec,
+            Pageable pageable,
+            List<String> attributes
+    ) {
+        List<Map<String, Object>> content =
+                selectFields(LorryHistoryEntity.class, spec, pageable, attributes, pageable.getPageSize());
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(LorryHistoryEntity.class, spec));
+    }
+
+    @Override
+    public Slice<Map<String, Object>> findFieldSliceWithArchive(
+            Specification<LorryEntity> spec,
+            Pageable pageable,
+            List<String> attributes
+    ) {
+        return toSlice(
+                selectFields(LorryHistoryEntity.class, spec, pageable, attributes, pageable.getPageSize() + 1),
+                pageable
+        );
+    }
+
+    private List<Map<String, Object>> selectFields(
+            Class<?> entity,
+            Specification<LorryEntity> spec,
+            Pageable pageable,
+            List<String> attributes,
+            int limit
+    ) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<?> root = query.from(entity);
+
+        List<Selection<?>> selections = new ArrayList<>();
+        for (String attribute : attributes) {
+            selections.add(root.get(attribute).alias(attribute));
+        }
+        query.multiselect(selections);
+        Predicate predicate = toPredicate(spec, root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+
+        List<Tuple> tuples = entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(limit)
+                .getResultList();
+
+        List<Map<String, Object>> rows = new ArrayList<>(tuples.size());
+        for (Tuple tuple : tuples) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (String attribute : attributes) {
+                row.put(attribute, tuple.get(attribute));
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    @Override
+    public long countWithArchive(Specification<LorryEntity> spec) {
+        return count(LorryHistoryEntity.class, spec);
+    }
+
+    @Override
+    public long countUpTo(Specification<LorryEntity> spec, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<LorryEntity> root = query.from(LorryEntity.class);
+
+        query.select(root.get("lr"));
+        Predicate predicate = toPredicate(spec, root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        // stops after limit rows instead of counting (and reading) every match
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList()
+                .size();
+    }
+
+    private long count(Class<?> entity, Specification<LorryEntity> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<?> root = query.from(entity);
+
+        query.select(cb.count(root));
+        Predicate predicate = toPredicate(spec, root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    @Override
+    public Stream<LorryEntity> streamAll(Specification<LorryEntity> spec, Sort sort, int fetchSize) {
+        return entityManager.createQuery(select(LorryEntity.class, spec, sort))
+                .setHint(AvailableHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(AvailableHints.HINT_READ_ONLY, true)
+                // an export would otherwise fill the entity cache with every row it streams
+                .setHint(AvailableHints.HINT_CACHE_MODE, CacheMode.IGNORE)
+                .getResultStream()
+                .peek(entityManager::detach);
+    }
+
+    @Override
+    public Stream<LorryEntity> streamAllWithArchive(Specification<LorryEntity> spec, Sort sort, int fetchSize) {
+        return entityManager.createQuery(select(LorryHistoryEntity.class, spec, sort))
+                .setHint(AvailableHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(AvailableHints.HINT_READ_ONLY, true)
+                .getResultStream()
+                .peek(entityManager::detach)
+                .map(LorryHistoryEntity::toLorryEntity);
+    }
+
+    @Override
+    public Optional<LorryUpdate> updateSuppliedFields(LorryEntity patch) {
+        return updateSuppliedFields(patch, patch.getVersion() == null ? List.of() : List.of(patch.getVersion()));
+    }
+
+    @Override
+    public Optional<LorryUpdate> updateSuppliedFields(LorryEntity patch, Collection<Long> expectedVersions) {
+        MapSqlParameterSource params = new MapSqlParameterSource("lr", patch.getLr());
+        List<String> assignments = new ArrayList<>();
+        UPDATABLE_COLUMNS.forEach((column, getter) -> {
+            Object value = getter.apply(patch);
+            if (value != null) {
+                assignments.add(column + " = :" + column);
+                params.addValue(column, value);
+            }
+        });
+        assignments.add("version = l.version + 1");
+
+        // with expected versions the update only applies while the row is still at one of them
+        String versionCheck = "";
+        if (!expectedVersions.isEmpty()) {
+            versionCheck = " AND old.version IN (:versions)";
+            params.addValue("versions", expectedVersions);
+        }
+
+        // pending JPA changes must reach the database before we write around the session
+        entityManager.flush();
+
+        /*
+         * The CTE locks the row and keeps its pre-update values, so the caller gets
+         * before and after from one round trip. A concurrent writer blocks on the
+         * lock instead of having its changes overwritten by a stale copy.
+         */
+        String sql = "WITH old AS (SELECT * FROM lorry WHERE lr = :lr FOR UPDATE) "
+                + "UPDATE lorry l SET " + String.join(", ", assignments) + " "
+                + "FROM old WHERE l.lr = old.lr" + versionCheck + " "
+                + "RETURNING l.*, " + oldColumns();
+
+        // the returned entities are detached; they are never loaded into the session
+        List<LorryUpdate> rows = jdbcTemplate.query(sql, params, (rs, rowNum) ->
+                new LorryUpdate(mapRow(rs, OLD_PREFIX), mapRow(rs, "")));
+        if (rows.isEmpty() && !expectedVersions.isEmpty() && existsById(patch.getLr())) {
+            throw new OptimisticLockingFailureException(
+                    "LR " + patch.getLr() + " is not at version " + expectedVersions);
+        }
+        return rows.stream().findFirst();
+    }
+
+    @Override
+    public long updateMatching(Specification<LorryEntity> spec, LorryEntity changes) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<LorryEntity> update = cb.createCriteriaUpdate(LorryEntity.class);
+        Root<LorryEntity> root = update.from(LorryEntity.class);
+
+        setIfPresent(update, root, "lorryNumber", changes.getLorryNumber());
+        setIfPresent(update, root, "date", changes.getDate());
+        setIfPresent(update, root, "fromLocation", changes.getFromLocation());
+        setIfPresent(update, root, "toLocation", changes.getToLocation());
+        setIfPresent(update, root, "consignorName", changes.getConsignorName());
+        setIfPresent(update, root, "consignorAddress", changes.getConsignorAddress());
+        setIfPresent(update, root, "description", changes.getDescription());
+        setIfPresent(update, root, "weight", changes.getWeight());
+        setIfPresent(update, root, "freight", changes.getFreight());
+        Path<Long> version = root.get("version");
+        update.set(version, cb.sum(version, 1L));
+
+        Predicate predicate = spec.toPredicate(root, null, cb);
+        if (predicate != null) {
+            update.where(predicate);
+        }
+        return executeBulk(entityManager.createQuery(update));
+    }
+
+    @Override
+    public long deleteMatching(Specification<LorryEntity> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaDelete<LorryEntity> delete = cb.createCriteriaDelete(LorryEntity.class);
+        Root<LorryEntity> root = delete.from(LorryEntity.class);
+
+        Predicate predicate = spec.toPredicate(root, null, cb);
+        if (predicate != null) {
+            delete.where(predicate);
+        }
+        return executeBulk(entityManager.createQuery(delete));
+    }
+
+    private long executeBulk(Query statement) {
+        // bulk statements bypass the persistence context: push pending changes first,
+        // and drop managed copies afterwards so nothing stale is read back
+        entityManager.flush();
+        int affected = statement.executeUpdate();
+        entityManager.clear();
+        return affected;
+    }
+
+    private static void setIfPresent(CriteriaUpdate<LorryEntity> update, Root<LorryEntity> root, String attribute, Object value) {
+        if (value != null) {
+            update.set(root.get(attribute), value);
+        }
+    }
+
+    @Override
+    public Set<Long> insertIgnoringExisting(List<LorryEntity> rows) {
+        if (rows.isEmpty()) {
+            return Set.of();
+        }
+        JdbcTemplate jdbc = jdbcTemplate.getJdbcTemplate();
+        jdbc.execute(CREATE_STAGING);
+        jdbc.execute("TRUNCATE lorry_staging");
+        jdbc.execute((ConnectionCallback<Long>) connection -> copyIntoStaging(connection, rows));
+
+        // lorry is partitioned by date, so LR uniqueness lives in lorry_lr (V10) rather than
+        // in a primary key ON CONFLICT could target; a concurrent insert of the same LR
+        // still fails the statement with a unique violation
+        List<Long> inserted = jdbc.queryForList(
+                "INSERT INTO lorry (" + INSERT_COLUMNS + ") "
+                        + "SELECT " + INSERT_COLUMNS + " FROM lorry_staging s "
+                        + "WHERE NOT EXISTS (SELECT 1 FROM lorry_lr r WHERE r.lr = s.lr) "
+                        + "RETURNING lr",
+                Long.class
+        );
+        return new HashSet<>(inserted);
+    }
+
+    @Override
+    public void moveLrSequencePast(long lr) {
+        // never back into a block an LrAllocator may still be handing out: the latest one
+        // spans last_value .. last_value + increment_by - 1
+        jdbcTemplate.getJdbcTemplate().queryForObject(
+                "SELECT CASE WHEN ? >= s.last_value "
+                        + "THEN setval('lorry_lr_seq', greatest(? + 1, s.last_value + q.seqincrement), false) "
+                        + "ELSE s.last_value END "
+                        + "FROM lorry_lr_seq s, pg_sequence q "
+                        + "WHERE q.seqrelid = 'lorry_lr_seq'::regclass",
+                Long.class, lr, lr
+        );
+    }
+
+    private static long copyIntoStaging(Connection connection, List<LorryEntity> rows) throws SQLException {
+        PGConnection pgConnection = connection.unwrap(PGConnection.class);
+        String copy = "COPY lorry_staging (" + INSERT_COLUMNS + ") FROM STDIN (FORMAT csv)";
+        try (Writer out = new OutputStreamWriter(
+                new PGCopyOutputStream(pgConnection, copy, COPY_BUFFER_SIZE), StandardCharsets.UTF_8)) {
+            for (LorryEntity row : rows) {
+                // an unquoted empty field is NULL in COPY csv
+                out.write(String.join(",",
+                        Csv.field(row.getLr()),
+                        Csv.field(row.getLorryNumber()),
+                        Csv.field(row.getDate()),
+                        Csv.field(row.getFromLocation()),
+                        Csv.field(row.getToLocation()),
+                        Csv.field(row.getConsignorName()),
+                        Csv.field(row.getConsignorAddress()),
+                        Csv.field(row.getDescription()),
+                        Csv.field(row.getWeight() == null ? null : row.getWeight().toPlainString()),
+                        Csv.field(row.getFreight() == null ? null : row.getFreight().toPlainString())
+                ));
+                out.write('\n');
+            }
+        } catch (IOException e) {
+            throw new SQLException("COPY into lorry_staging failed", e);
+        }
+        return rows.size();
+    }
+
+    private <T> CriteriaQuery<T> select(Class<T> entity, Specification<LorryEntity> spec, Sort sort) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = cb.createQuery(entity);
+        Root<T> root = query.from(entity);
+
+        Predicate predicate = toPredicate(spec, root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(QueryUtils.toOrders(sort, root, cb));
+        return query;
+    }
+
+    /*
+     * lorry_history exposes the same attribute names as lorry and specifications only
+     * address attributes by name, so a LorryEntity specification applies to either root.
+     */
+    @SuppressWarnings("unchecked")
+    private static Predicate toPredicate(
+            Specification<LorryEntity> spec,
+            Root<?> root,
+            CriteriaQuery<?> query,
+            CriteriaBuilder cb
+    ) {
+        return spec.toPredicate((Root<LorryEntity>) root, query, cb);
+    }
+
+    private boolean existsById(Long lr) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM lorry WHERE lr = :lr)",
+                new MapSqlParameterSource("lr", lr),
+                Boolean.class
+        ));
+    }
+
+    private static String oldColumns() {
+        List<String> columns = new ArrayList<>();
+        columns.add("old.lr AS " + OLD_PREFIX + "lr");
+        columns.add("old.search_text AS " + OLD_PREFIX + "search_text");
+        columns.add("old.version AS " + OLD_PREFIX + "version");
+        UPDATABLE_COLUMNS.keySet().forEach(column ->
+                columns.add("old." + column + " AS " + OLD_PREFIX + column));
+        return String.join(", ", columns);
+    }
+
+    static LorryEntity mapRow(ResultSet rs, String prefix) throws SQLException {
+        LorryEntity entity = new LorryEntity();
+        entity.setLr(rs.getLong(prefix + "lr"));
+        entity.setLorryNumber(rs.getString(prefix + "lorry_number"));
+        entity.setDate(rs.getObject(prefix + "date", LocalDate.class));
+        entity.setFromLocation(rs.getString(prefix + "from_location"));
+        entity.setToLocation(rs.getString(prefix + "to_location"));
+        entity.setConsignorName(rs.getString(prefix + "consignor_name"));
+        entity.setConsignorAddress(rs.getString(prefix + "consignor_address"));
+        entity.setDescription(rs.getString(prefix + "description"));
+        entity.setWeight(rs.getBigDecimal(prefix + "weight"));
+        entity.setFreight(rs.getBigDecimal(prefix + "freight"));
+        entity.setSearchText(rs.getString(prefix + "search_text"));
+        // null for archived LRs, which are read-only
+        entity.setVersion(rs.getObject(prefix + "version", Long.class));
+        return entity;
+    }
+
+    private static <T> Slice<T> toSlice(List<T> rows, Pageable pageable) {
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        List<T> content = hasNext ? rows.subList(0, pageable.getPageSize()) : rows;
+        return new SliceImpl<>(content, pageable, hasNext);
+    }
+}
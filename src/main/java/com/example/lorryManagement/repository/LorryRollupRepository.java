@@ -0,0 +1,122 @@
+package com.example.lorryManagement.repository;
+
+import com.example.lorryManagement.dtos.ConsignorTotalDto;
+import com.example.lorryManagement.dtos.DailyTotalDto;
+import com.example.lorryManagement.dtos.RouteTotalDto;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/*
+ * Reads the per-day rollup tables (V6). They are kept current by triggers on lorry,
+ * so every query here sums rollup rows instead of aggregating LRs.
+ */
+@Repository
+public class LorryRollupRepository {
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public LorryRollupRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public List<DailyTotalDto> dailyTotals(LocalDate from, LocalDate to) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        String sql = "SELECT date, trips, total_weight, total_freight FROM lorry_daily_totals"
+                + dateRange(from, to, params)
+                + " ORDER BY date";
+
+        return jdbcTemplate.query(sql, params, (rs, rowNum) -> new DailyTotalDto(
+                rs.getObject("date", LocalDate.class),
+                rs.getLong("trips"),
+                rs.getBigDecimal("total_weight"),
+                rs.getBigDecimal("total_freight")
+        ));
+    }
+
+    // routes by total freight, highest first
+    public List<RouteTotalDto> routeTotals(LocalDate from, LocalDate to, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource("limit", limit);
+        String sql = """
+                SELECT from_location, to_location,
+                       sum(trips) AS trips, sum(total_weight) AS total_weight, sum(total_freight) AS total_freight
+                FROM lorry_route_daily_totals
+                """
+                + dateRange(from, to, params)
+                + """
+                 GROUP BY from_location, to_location
+                 ORDER BY total_freight DESC, trips DESC, from_location, to_location
+                 LIMIT :limit
+                """;
+
+        return jdbcTemplate.query(sql, params, (rs, rowNum) -> new RouteTotalDto(
+                emptyToNull(rs.getString("from_location")),
+                emptyToNull(rs.getString("to_location")),
+                rs.getLong("trips"),
+                rs.getBigDecimal("total_weight"),
+                rs.getBigDecimal("total_freight")
+        ));
+    }
+
+    // consignors by total freight, highest first
+    public List<ConsignorTotalDto> consignorTotals(LocalDate from, LocalDate to, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource("limit", limit);
+        String sql = """
+                SELECT consignor_name,
+                       sum(trips) AS trips, sum(total_weight) AS total_weight, sum(total_freight) AS total_freight
+                FROM lorry_consignor_daily_totals
+                """
+                + dateRange(from, to, params)
+                + """
+                 GROUP BY consignor_name
+                 ORDER BY total_freight DESC, trips DESC, consignor_name
+                 LIMIT :limit
+                """;
+
+        return jdbcTemplate.query(sql, params, (rs, rowNum) -> new ConsignorTotalDto(
+                rs.getString("consignor_name"),
+                rs.getLong("trips"),
+                rs.getBigDecimal("total_weight"),
+                rs.getBigDecimal("total_freight")
+        ));
+    }
+
+    /*
+     * Claims the rebuild for the surrounding transaction; false while another instance
+     * holds it. The advisory lock is released at commit or rollback, also when the
+     * holder's connection dies.
+     */
+    public boolean tryLockRebuild() {
+        return Boolean.TRUE.equals(jdbcTemplate.getJdbcTemplate().queryForObject(
+                "SELECT pg_try_advisory_xact_lock(hashtext('lorry_rollup_rebuild'))", Boolean.class));
+    }
+
+    // recomputes all rollups from lorry and lorry_archive; writers wait until the surrounding transaction commits
+    public void rebuild() {
+        jdbcTemplate.getJdbcTemplate().execute("SELECT lorry_rollup_rebuild()");
+    }
+
+    // same bounds as LorrySpecification.hasDateBetween: inclusive, either side optional
+    private static String dateRange(LocalDate from, LocalDate to, MapSqlParameterSource params) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("From date cannot be after To date");
+        }
+        StringBuilder where = new StringBuilder();
+        if (from != null) {
+            where.append(" WHERE date >= :from");
+            params.addValue("from", from);
+        }
+        if (to != null) {
+            where.append(from != null ? " AND" : " WHERE").append(" date <= :to");
+            params.addValue("to", to);
+        }
+        return where.toString();
+    }
+
+    // rollups store a missing location as '' because it is part of the key
+    private static String emptyToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+}
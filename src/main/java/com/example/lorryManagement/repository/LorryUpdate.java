@@ -0,0 +1,9 @@
+package com.example.lorryManagement.repository;
+
+import com.example.lorryManagement.entity.LorryEntity;
+
+/*
+ * Row state on both sides of a single-statement update, as returned by the database.
+ */
+public record LorryUpdate(LorryEntity before, LorryEntity after) {
+}
@@ -0,0 +1,7 @@
+package com.example.lorryManagement.repository;
+
+// one distinct column value and the number of LRs carrying it
+public interface ValueCount {
+    String getTerm();
+    Long getTotal();
+}
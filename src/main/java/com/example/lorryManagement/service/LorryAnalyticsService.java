@@ -0,0 +1,57 @@
+package com.example.lorryManagement.service;
+
+import com.example.lorryManagement.dtos.ConsignorTotalDto;
+import com.example.lorryManagement.dtos.DailyTotalDto;
+import com.example.lorryManagement.dtos.RouteTotalDto;
+import com.example.lorryManagement.repository.LorryRollupRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/*
+ * Freight / weight totals served from the rollup tables. save, update, deleteByLr,
+ * imports and bulk statements all reach the rollups through triggers on lorry, so
+ * nothing here has to be told about writes.
+ */
+@Service
+@Slf4j
+public class LorryAnalyticsService {
+    private final LorryRollupRepository rollupRepository;
+
+    public LorryAnalyticsService(LorryRollupRepository rollupRepository) {
+        this.rollupRepository = rollupRepository;
+    }
+
+    @Transactional(readOnly = true)
+    public List<DailyTotalDto> dailyTotals(LocalDate from, LocalDate to) {
+        return rollupRepository.dailyTotals(from, to);
+    }
+
+    @Transactional(readOnly = true)
+    public List<RouteTotalDto> routeTotals(LocalDate from, LocalDate to, int limit) {
+        return rollupRepository.routeTotals(from, to, limit);
+    }
+
+    @Transactional(readOnly = true)
+    public List<ConsignorTotalDto> consignorTotals(LocalDate from, LocalDate to, int limit) {
+        return rollupRepository.consignorTotals(from, to, limit);
+    }
+
+    // repairs any drift between lorry and the rollups (e.g. rows fixed by hand with triggers disabled).
+    // Every instance fires at the same moment; only the one that gets the lock rebuilds.
+    @Scheduled(cron = "${lorry.rollup.rebuild-cron:0 30 3 * * SUN}")
+    @Transactional
+    public void rebuild() {
+        if (!rollupRepository.tryLockRebuild()) {
+            log.info("LR rollups are being rebuilt by another instance; skipping");
+            return;
+        }
+        long started = System.nanoTime();
+        rollupRepository.rebuild();
+        log.info("Rebuilt LR rollups in {} ms", (System.nanoTime() - started) / 1_000_000);
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.lorryManagement.service;
+
+import com.example.lorryManagement.entity.LorryEntity;
+import com.example.lorryManagement.event.LorryChangedEvent;
+import com.example.lorryManagement.repository.LorryArchiveRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/*
+ * Hot / cold split: LRs dated more than lorry.archive.age ago are moved to
+ * lorry_archive in batches. Every batch commits on its own, so an interrupted run
+ * loses nothing and the next run continues with whatever is still past the cutoff.
+ * Reads decide with reachesArchive whether a date range needs the archive at all.
+ */
+@Service
+@Slf4j
+public class LorryArchiveService {
+    private final LorryArchiveRepository archiveRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Duration age;
+    private final int batchSize;
+    // newest date in the archive, or null while it is empty
+    private volatile LocalDate latestArchived;
+
+    public LorryArchiveService(
+            LorryArchiveRepository archiveRepository,
+            TransactionTemplate transactionTemplate,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${lorry.archive.age:365d}") Duration age,
+            @Value("${lorry.archive.batch-size:5000}") int batchSize
+    ) {
+        this.archiveRepository = archiveRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.age = age;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(cron = "${lorry.archive.cron:0 45 2 * * *}")
+    public void archive() {
+        LocalDate cutoff = cutoff();
+        long started = System.nanoTime();
+        long moved = 0;
+        int batch;
+        do {
+            batch = transactionTemplate.execute(status -> archiveRepository.moveBatch(cutoff, batchSize));
+            moved += batch;
+        } while (batch == batchSize);
+
+        if (moved > 0) {
+            // the moved LRs left the hot table, so counts and suggestions built from it are stale
+            eventPublisher.publishEvent(LorryChangedEvent.bulk());
+            log.info("Archived {} LRs dated before {} in {} ms",
+                    moved, cutoff, (System.nanoTime() - started) / 1_000_000);
+        }
+        refresh();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void refresh() {
+        latestArchived = archiveRepository.findLatestDate().orElse(null);
+    }
+
+    // every archived LR is dated before this day
+    public LocalDate cutoff() {
+        return LocalDate.now().minusDays(age.toDays());
+    }
+
+    /*
+     * Whether a from / to filter can match archived LRs. No date filter at all is the
+     * default listing and stays on the hot table; an open lower bound reaches back
+     * into the archive. The cutoff covers LRs another instance has just archived, the
+     * archive's newest date covers LRs archived under a shorter age setting.
+     */
+    public boolean reachesArchive(LocalDate from, LocalDate to) {
+        if (from == null) {
+            return to != null;
+        }
+        LocalDate latest = latestArchived;
+        return from.isBefore(cutoff()) || (latest != null && !from.isAfter(latest));
+    }
+
+    public Optional<LorryEntity> findByLr(Long lr) {
+        return archiveRepository.findByLr(lr);
+    }
+
+    public boolean isArchived(Long lr) {
+        return archiveRepository.existsByLr(lr);
+    }
+
+    public List<LorryEntity> findAllByLr(Collection<Long> lrs) {
+        return lrs.isEmpty() ? List.of() : archiveRepository.findAllByLr(lrs);
+    }
+}
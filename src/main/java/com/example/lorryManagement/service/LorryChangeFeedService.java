@@ -0,0 +1,82 @@
+package com.example.lorryManagement.service;
+
+import com.example.lorryManagement.dtos.ChangeFeedDto;
+import com.example.lorryManagement.dtos.ChangeToken;
+import com.example.lorryManagement.dtos.LorryChangeDto;
+import com.example.lorryManagement.exception.ChangeTokenExpiredException;
+import com.example.lorryManagement.mapper.LorryMapper;
+import com.example.lorryManagement.repository.LorryChange;
+import com.example.lorryManagement.repository.LorryChangeRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/*
+ * Delta sync for offline clients. A client starts without a token, pages until
+ * hasMore is false and keeps the last nextToken; later calls return only LRs
+ * written or deleted since.
+ */
+@Service
+@Slf4j
+public class LorryChangeFeedService {
+    private final LorryChangeRepository changeRepository;
+    private final Duration tombstoneRetention;
+
+    public LorryChangeFeedService(
+            LorryChangeRepository changeRepository,
+            @Value("${lorry.changes.tombstone-retention:30d}") Duration tombstoneRetention
+    ) {
+        this.changeRepository = changeRepository;
+        this.tombstoneRetention = tombstoneRetention;
+    }
+
+    @Transactional(readOnly = true)
+    public ChangeFeedDto changesSince(ChangeToken since, int limit) {
+        ChangeToken position = since == null ? ChangeToken.START : since;
+        // a first sync has nothing to delete, so purged tombstones only matter to existing tokens
+        if (since != null && since.changeXid() <= changeRepository.findPurgedXid()) {
+            throw new ChangeTokenExpiredException("Change token is older than the retained deletions; resync in full");
+        }
+
+        long horizon = changeRepository.findChangeHorizon();
+        List<LorryChange> changes = changeRepository.findChangesAfter(
+                position.changeXid(), position.changeSeq(), horizon, limit);
+
+        ChangeFeedDto body = new ChangeFeedDto();
+        body.setChanges(changes.stream().map(LorryChangeFeedService::toDto).toList());
+        body.setHasMore(changes.size() == limit);
+        if (body.isHasMore()) {
+            LorryChange last = changes.get(changes.size() - 1);
+            body.setNextToken(new ChangeToken(last.changeXid(), last.changeSeq()).encode());
+        } else {
+            // everything below the horizon has been delivered; the token never moves backwards
+            ChangeToken drained = new ChangeToken(horizon, 0);
+            body.setNextToken((drained.isAfter(position) ? drained : position).encode());
+        }
+        return body;
+    }
+
+    @Scheduled(cron = "${lorry.changes.purge-cron:0 0 4 * * *}")
+    @Transactional
+    public void purgeTombstones() {
+        int purged = changeRepository.purgeTombstones(OffsetDateTime.now().minus(tombstoneRetention));
+        if (purged > 0) {
+            log.info("Purged {} LR tombstones older than {}", purged, tombstoneRetention);
+        }
+    }
+
+    private static LorryChangeDto toDto(LorryChange change) {
+        return new LorryChangeDto(
+                change.lr(),
+                change.deleted(),
+                change.changedAt(),
+                change.deleted() ? null : LorryMapper.toDto(change.lorry())
+        );
+    }
+}
@@ -0,0 +1,380 @@
+package com.example.lorryManagement.service;
+
+import com.example.lorryManagement.csv.CsvReader;
+import com.example.lorryManagement.csv.MalformedCsvException;
+import com.example.lorryManagement.dtos.BatchItemResult;
+import com.example.lorryManagement.dtos.BatchResponseDto;
+import com.example.lorryManagement.dtos.ImportReportDto;
+import com.example.lorryManagement.dtos.ImportRowError;
+import com.example.lorryManagement.dtos.LorryRequestDto;
+import com.example.lorryManagement.entity.LorryEntity;
+import com.example.lorryManagement.event.LorryChangedEvent;
+import com.example.lorryManagement.exception.BadRequestException;
+import com.example.lorryManagement.mapper.LorryMapper;
+import com.example.lorryManagement.repository.LorryRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/*
+ * Bulk writes: CSV import and client batches. Rows are validated against
+ * LorryRequestDto and normalized one at a time, then loaded with COPY.
+ * A CSV import commits every CHUNK_SIZE rows on its own: a bad row never blocks
+ * the rest of the file, and earlier chunks stay imported if a later one fails.
+ */
+@Service
+@Slf4j
+public class LorryImportService {
+    static final int CHUNK_SIZE = 5000;
+    static final int MAX_REPORTED_ERRORS = 1000;
+
+    // same header as the CSV export, so an export can be imported again
+    static final List<String> COLUMNS = List.of(
+            "lr", "lorryNumber", "date", "fromLocation", "toLocation",
+            "consignorName", "consignorAddress", "description", "weight", "freight"
+    );
+
+    // NUMERIC(10,2): at most 8 digits before the decimal point
+    private static final int MAX_INTEGER_DIGITS = 8;
+
+    private final LorryRepository lorryRepository;
+    private final LrAllocator lrAllocator;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public LorryImportService(
+            LorryRepository lorryRepository,
+            LrAllocator lrAllocator,
+            Validator validator,
+            TransactionTemplate transactionTemplate,
+            ApplicationEventPublisher eventPublisher
+    ) {
+        this.lorryRepository = lorryRepository;
+        this.lrAllocator = lrAllocator;
+        this.validator = validator;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+    }
+
+    public ImportReportDto importCsv(Reader source) throws IOException {
+        ImportReportDto report = new ImportReportDto();
+
+        try (CsvReader reader = new CsvReader(source)) {
+            List<String> header;
+            try {
+                header = reader.next();
+            } catch (MalformedCsvException e) {
+                throw new BadRequestException("CSV header is malformed: " + e.getMessage());
+            }
+            if (header == null) {
+                throw new BadRequestException("CSV file is empty");
+            }
+            Map<String, Integer> columns = columnIndexes(header);
+
+            Set<Long> seenLrs = new HashSet<>();
+            List<PendingRow> chunk = new ArrayList<>(CHUNK_SIZE);
+            List<String> record;
+            while ((record = nextRecord(reader, report)) != null) {
+                report.setTotalRows(report.getTotalRows() + 1);
+                long row = reader.recordNumber();
+
+                List<ImportRowError> errors = new ArrayList<>();
+                LorryRequestDto dto = parse(row, record, columns, errors);
+                if (errors.isEmpty()) {
+                    for (ConstraintViolation<LorryRequestDto> violation : validator.validate(dto)) {
+                        errors.add(new ImportRowError(
+                                row, dto.getLr(), violation.getPropertyPath().toString(), violation.getMessage()));
+                    }
+                }
+                if (errors.isEmpty() && dto.getLr() != null && !seenLrs.add(dto.getLr())) {
+                    errors.add(new ImportRowError(row, dto.getLr(), "lr", "Duplicate LR in file"));
+                }
+                if (!errors.isEmpty()) {
+                    fail(report, errors);
+                    continue;
+                }
+
+                chunk.add(new PendingRow(row, toNewEntity(dto), dto.getLr() != null));
+
+                if (chunk.size() == CHUNK_SIZE) {
+                    load(chunk, report);
+                    chunk.clear();
+                }
+            }
+            load(chunk, report);
+        }
+
+        if (report.getImported() > 0) {
+            eventPublisher.publishEvent(LorryChangedEvent.bulk());
+        }
+        return report;
+    }
+
+    /*
+     * Creates every valid item of a client batch in one transaction with the same
+     * COPY-based insert as the CSV import. Invalid items and LRs that already exist
+     * are skipped and reported; they do not fail the other items.
+     */
+    public BatchResponseDto createAll(List<LorryRequestDto> items) {
+        BatchItemResult[] results = new BatchItemResult[items.size()];
+        Map<Integer, LorryEntity> accepted = new LinkedHashMap<>();
+        Set<Long> seenLrs = new HashSet<>();
+
+        for (int i = 0; i < items.size(); i++) {
+            LorryRequestDto dto = items.get(i);
+            if (dto == null) {
+                results[i] = invalid(i, null, List.of(error(null, "Item must be an object")));
+                continue;
+            }
+            List<Map<String, String>> errors = new ArrayList<>(validator.validate(dto).stream()
+                    .map(v -> error(v.getPropertyPath().toString(), v.getMessage()))
+                    .toList());
+            // one value the column cannot hold would fail the insert for the whole batch
+            if (tooLarge(dto.getWeight())) {
+                errors.add(error("weight", "Value is too large"));
+            }
+            if (tooLarge(dto.getFreight())) {
+                errors.add(error("freight", "Value is too large"));
+            }
+            if (!errors.isEmpty()) {
+                results[i] = invalid(i, dto.getLr(), errors);
+            } else if (dto.getLr() != null && !seenLrs.add(dto.getLr())) {
+                results[i] = conflict(i, dto.getLr(), "Duplicate LR in batch");
+            } else {
+                accepted.put(i, toNewEntity(dto));
+            }
+        }
+
+        List<LorryEntity> entities = new ArrayList<>(accepted.values());
+        List<Long> explicitLrs = accepted.keySet().stream()
+                .map(index -> items.get(index).getLr())
+                .filter(Objects::nonNull)
+                .toList();
+        // created events go out inside the insert's transaction, so other instances hear of
+        // the whole batch in one notification sent with the commit
+        Set<Long> inserted = entities.isEmpty() ? Set.of() : insert(entities, explicitLrs,
+                entity -> eventPublisher.publishEvent(LorryChangedEvent.created(entity)));
+
+        BatchResponseDto response = new BatchResponseDto();
+        accepted.forEach((index, entity) -> {
+            Long lr = entity.getLr();
+            if (inserted != null && inserted.contains(lr)) {
+                results[index] = new BatchItemResult(index, lr, BatchItemResult.Status.CREATED, List.of());
+            } else {
+                results[index] = conflict(index, lr, "LR " + lr + " already exists");
+            }
+        });
+
+        for (BatchItemResult result : results) {
+            switch (result.status()) {
+                case CREATED -> response.setCreated(response.getCreated() + 1);
+                case CONFLICT -> response.setConflicts(response.getConflicts() + 1);
+                case INVALID -> response.setInvalid(response.getInvalid() + 1);
+            }
+            response.getItems().add(result);
+        }
+        return response;
+    }
+
+    /*
+     * LRs taken from the allocator are already behind the sequence; only the ones the
+     * client chose move it, or they would be handed out again.
+     */
+    private Set<Long> insert(List<LorryEntity> entities, List<Long> explicitLrs, Consumer<LorryEntity> created) {
+        return transactionTemplate.execute(status -> {
+            Set<Long> inserted = lorryRepository.insertIgnoringExisting(entities);
+            explicitLrs.stream().max(Long::compare).ifPresent(lorryRepository::moveLrSequencePast);
+            entities.stream().filter(entity -> inserted.contains(entity.getLr())).forEach(created);
+            return inserted;
+        });
+    }
+
+    private LorryEntity toNewEntity(LorryRequestDto dto) {
+        LorryEntity entity = LorryMapper.toEntity(dto);
+        if (entity.getLr() == null) {
+            entity.setLr(lrAllocator.nextLr());
+        }
+        LorryServiceImpl.normalize(entity);
+        return entity;
+    }
+
+    private static BatchItemResult invalid(int index, Long lr, List<Map<String, String>> errors) {
+        return new BatchItemResult(index, lr, BatchItemResult.Status.INVALID, errors);
+    }
+
+    private static BatchItemResult conflict(int index, Long lr, String message) {
+        return new BatchItemResult(index, lr, BatchItemResult.Status.CONFLICT, List.of(error("lr", message)));
+    }
+
+    private static Map<String, String> error(String field, String message) {
+        Map<String, String> error = new LinkedHashMap<>();
+        error.put("field", field);
+        error.put("message", message);
+        return error;
+    }
+
+    private void load(List<PendingRow> chunk, ImportReportDto report) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        List<LorryEntity> entities = chunk.stream().map(PendingRow::entity).toList();
+        List<Long> explicitLrs = chunk.stream()
+                .filter(PendingRow::explicitLr)
+                .map(pending -> pending.entity().getLr())
+                .toList();
+
+        Set<Long> inserted;
+        try {
+            inserted = insert(entities, explicitLrs, entity -> {
+            });
+        } catch (DataAccessException e) {
+            log.warn("Import chunk of {} rows rejected by the database", chunk.size(), e);
+            for (PendingRow pending : chunk) {
+                fail(report, List.of(new ImportRowError(
+                        pending.row(), pending.entity().getLr(), null, "Rejected by the database")));
+            }
+            return;
+        }
+
+        for (PendingRow pending : chunk) {
+            Long lr = pending.entity().getLr();
+            if (inserted != null && inserted.contains(lr)) {
+                report.setImported(report.getImported() + 1);
+            } else {
+                fail(report, List.of(new ImportRowError(pending.row(), lr, "lr", "LR " + lr + " already exists")));
+            }
+        }
+    }
+
+    // a record that cannot be parsed ends the import; the rows read before it are still loaded
+    private static List<String> nextRecord(CsvReader reader, ImportReportDto report) throws IOException {
+        try {
+            return reader.next();
+        } catch (MalformedCsvException e) {
+            report.setTotalRows(report.getTotalRows() + 1);
+            fail(report, List.of(new ImportRowError(e.recordNumber(), null, null, e.getMessage())));
+            return null;
+        }
+    }
+
+    private static void fail(ImportReportDto report, List<ImportRowError> errors) {
+        report.setFailed(report.getFailed() + 1);
+        for (ImportRowError error : errors) {
+            if (report.getErrors().size() < MAX_REPORTED_ERRORS) {
+                report.getErrors().add(error);
+            } else {
+                report.setErrorsTruncated(true);
+            }
+        }
+    }
+
+    private static Map<String, Integer> columnIndexes(List<String> header) {
+        Map<String, String> known = new HashMap<>();
+        for (String column : COLUMNS) {
+            known.put(column.toLowerCase(Locale.ROOT), column);
+        }
+
+        Map<String, Integer> indexes = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            String name = header.get(i).trim();
+            String column = known.get(name.toLowerCase(Locale.ROOT));
+            if (column == null) {
+                throw new BadRequestException("Unknown column: " + name + " (expected " + String.join(",", COLUMNS) + ")");
+            }
+            if (indexes.put(column, i) != null) {
+                throw new BadRequestException("Duplicate column: " + name);
+            }
+        }
+        return indexes;
+    }
+
+    private static LorryRequestDto parse(
+            long row,
+            List<String> record,
+            Map<String, Integer> columns,
+            List<ImportRowError> errors
+    ) {
+        LorryRequestDto dto = new LorryRequestDto();
+        String lr = value(record, columns, "lr");
+        if (lr != null) {
+            try {
+                dto.setLr(Long.parseLong(lr));
+            } catch (NumberFormatException e) {
+                errors.add(new ImportRowError(row, null, "lr", "LR must be a whole number"));
+            }
+        }
+        dto.setLorryNumber(value(record, columns, "lorryNumber"));
+        dto.setFromLocation(value(record, columns, "fromLocation"));
+        dto.setToLocation(value(record, columns, "toLocation"));
+        dto.setConsignorName(value(record, columns, "consignorName"));
+        dto.setConsignorAddress(value(record, columns, "consignorAddress"));
+        dto.setDescription(value(record, columns, "description"));
+
+        String date = value(record, columns, "date");
+        if (date != null) {
+            try {
+                dto.setDate(LocalDate.parse(date));
+            } catch (DateTimeParseException e) {
+                errors.add(new ImportRowError(row, dto.getLr(), "date", "Date must be in yyyy-MM-dd format"));
+            }
+        }
+        dto.setWeight(amount(row, dto.getLr(), "weight", value(record, columns, "weight"), errors));
+        dto.setFreight(amount(row, dto.getLr(), "freight", value(record, columns, "freight"), errors));
+        return dto;
+    }
+
+    private static BigDecimal amount(long row, Long lr, String field, String text, List<ImportRowError> errors) {
+        if (text == null) {
+            return null;
+        }
+        try {
+            BigDecimal amount = new BigDecimal(text);
+            if (tooLarge(amount)) {
+                errors.add(new ImportRowError(row, lr, field, "Value is too large"));
+                return null;
+            }
+            return amount;
+        } catch (NumberFormatException e) {
+            errors.add(new ImportRowError(row, lr, field, "Must be a number"));
+            return null;
+        }
+    }
+
+    private static boolean tooLarge(BigDecimal amount) {
+        return amount != null && amount.precision() - amount.scale() > MAX_INTEGER_DIGITS;
+    }
+
+    // blank cells and missing trailing cells are null, like an omitted JSON field
+    private static String value(List<String> record, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= record.size()) {
+            return null;
+        }
+        String value = record.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private record PendingRow(long row, LorryEntity entity, boolean explicitLr) {
+    }
+}
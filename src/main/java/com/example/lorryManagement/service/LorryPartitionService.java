@@ -0,0 +1,45 @@
+package com.example.lorryManagement.service;
+
+import com.example.lorryManagement.repository.LorryPartitionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/*
+ * Keeps monthly lorry partitions ahead of the calendar, so new LRs land in a
+ * partition of their own month instead of lorry_default. Runs once at startup
+ * and then daily; creating a partition that exists is a no-op.
+ */
+@Service
+@Slf4j
+public class LorryPartitionService {
+    private final LorryPartitionRepository partitionRepository;
+    private final int monthsAhead;
+
+    public LorryPartitionService(
+            LorryPartitionRepository partitionRepository,
+            @Value("${lorry.partitions.months-ahead:3}") int monthsAhead
+    ) {
+        this.partitionRepository = partitionRepository;
+        this.monthsAhead = monthsAhead;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${lorry.partitions.cron:0 15 2 * * *}")
+    @Transactional
+    public void createPartitions() {
+        int created = partitionRepository.createPartitions(monthsAhead);
+        if (created > 0) {
+            log.info("Created {} monthly LR partitions", created);
+        }
+
+        long unpartitioned = partitionRepository.countUnpartitioned();
+        if (unpartitioned > 0) {
+            log.warn("{} LRs are dated outside the monthly partitions and sit in lorry_default", unpartitioned);
+        }
+    }
+}
@@ -1,18 +1,31 @@
 package com.example.lorryManagement.service;
 
+import com.example.lorryManagement.cache.DistinctField;
+import com.example.lorryManagement.dtos.LorryListItemDto;
+import com.example.lorryManagement.dtos.VehicleSummaryDto;
 import com.example.lorryManagement.entity.LorryEntity;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface LorryService {
     LorryEntity save(LorryEntity lorryEntity);
     Optional<LorryEntity> findByLr(Long lr);
+    Optional<Map<String, Object>> findFieldsByLr(Long lr, List<String> fields);
+    List<LorryEntity> findAllByLr(List<Long> lrs);
     void deleteByLr(Long lr);
     LorryEntity update(LorryEntity lorryEntity);
+    // only while the LR is at one of expectedVersions; unconditional when empty
+    LorryEntity update(LorryEntity lorryEntity, Collection<Long> expectedVersions);
+    long updateAll(List<Long> lrs, String search, LocalDate from, LocalDate to, LorryEntity changes);
+    long deleteAll(List<Long> lrs, String search, LocalDate from, LocalDate to);
     Long getNextLr();
     Page<LorryEntity> findWithFilters(
             String search,
@@ -20,8 +33,61 @@ public interface LorryService {
             LocalDate to,
             Pageable pageable
     );
+    Slice<LorryEntity> findSliceWithFilters(
+            String search,
+            LocalDate from,
+            LocalDate to,
+            Pageable pageable
+    );
+    long estimateCount(
+            String search,
+            LocalDate from,
+            LocalDate to
+    );
+    Page<LorryListItemDto> findListItemsWithFilters(
+            String search,
+            LocalDate from,
+            LocalDate to,
+            Pageable pageable
+    );
+    Slice<LorryListItemDto> findListItemSliceWithFilters(
+            String search,
+            LocalDate from,
+            LocalDate to,
+            Pageable pageable
+    );
+    Page<Map<String, Object>> findFieldsWithFilters(
+            String search,
+            LocalDate from,
+            LocalDate to,
+            Pageable pageable,
+            List<String> fields
+    );
+    Slice<Map<String, Object>> findFieldSliceWithFilters(
+            String search,
+            LocalDate from,
+            LocalDate to,
+            Pageable pageable,
+            List<String> fields
+    );
+    Slice<LorryEntity> findWithFiltersAfter(
+            String search,
+            LocalDate from,
+            LocalDate to,
+            Long afterLr,
+            int size
+    );
+    Slice<LorryListItemDto> findVehicleTrips(String lorryNumber, LocalDate beforeDate, Long beforeLr, int size);
+    VehicleSummaryDto summarizeVehicle(String lorryNumber);
+    void forEachWithFilters(
+            String search,
+            LocalDate from,
+            LocalDate to,
+            Consumer<LorryEntity> action
+    );
     List<String> getDistinctLorryNumbers();
     List<String> getDistinctFromLocations();
     List<String> getDistinctToLocations();
     List<String> getDistinctConsignorNames();
+    List<String> suggest(DistinctField field, String prefix, int limit);
 }
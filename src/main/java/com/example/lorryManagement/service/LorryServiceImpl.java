@@ -1,141 +1,443 @@
 package com.example.lorryManagement.service;
 
+import com.example.lorryManagement.cache.DistinctField;
+import com.example.lorryManagement.cache.DistinctValuesCache;
+import com.example.lorryManagement.cache.LorryCountCache;
+import com.example.lorryManagement.cache.SuggestionIndex;
+import com.example.lorryManagement.config.PaginationConfig;
+import com.example.lorryManagement.dtos.LorryListItemDto;
+import com.example.lorryManagement.dtos.VehicleSummaryDto;
 import com.example.lorryManagement.entity.LorryEntity;
+import com.example.lorryManagement.event.LorryChangedEvent;
+import com.example.lorryManagement.event.LorrySnapshot;
+import com.example.lorryManagement.exception.ArchivedLrException;
+import com.example.lorryManagement.exception.BadRequestException;
 import com.example.lorryManagement.repository.LorryRepository;
+import com.example.lorryManagement.repository.LorryUpdate;
 import com.example.lorryManagement.specification.LorrySpecification;
-import jakarta.transaction.Transactional;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.DuplicateKeyException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.SQLException;
 import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class LorryServiceImpl implements LorryService {
+    private static final String UNIQUE_VIOLATION = "23505";
+
     private final LorryRepository lorryRepository;
+    private final LorryCountCache lorryCountCache;
+    private final DistinctValuesCache distinctValuesCache;
+    private final SuggestionIndex suggestionIndex;
+    private final LrAllocator lrAllocator;
+    private final LorryArchiveService archiveService;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public LorryServiceImpl(LorryRepository lorryRepository) {
+    public LorryServiceImpl(
+            LorryRepository lorryRepository,
+            LorryCountCache lorryCountCache,
+            DistinctValuesCache distinctValuesCache,
+            SuggestionIndex suggestionIndex,
+            LrAllocator lrAllocator,
+            LorryArchiveService archiveService,
+            ApplicationEventPublisher eventPublisher
+    ) {
         this.lorryRepository = lorryRepository;
+        this.lorryCountCache = lorryCountCache;
+        this.distinctValuesCache = distinctValuesCache;
+        this.suggestionIndex = suggestionIndex;
+        this.lrAllocator = lrAllocator;
+        this.archiveService = archiveService;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
+    @Transactional
     public LorryEntity save(LorryEntity lorryEntity) {
-        if (lorryRepository.existsById(lorryEntity.getLr())) {
-            throw new DuplicateKeyException("LR" + lorryEntity.getLr() + " already exists");
+        if (lorryEntity.getLr() == null) {
+            lorryEntity.setLr(lrAllocator.nextLr());
         }
         normalize(lorryEntity);
-        return lorryRepository.save(lorryEntity);
+        lorryEntity.markNew();
+
+        LorryEntity saved;
+        try {
+            // a single INSERT; the primary key rejects duplicates instead of an existsById round trip
+            saved = lorryRepository.saveAndFlush(lorryEntity);
+        } catch (DataIntegrityViolationException e) {
+            if (isUniqueViolation(e)) {
+                throw new DuplicateKeyException("LR " + lorryEntity.getLr() + " already exists", e);
+            }
+            throw e;
+        }
+        eventPublisher.publishEvent(LorryChangedEvent.created(saved));
+        return saved;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Optional<LorryEntity> findByLr(Long lr) {
-        return lorryRepository.findById(lr);
+        // the archive is only asked on a miss, so lookups of recent LRs cost one query as before
+        return lorryRepository.findById(lr).or(() -> archiveService.findByLr(lr));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Map<String, Object>> findFieldsByLr(Long lr, List<String> fields) {
+        Specification<LorryEntity> spec = LorrySpecification.hasLrIn(List.of(lr));
+        return lorryRepository.findFieldSlice(spec, PageRequest.ofSize(1), fields)
+                .stream()
+                .findFirst()
+                .or(() -> lorryRepository.findFieldSliceWithArchive(spec, PageRequest.ofSize(1), fields)
+                        .stream()
+                        .findFirst());
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public List<LorryEntity> findAllByLr(List<Long> lrs) {
+        // one WHERE lr IN (...) query; the database returns rows in no particular order
+        Map<Long, LorryEntity> byLr = new HashMap<>();
+        lorryRepository.findAllById(lrs).forEach(entity -> byLr.put(entity.getLr(), entity));
+        // as in findByLr, only the misses are looked up in the archive
+        List<Long> missing = lrs.stream().filter(lr -> !byLr.containsKey(lr)).toList();
+        archiveService.findAllByLr(missing).forEach(entity -> byLr.put(entity.getLr(), entity));
+
+        return lrs.stream()
+                .map(byLr::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    @Override
+    @Transactional
     public void deleteByLr(Long lr) {
-        if (!lorryRepository.existsById(lr)) {
-            throw new NoSuchElementException("LR not found: " + lr);
-        }
-        lorryRepository.deleteById(lr);
+        LorryEntity existing = lorryRepository.findById(lr).orElseThrow(() -> notFound(lr));
+        lorryRepository.delete(existing);
+        eventPublisher.publishEvent(LorryChangedEvent.deleted(existing));
     }
 
     @Override
     @Transactional
     public LorryEntity update(LorryEntity lorryEntity) {
+        return update(lorryEntity, lorryEntity.getVersion() == null ? List.of() : List.of(lorryEntity.getVersion()));
+    }
+
+    @Override
+    @Transactional
+    public LorryEntity update(LorryEntity lorryEntity, Collection<Long> expectedVersions) {
         Long lr = lorryEntity.getLr();
         if (lr == null) {
             throw new IllegalArgumentException("LR must be provided for update");
         }
-        Optional<LorryEntity> lorry = lorryRepository.findById(lr);
 
-        if (lorry.isEmpty()) {
-            throw new NoSuchElementException("LR not found: " + lr);
-        }
+        normalize(lorryEntity);
 
-        // if everything is well then we move to actually update the code
+        // one UPDATE ... RETURNING touching only the supplied fields, instead of
+        // findById + copy + save (two round trips and a lost-update window)
+        LorryUpdate result = lorryRepository.updateSuppliedFields(lorryEntity, expectedVersions)
+                .orElseThrow(() -> notFound(lr));
 
-        normalize(lorryEntity);
-        LorryEntity existing =  lorry.get();
+        eventPublisher.publishEvent(
+                LorryChangedEvent.updated(LorrySnapshot.of(result.before()), result.after())
+        );
+        return result.after();
+    }
 
-        if (lorryEntity.getLorryNumber() != null) {
-            existing.setLorryNumber(lorryEntity.getLorryNumber());
-        }
-        if (lorryEntity.getDate() != null) {
-            existing.setDate(lorryEntity.getDate());
+    @Override
+    @Transactional
+    public long updateAll(List<Long> lrs, String search, LocalDate from, LocalDate to, LorryEntity changes) {
+        normalize(changes);
+        long affected = lorryRepository.updateMatching(boundedSelection(lrs, search, from, to), changes);
+        return afterBulkChange(affected);
+    }
+
+    @Override
+    @Transactional
+    public long deleteAll(List<Long> lrs, String search, LocalDate from, LocalDate to) {
+        long affected = lorryRepository.deleteMatching(boundedSelection(lrs, search, from, to));
+        return afterBulkChange(affected);
+    }
+
+    @Override
+    public Long getNextLr() {
+        return lrAllocator.nextLr();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<LorryEntity> findWithFilters(
+            String search,
+            LocalDate from,
+            LocalDate to,
+            Pageable pageable
+    ) {
+        if (archiveService.reachesArchive(from, to)) {
+            return lorryRepository.findAllWithArchive(filters(search, from, to), pageable);
         }
-        if (lorryEntity.getFromLocation() != null) {
-            existing.setFromLocation(lorryEntity.getFromLocation());
+        return lorryRepository.findAll(filters(search, from, to), pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<LorryEntity> findSliceWithFilters(
+            String search,
+            LocalDate from,
+            LocalDate to,
+            Pageable pageable
+    ) {
+        if (archiveService.reachesArchive(from, to)) {
+            return lorryRepository.findSliceWithArchive(filters(search, from, to), pageable);
         }
-        if (lorryEntity.getToLocation() != null) {
-            existing.setToLocation(lorryEntity.getToLocation());
+        return lorryRepository.findSlice(filters(search, from, to), pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<LorryListItemDto> findListItemsWithFilters(
+            String search,
+            LocalDate from,
+            LocalDate to,
+            Pageable pageable
+    ) {
+        if (archiveService.reachesArchive(from, to)) {
+            return lorryRepository.findListItemsWithArchive(filters(search, from, to), pageable);
         }
-        if (lorryEntity.getConsignorName() != null) {
-            existing.setConsignorName(lorryEntity.getConsignorName());
+        return lorryRepository.findListItems(filters(search, from, to), pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<LorryListItemDto> findListItemSliceWithFilters(
+            String search,
+            LocalDate from,
+            LocalDate to,
+            Pageable pageable
+    ) {
+        if (archiveService.reachesArchive(from, to)) {
+            return lorryRepository.findListItemSliceWithArchive(filters(search, from, to), pageable);
         }
-        if (lorryEntity.getConsignorAddress() != null) {
-            existing.setConsignorAddress(lorryEntity.getConsignorAddress());
+        return lorryRepository.findListItemSlice(filters(search, from, to), pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<Map<String, Object>> findFieldsWithFilters(
+            String search,
+            LocalDate from,
+            LocalDate to,
+            Pageable pageable,
+            List<String> fields
+    ) {
+        if (archiveService.reachesArchive(from, to)) {
+            return lorryRepository.findFieldsWithArchive(filters(search, from, to), pageable, fields);
         }
-        if (lorryEntity.getWeight() != null) {
-            existing.setWeight(lorryEntity.getWeight());
+        return lorryRepository.findFields(filters(search, from, to), pageable, fields);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<Map<String, Object>> findFieldSliceWithFilters(
+            String search,
+            LocalDate from,
+            LocalDate to,
+            Pageable pageable,
+            List<String> fields
+    ) {
+        if (archiveService.reachesArchive(from, to)) {
+            return lorryRepository.findFieldSliceWithArchive(filters(search, from, to), pageable, fields);
         }
-        if (lorryEntity.getFreight() != null) {
-            existing.setFreight(lorryEntity.getFreight());
+        return lorryRepository.findFieldSlice(filters(search, from, to), pageable, fields);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long estimateCount(
+            String search,
+            LocalDate from,
+            LocalDate to
+    ) {
+        if ((search == null || search.isEmpty()) && from == null && to == null) {
+            Long estimated = lorryRepository.findEstimatedRowCount();
+            // small or never-analyzed tables: an exact count is cheap enough
+            if (estimated != null && estimated > 0) {
+                return estimated;
+            }
+            return lorryRepository.count();
         }
-        if (lorryEntity.getDescription() != null) {
-            existing.setDescription(lorryEntity.getDescription());
+        return lorryCountCache.get(
+                search,
+                from,
+                to,
+                () -> archiveService.reachesArchive(from, to)
+                        ? lorryRepository.countWithArchive(filters(search, from, to))
+                        : lorryRepository.count(filters(search, from, to))
+        );
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<LorryEntity> findWithFiltersAfter(
+            String search,
+            LocalDate from,
+            LocalDate to,
+            Long afterLr,
+            int size
+    ) {
+        // seek past the last seen lr instead of OFFSET, so every page costs the same
+        Specification<LorryEntity> spec =
+                filters(search, from, to).and(LorrySpecification.hasLrBelow(afterLr));
+
+        PageRequest page = PageRequest.of(0, size, Sort.by(Sort.Direction.DESC, "lr"));
+        if (archiveService.reachesArchive(from, to)) {
+            return lorryRepository.findSliceWithArchive(spec, page);
         }
+        return lorryRepository.findSlice(spec, page);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<LorryListItemDto> findVehicleTrips(String lorryNumber, LocalDate beforeDate, Long beforeLr, int size) {
+        // served by idx_lorry_vehicle_trips (lorry_number, date DESC, lr DESC) in index order
+        Specification<LorryEntity> spec = LorrySpecification.hasLorryNumber(normalizeLorryNumber(lorryNumber))
+                .and(LorrySpecification.isTripBefore(beforeDate, beforeLr));
 
-        return lorryRepository.save(existing);
+        return lorryRepository.findListItemSlice(
+                spec,
+                PageRequest.of(0, size, Sort.by(Sort.Direction.DESC, "date", "lr"))
+        );
     }
 
     @Override
-    public Long getNextLr() {
-        Long maxLr = lorryRepository.findMaxLr();
-        return maxLr + 1;
+    @Transactional(readOnly = true)
+    public VehicleSummaryDto summarizeVehicle(String lorryNumber) {
+        return lorryRepository.summarizeVehicle(normalizeLorryNumber(lorryNumber));
     }
 
     @Override
-    public Page<LorryEntity> findWithFilters(
+    @Transactional(readOnly = true)
+    public void forEachWithFilters(
             String search,
             LocalDate from,
             LocalDate to,
-            Pageable pageable
+            Consumer<LorryEntity> action
     ) {
-        Specification<LorryEntity> spec =
-                Specification
-                        .where(LorrySpecification.hasSearch(search))
-                        .and(LorrySpecification.hasDateBetween(from, to));
-
-        return lorryRepository.findAll(spec, pageable);
+        // the cursor only streams inside a transaction; outside one the driver buffers every row
+        Sort sort = Sort.by(Sort.Direction.DESC, "lr");
+        try (Stream<LorryEntity> rows = archiveService.reachesArchive(from, to)
+                ? lorryRepository.streamAllWithArchive(filters(search, from, to), sort, PaginationConfig.EXPORT_FETCH_SIZE)
+                : lorryRepository.streamAll(filters(search, from, to), sort, PaginationConfig.EXPORT_FETCH_SIZE)) {
+            rows.forEach(action);
+        }
     }
 
     @Override
     public List<String> getDistinctLorryNumbers() {
-        return lorryRepository.findDistinctLorryNumbers();
+        return distinctValuesCache.get(DistinctField.LORRY_NUMBER);
     }
 
     @Override
     public List<String> getDistinctFromLocations() {
-        return lorryRepository.findDistinctFromLocations();
+        return distinctValuesCache.get(DistinctField.FROM_LOCATION);
     }
 
     @Override
     public List<String> getDistinctToLocations() {
-        return lorryRepository.findDistinctToLocations();
+        return distinctValuesCache.get(DistinctField.TO_LOCATION);
     }
 
     @Override
     public List<String> getDistinctConsignorNames() {
-        return lorryRepository.findDistinctConsignorNames();
+        return distinctValuesCache.get(DistinctField.CONSIGNOR_NAME);
+    }
+
+    @Override
+    public List<String> suggest(DistinctField field, String prefix, int limit) {
+        return suggestionIndex.suggest(field, prefix, limit);
+    }
+
+    // findByLr still finds archived LRs, so writes to them say why they fail instead of 404
+    private RuntimeException notFound(Long lr) {
+        return archiveService.isArchived(lr)
+                ? new ArchivedLrException(lr)
+                : new NoSuchElementException("LR not found: " + lr);
+    }
+
+    private Specification<LorryEntity> filters(String search, LocalDate from, LocalDate to) {
+        return Specification
+                .where(LorrySpecification.hasSearch(search))
+                .and(LorrySpecification.hasDateBetween(from, to));
+    }
+
+    // an explicit LR list wins over filters; callers make sure one of them is given
+    private Specification<LorryEntity> selection(List<Long> lrs, String search, LocalDate from, LocalDate to) {
+        if (lrs != null && !lrs.isEmpty()) {
+            return LorrySpecification.hasLrIn(lrs);
+        }
+        return filters(search, from, to);
+    }
+
+    /*
+     * Rejects a selection over the cap before anything is written: a bulk statement
+     * that is rolled back has still locked its rows, fired the triggers and written WAL.
+     */
+    private Specification<LorryEntity> boundedSelection(List<Long> lrs, String search, LocalDate from, LocalDate to) {
+        Specification<LorryEntity> spec = selection(lrs, search, from, to);
+        if (lorryRepository.countUpTo(spec, PaginationConfig.MAX_BULK_ROWS + 1) > PaginationConfig.MAX_BULK_ROWS) {
+            throw new BadRequestException(
+                    "Selection matches more than " + PaginationConfig.MAX_BULK_ROWS + " LRs; at most "
+                            + PaginationConfig.MAX_BULK_ROWS + " can be changed at once"
+            );
+        }
+        return spec;
+    }
+
+    private long afterBulkChange(long affected) {
+        if (affected > PaginationConfig.MAX_BULK_ROWS) {
+            // rows that started matching after the count; thrown inside the transaction,
+            // so the statement is rolled back
+            throw new BadRequestException(
+                    "Selection matches " + affected + " LRs; at most " + PaginationConfig.MAX_BULK_ROWS
+                            + " can be changed at once"
+            );
+        }
+        if (affected > 0) {
+            eventPublisher.publishEvent(LorryChangedEvent.bulk());
+        }
+        return affected;
+    }
+
+    private static boolean isUniqueViolation(DataIntegrityViolationException e) {
+        return e instanceof DuplicateKeyException
+                || (e.getMostSpecificCause() instanceof SQLException sqlException
+                        && UNIQUE_VIOLATION.equals(sqlException.getSQLState()));
+    }
+
+    // stored plates are upper case without separators (MH12AB1234); accept "mh 12 ab-1234" too
+    static String normalizeLorryNumber(String lorryNumber) {
+        return lorryNumber.replaceAll("[\\s-]", "").toUpperCase();
     }
 
-    private void normalize(LorryEntity l) {
+    // shared with the bulk import so both paths store identical values
+    static void normalize(LorryEntity l) {
         if (l.getFromLocation() != null) {
             l.setFromLocation(l.getFromLocation().trim().toUpperCase());
         }
@@ -0,0 +1,33 @@
+package com.example.lorryManagement.service;
+
+import com.example.lorryManagement.repository.LorryRepository;
+import org.springframework.stereotype.Component;
+
+/*
+ * Hands out LR numbers from blocks reserved on lorry_lr_seq. One sequence call
+ * per block (INCREMENT BY of the sequence), every other number comes from memory.
+ */
+@Component
+public class LrAllocator {
+    private final LorryRepository lorryRepository;
+
+    // guarded by this
+    private long blockSize;
+    private long next;
+    private long limit;
+
+    public LrAllocator(LorryRepository lorryRepository) {
+        this.lorryRepository = lorryRepository;
+    }
+
+    public synchronized long nextLr() {
+        if (next >= limit) {
+            if (blockSize == 0) {
+                blockSize = lorryRepository.findLrBlockSize();
+            }
+            next = lorryRepository.reserveLrBlock();
+            limit = next + blockSize;
+        }
+        return next++;
+    }
+}
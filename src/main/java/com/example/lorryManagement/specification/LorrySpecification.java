@@ -1,32 +1,99 @@
 package com.example.lorryManagement.specification;
 
 import com.example.lorryManagement.entity.LorryEntity;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
 import org.springframework.data.jpa.domain.Specification;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.regex.Pattern;
 
 public class LorrySpecification {
+    // a plate ends in at most four digits (MH12AB1234)
+    private static final int PLATE_NUMBER_DIGITS = 4;
 
     private LorrySpecification() {
         throw new IllegalStateException("Utility class");
     }
 
+    /*
+     * The search box takes LR numbers, plates and free text. The term is classified
+     * first so each kind only touches the index that can answer it:
+     * - digits only: lr exact match or prefix (primary key ranges). Up to four digits
+     *   the term may also be part of a plate (the 1234 of MH12AB1234), so the text
+     *   match below is kept as a second branch; longer numbers only match LRs
+     * - start of a plate (MH12, MH12AB, MH12AB1234): lorry_number prefix
+     * - anything else: substring of the text columns via the search_text trigram index
+     */
     public static Specification<LorryEntity> hasSearch(String search) {
         return (root, query, cb) -> {
-            if (search == null || search.isEmpty()) {
+            if (search == null || search.isBlank()) {
                 return cb.conjunction();
             }
-            String likeSearch = "%" + search.toLowerCase() + "%";
-            return cb.or(
-                cb.like(cb.lower(cb.toString(root.get("lr"))), likeSearch),
-                cb.like(cb.lower(root.get("lorryNumber")), likeSearch),
-                cb.like(cb.lower(root.get("consignorName")), likeSearch),
-                cb.like(cb.lower(root.get("fromLocation")), likeSearch),
-                cb.like(cb.lower(root.get("toLocation")), likeSearch)
-            );
+            String term = search.trim();
+            return switch (SearchKind.of(term)) {
+                case LR -> term.length() <= PLATE_NUMBER_DIGITS
+                        ? cb.or(hasLrPrefix(term).toPredicate(root, query, cb), containsText(root, cb, term))
+                        : hasLrPrefix(term).toPredicate(root, query, cb);
+                case PLATE -> cb.like(root.get("lorryNumber"), plate(term) + "%");
+                case TEXT -> containsText(root, cb, term);
+            };
+        };
+    }
+
+    // search_text already holds lr, lorry number, consignor and locations lower-cased,
+    // and is covered by a trigram index, so one LIKE replaces five column scans
+    private static Predicate containsText(Root<LorryEntity> root, CriteriaBuilder cb, String term) {
+        String likeSearch = "%" + escapeLike(term.toLowerCase()) + "%";
+        return cb.like(root.get("searchText"), likeSearch, '\\');
+    }
+
+    /*
+     * LRs whose decimal form starts with digits: the exact number plus one primary key
+     * range per extra digit (123 -> 123, 1230..1239, 12300..12399, ...), instead of
+     * casting every lr to text.
+     */
+    public static Specification<LorryEntity> hasLrPrefix(String digits) {
+        return (root, query, cb) -> {
+            // no lr is written with a leading zero, and more than 19 digits overflow a bigint
+            if ((digits.length() > 1 && digits.charAt(0) == '0') || digits.length() > 19) {
+                return cb.disjunction();
+            }
+            long prefix;
+            try {
+                prefix = Long.parseLong(digits);
+            } catch (NumberFormatException e) {
+                return cb.disjunction();
+            }
+
+            Path<Long> lr = root.get("lr");
+            List<Predicate> ranges = new ArrayList<>();
+            for (long[] range : lrPrefixRanges(prefix)) {
+                ranges.add(range[0] == range[1] ? cb.equal(lr, range[0]) : cb.between(lr, range[0], range[1]));
+            }
+            return cb.or(ranges.toArray(Predicate[]::new));
         };
     }
 
+    // inclusive [low, high] lr ranges whose numbers start with prefix, one per digit count
+    static List<long[]> lrPrefixRanges(long prefix) {
+        List<long[]> ranges = new ArrayList<>();
+        long low = prefix;
+        long high = prefix;
+        ranges.add(new long[]{low, high});
+        while (low != 0 && low <= Long.MAX_VALUE / 10) {
+            low = low * 10;
+            high = high > (Long.MAX_VALUE - 9) / 10 ? Long.MAX_VALUE : high * 10 + 9;
+            ranges.add(new long[]{low, high});
+        }
+        return ranges;
+    }
+
     public static Specification<LorryEntity> hasDateBetween(LocalDate from, LocalDate to) {
         return (root, query, cb) -> {
             if (from == null && to == null) {
@@ -44,4 +111,75 @@ public class LorrySpecification {
             return cb.lessThanOrEqualTo(root.get("date"), to);
         };
     }
+
+    // keyset (seek) condition for lr DESC ordering
+    public static Specification<LorryEntity> hasLrBelow(Long lr) {
+        return (root, query, cb) -> {
+            if (lr == null) {
+                return null;
+            }
+            return cb.lessThan(root.get("lr"), lr);
+        };
+    }
+
+    // exact match, so a plate never matches text inside other columns the way hasSearch does
+    public static Specification<LorryEntity> hasLorryNumber(String lorryNumber) {
+        return (root, query, cb) -> cb.equal(root.get("lorryNumber"), lorryNumber);
+    }
+
+    /*
+     * Keyset condition for date DESC, lr DESC ordering: rows strictly after (date, lr).
+     * The redundant date <= bound gives the planner an index range to start from;
+     * only rows sharing the cursor's date are then filtered on lr.
+     */
+    public static Specification<LorryEntity> isTripBefore(LocalDate date, Long lr) {
+        return (root, query, cb) -> {
+            if (date == null || lr == null) {
+                return null;
+            }
+            return cb.and(
+                    cb.lessThanOrEqualTo(root.get("date"), date),
+                    cb.or(
+                            cb.lessThan(root.get("date"), date),
+                            cb.lessThan(root.get("lr"), lr)
+                    )
+            );
+        };
+    }
+
+    public static Specification<LorryEntity> hasLrIn(Collection<Long> lrs) {
+        return (root, query, cb) -> root.get("lr").in(lrs);
+    }
+
+    enum SearchKind {
+        LR,
+        PLATE,
+        TEXT;
+
+        private static final Pattern DIGITS = Pattern.compile("\\d+");
+        // state code and district number, then optionally series letters and number
+        private static final Pattern PLATE_START = Pattern.compile("[A-Z]{2}\\d{1,2}(?:[A-Z]{1,3}\\d{0,4})?");
+
+        static SearchKind of(String term) {
+            if (DIGITS.matcher(term).matches()) {
+                return LR;
+            }
+            if (PLATE_START.matcher(plate(term)).matches()) {
+                return PLATE;
+            }
+            return TEXT;
+        }
+    }
+
+    // plates are stored upper case without separators
+    private static String plate(String term) {
+        return term.replaceAll("[\\s-]", "").toUpperCase();
+    }
+
+    private static String escapeLike(String value) {
+        return value
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
 }
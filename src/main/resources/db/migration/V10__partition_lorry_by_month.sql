@@ -0,0 +1,234 @@
+-- V10__partition_lorry_by_month.sql
+-- Purpose: Keep indexes, scans and vacuum proportional to a month of LRs, not to all of them
+-- Changes:
+--   - lorry becomes a table partitioned by RANGE (date), one partition per month
+--     (lorry_pYYYY_MM) plus lorry_default for dates outside every monthly partition
+--   - primary key is (lr, date), as a partitioned table's unique keys must contain date
+--   - lorry_lr: one row per LR, keeps LR numbers unique across partitions
+--   - every index from V2, V3, V7, V8 and V9 is recreated on the parent, so each
+--     partition gets its own copy
+--   - triggers from V6 and V9 are recreated on the new table
+--   - lorry_create_partition(month) / lorry_create_partitions(months_ahead) for the
+--     application job that creates partitions ahead of time
+-- Notes:
+--   - Existing rows are copied in this migration; the table is locked while it runs,
+--     so large installations should apply it in a maintenance window
+--   - Partitions are created from the month of the oldest LR to three months ahead;
+--     older back-dated LRs land in lorry_default
+--   - A date filter (LorrySpecification.hasDateBetween) prunes the plan to the
+--     partitions of the months it covers; lorry_default is pruned as well when the
+--     range is covered by monthly partitions
+--   - Lookups by lr alone probe the primary key index of every partition
+--   - lorry_lr is filled by statement-level triggers. A duplicate LR in another month's
+--     partition fails the statement with a unique violation (23505), the same error the
+--     old single-column primary key raised. Moving an LR to another month (UPDATE of
+--     date) does not fire INSERT / DELETE statement triggers and leaves lorry_lr as is
+--   - Creating a partition fails while lorry_default holds rows of that month; such rows
+--     have to be moved out first (lorry_create_partitions skips that month, and the
+--     application job logs how many LRs sit in lorry_default)
+
+ALTER TABLE lorry RENAME TO lorry_unpartitioned;
+
+CREATE TABLE lorry (
+    lr BIGINT NOT NULL,
+    lorry_number VARCHAR(10) NOT NULL,
+    date DATE NOT NULL,
+    from_location VARCHAR(100),
+    to_location VARCHAR(100),
+    consignor_name VARCHAR(100) NOT NULL,
+    consignor_address TEXT,
+    description TEXT,
+    weight NUMERIC(10,2) NOT NULL,
+    freight NUMERIC(10,2),
+    version BIGINT NOT NULL DEFAULT 0,
+    search_text TEXT GENERATED ALWAYS AS (
+        lower(
+            lr::text
+            || E'\x1f' || lorry_number
+            || E'\x1f' || consignor_name
+            || E'\x1f' || coalesce(from_location, '')
+            || E'\x1f' || coalesce(to_location, '')
+        )
+    ) STORED,
+    updated_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+    change_seq BIGINT NOT NULL,
+    change_xid XID8 NOT NULL
+) PARTITION BY RANGE (date);
+
+CREATE TABLE lorry_default PARTITION OF lorry DEFAULT;
+
+CREATE FUNCTION lorry_create_partition(month DATE) RETURNS BOOLEAN
+LANGUAGE plpgsql AS $$
+DECLARE
+    first_day DATE := date_trunc('month', month)::date;
+    partition_name TEXT := 'lorry_p' || to_char(first_day, 'YYYY_MM');
+BEGIN
+    IF to_regclass(partition_name) IS NOT NULL THEN
+        RETURN FALSE;
+    END IF;
+    EXECUTE format(
+        'CREATE TABLE %I PARTITION OF lorry FOR VALUES FROM (%L) TO (%L)',
+        partition_name, first_day, (first_day + INTERVAL '1 month')::date
+    );
+    RETURN TRUE;
+END;
+$$;
+
+-- partitions from the current month through months_ahead months from now; returns how
+-- many were created. A month whose rows already sit in lorry_default is skipped so the
+-- remaining months are still created.
+CREATE FUNCTION lorry_create_partitions(months_ahead INT) RETURNS INT
+LANGUAGE plpgsql AS $$
+DECLARE
+    month DATE;
+    created INT := 0;
+BEGIN
+    FOR month IN
+        SELECT generate_series(
+            date_trunc('month', current_date),
+            date_trunc('month', current_date) + make_interval(months => months_ahead),
+            INTERVAL '1 month'
+        )::date
+    LOOP
+        BEGIN
+            IF lorry_create_partition(month) THEN
+                created := created + 1;
+            END IF;
+        EXCEPTION WHEN check_violation THEN
+            RAISE WARNING 'lorry_default holds LRs dated %, partition not created', to_char(month, 'YYYY-MM');
+        END;
+    END LOOP;
+    RETURN created;
+END;
+$$;
+
+SELECT lorry_create_partition(month::date)
+FROM generate_series(
+    date_trunc('month', coalesce((SELECT min(date) FROM lorry_unpartitioned), current_date)),
+    date_trunc('month', current_date) + INTERVAL '3 months',
+    INTERVAL '1 month'
+) AS month;
+
+-- change stamps are carried over, so a client's change feed token stays valid
+INSERT INTO lorry (lr, lorry_number, date, from_location, to_location, consignor_name,
+                   consignor_address, description, weight, freight, version,
+                   updated_at, change_seq, change_xid)
+SELECT lr, lorry_number, date, from_location, to_location, consignor_name,
+       consignor_address, description, weight, freight, version,
+       updated_at, change_seq, change_xid
+FROM lorry_unpartitioned;
+
+CREATE TABLE lorry_lr (
+    lr BIGINT PRIMARY KEY
+);
+
+INSERT INTO lorry_lr (lr)
+SELECT lr FROM lorry_unpartitioned;
+
+-- takes the old indexes, constraint names and triggers with it
+DROP TABLE lorry_unpartitioned;
+
+ALTER TABLE lorry ADD CONSTRAINT lorry_pkey PRIMARY KEY (lr, date);
+
+CREATE INDEX idx_lorry_date ON lorry (date);
+CREATE INDEX idx_lorry_from_location ON lorry (from_location);
+CREATE INDEX idx_lorry_to_location ON lorry (to_location);
+CREATE INDEX idx_lorry_consignor_name ON lorry (consignor_name);
+CREATE INDEX idx_lorry_search_text_trgm ON lorry USING gin (search_text gin_trgm_ops);
+CREATE INDEX idx_lorry_vehicle_trips ON lorry (lorry_number, date DESC, lr DESC);
+CREATE INDEX idx_lorry_lorry_number_prefix ON lorry (lorry_number varchar_pattern_ops);
+CREATE INDEX idx_lorry_change ON lorry (change_xid, change_seq);
+
+-- LR registry
+
+CREATE FUNCTION lorry_lr_register() RETURNS trigger
+LANGUAGE plpgsql AS $$
+BEGIN
+    INSERT INTO lorry_lr (lr)
+    SELECT lr FROM new_rows;
+    RETURN NULL;
+END;
+$$;
+
+CREATE FUNCTION lorry_lr_release() RETURNS trigger
+LANGUAGE plpgsql AS $$
+BEGIN
+    DELETE FROM lorry_lr r
+    USING old_rows o
+    WHERE r.lr = o.lr;
+    RETURN NULL;
+END;
+$$;
+
+CREATE FUNCTION lorry_lr_truncate() RETURNS trigger
+LANGUAGE plpgsql AS $$
+BEGIN
+    TRUNCATE lorry_lr;
+    RETURN NULL;
+END;
+$$;
+
+CREATE FUNCTION lorry_lr_immutable() RETURNS trigger
+LANGUAGE plpgsql AS $$
+BEGIN
+    RAISE EXCEPTION 'LR % cannot be renumbered', OLD.lr;
+END;
+$$;
+
+CREATE TRIGGER lorry_lr_register
+    AFTER INSERT ON lorry
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION lorry_lr_register();
+
+CREATE TRIGGER lorry_lr_release
+    AFTER DELETE ON lorry
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION lorry_lr_release();
+
+CREATE TRIGGER lorry_lr_truncate
+    AFTER TRUNCATE ON lorry
+    FOR EACH STATEMENT EXECUTE FUNCTION lorry_lr_truncate();
+
+-- lorry_lr is keyed by lr, which the registry triggers cannot follow through an update
+CREATE TRIGGER lorry_lr_immutable
+    BEFORE UPDATE OF lr ON lorry
+    FOR EACH ROW
+    WHEN (OLD.lr IS DISTINCT FROM NEW.lr)
+    EXECUTE FUNCTION lorry_lr_immutable();
+
+-- triggers of V6 (rollups) and V9 (change feed), unchanged
+
+CREATE TRIGGER lorry_rollup_insert
+    AFTER INSERT ON lorry
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION lorry_rollup_trigger();
+
+CREATE TRIGGER lorry_rollup_update
+    AFTER UPDATE ON lorry
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION lorry_rollup_trigger();
+
+CREATE TRIGGER lorry_rollup_delete
+    AFTER DELETE ON lorry
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION lorry_rollup_trigger();
+
+CREATE TRIGGER lorry_rollup_truncate
+    AFTER TRUNCATE ON lorry
+    FOR EACH STATEMENT EXECUTE FUNCTION lorry_rollup_truncate();
+
+CREATE TRIGGER lorry_stamp_change
+    BEFORE INSERT OR UPDATE ON lorry
+    FOR EACH ROW EXECUTE FUNCTION lorry_stamp_change();
+
+CREATE TRIGGER lorry_tombstone_deleted
+    AFTER DELETE ON lorry
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION lorry_tombstone_deleted();
+
+CREATE TRIGGER lorry_tombstone_reinserted
+    AFTER INSERT ON lorry
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION lorry_tombstone_reinserted();
+
+ANALYZE lorry;
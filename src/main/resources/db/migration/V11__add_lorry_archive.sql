@@ -0,0 +1,108 @@
+-- V11__add_lorry_archive.sql
+-- Purpose: Keep the hot lorry table (and its indexes) down to recent LRs
+-- Changes:
+--   - lorry_archive: LRs older than the configured age, moved there in batches
+--   - lorry_history view: lorry UNION ALL lorry_archive, read by queries whose
+--     date range reaches past the archive cutoff
+--   - the DELETE triggers of V6, V9 and V10 are skipped while the archive job runs
+--   - lorry_rollup_rebuild() (V6) recomputes the rollups from lorry and lorry_archive
+-- Notes:
+--   - The archive is compact: no search_text column (the view derives it), no
+--     secondary btree indexes, and a BRIN index on date. Batches move the oldest
+--     LRs first, so rows are appended in date order and BRIN ranges stay tight
+--   - Archiving is not a deletion: the archive job sets lorry.archiving for its own
+--     transaction, so rollups keep the archived totals, no tombstone is written and
+--     the LR stays registered in lorry_lr (archived numbers are never reused)
+--   - Archived LRs are read-only; writes through the API only reach lorry. Reads of
+--     archived LRs carry no version, so clients get no ETag to send back
+--   - /distinct, /suggest and the vehicle trip queries read lorry only: they list
+--     what is still in use, not the archive
+
+CREATE TABLE lorry_archive (
+    lr BIGINT PRIMARY KEY,
+    lorry_number VARCHAR(10) NOT NULL,
+    date DATE NOT NULL,
+    from_location VARCHAR(100),
+    to_location VARCHAR(100),
+    consignor_name VARCHAR(100) NOT NULL,
+    consignor_address TEXT,
+    description TEXT,
+    weight NUMERIC(10,2) NOT NULL,
+    freight NUMERIC(10,2),
+    version BIGINT NOT NULL,
+    updated_at TIMESTAMPTZ NOT NULL,
+    archived_at TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+CREATE INDEX idx_lorry_archive_date ON lorry_archive USING brin (date);
+
+-- same columns as the lorry entity; date filters are pushed down into both branches
+CREATE VIEW lorry_history AS
+SELECT lr, lorry_number, date, from_location, to_location, consignor_name,
+       consignor_address, description, weight, freight, version, search_text
+FROM lorry
+UNION ALL
+SELECT lr, lorry_number, date, from_location, to_location, consignor_name,
+       consignor_address, description, weight, freight, NULL::bigint AS version,
+       lower(
+           lr::text
+           || E'\x1f' || lorry_number
+           || E'\x1f' || consignor_name
+           || E'\x1f' || coalesce(from_location, '')
+           || E'\x1f' || coalesce(to_location, '')
+       ) AS search_text
+FROM lorry_archive;
+
+-- statement-level WHEN conditions are checked once per statement, before any trigger runs
+
+DROP TRIGGER lorry_rollup_delete ON lorry;
+CREATE TRIGGER lorry_rollup_delete
+    AFTER DELETE ON lorry
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT
+    WHEN (current_setting('lorry.archiving', true) IS DISTINCT FROM 'on')
+    EXECUTE FUNCTION lorry_rollup_trigger();
+
+DROP TRIGGER lorry_tombstone_deleted ON lorry;
+CREATE TRIGGER lorry_tombstone_deleted
+    AFTER DELETE ON lorry
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT
+    WHEN (current_setting('lorry.archiving', true) IS DISTINCT FROM 'on')
+    EXECUTE FUNCTION lorry_tombstone_deleted();
+
+DROP TRIGGER lorry_lr_release ON lorry;
+CREATE TRIGGER lorry_lr_release
+    AFTER DELETE ON lorry
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT
+    WHEN (current_setting('lorry.archiving', true) IS DISTINCT FROM 'on')
+    EXECUTE FUNCTION lorry_lr_release();
+
+-- archived LRs keep their rollup totals, so a rebuild counts them too (lorry_history
+-- is lorry UNION ALL lorry_archive). Both tables are locked, as the archive job moves
+-- rows from one to the other
+CREATE OR REPLACE FUNCTION lorry_rollup_rebuild() RETURNS void
+LANGUAGE plpgsql AS $$
+BEGIN
+    LOCK TABLE lorry, lorry_archive IN SHARE MODE;
+    DELETE FROM lorry_daily_totals;
+    DELETE FROM lorry_route_daily_totals;
+    DELETE FROM lorry_consignor_daily_totals;
+
+    INSERT INTO lorry_daily_totals (date, trips, total_weight, total_freight)
+    SELECT date, count(*), sum(weight), coalesce(sum(freight), 0)
+    FROM lorry_history
+    GROUP BY date;
+
+    INSERT INTO lorry_route_daily_totals (date, from_location, to_location, trips, total_weight, total_freight)
+    SELECT date, coalesce(from_location, ''), coalesce(to_location, ''), count(*), sum(weight), coalesce(sum(freight), 0)
+    FROM lorry_history
+    GROUP BY date, coalesce(from_location, ''), coalesce(to_location, '');
+
+    INSERT INTO lorry_consignor_daily_totals (date, consignor_name, trips, total_weight, total_freight)
+    SELECT date, consignor_name, count(*), sum(weight), coalesce(sum(freight), 0)
+    FROM lorry_history
+    GROUP BY date, consignor_name;
+END;
+$$;
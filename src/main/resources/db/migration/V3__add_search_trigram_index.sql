@@ -0,0 +1,27 @@
+-- V3__add_search_trigram_index.sql
+-- Purpose: Make the list page search index-backed
+-- Changes:
+--   - enable pg_trgm
+--   - search_text: generated, lower-cased concatenation of the searchable columns
+--   - GIN trigram index on search_text
+-- Notes:
+--   - Substring search ('%term%') cannot use the B-tree indexes from V2;
+--     a trigram index can serve it for terms of 3+ characters
+--   - Columns are joined with a unit separator (0x1F) so a term never
+--     matches across two columns
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+ALTER TABLE lorry
+    ADD COLUMN search_text TEXT GENERATED ALWAYS AS (
+        lower(
+            lr::text
+            || E'\x1f' || lorry_number
+            || E'\x1f' || consignor_name
+            || E'\x1f' || coalesce(from_location, '')
+            || E'\x1f' || coalesce(to_location, '')
+        )
+    ) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_lorry_search_text_trgm
+    ON lorry USING gin (search_text gin_trgm_ops);
@@ -0,0 +1,16 @@
+-- V4__add_lr_sequence.sql
+-- Purpose: Allocate LR numbers from a sequence instead of MAX(lr) + 1
+-- Changes:
+--   - lorry_lr_seq, starting right after the highest existing LR
+-- Notes:
+--   - Each nextval reserves a block of INCREMENT BY numbers (hi/lo);
+--     the application hands them out from memory (see LrAllocator)
+--   - Sequences are not transactional, so concurrent callers and
+--     multiple app instances never receive the same block
+--   - Unused numbers of a block are lost on restart (gaps are expected)
+
+CREATE SEQUENCE IF NOT EXISTS lorry_lr_seq
+    INCREMENT BY 50
+    MINVALUE 1;
+
+SELECT setval('lorry_lr_seq', (SELECT COALESCE(MAX(lr), 0) + 1 FROM lorry), false);
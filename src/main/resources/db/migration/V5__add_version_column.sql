@@ -0,0 +1,10 @@
+-- V5__add_version_column.sql
+-- Purpose: Optimistic concurrency for LR edits
+-- Changes:
+--   - version column, incremented by every update
+-- Notes:
+--   - Exposed as the ETag of GET /api/lorry/{lr}; a PUT carrying If-Match
+--     only applies while the stored version still matches (412 otherwise)
+--   - Existing rows start at version 0
+
+ALTER TABLE lorry ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
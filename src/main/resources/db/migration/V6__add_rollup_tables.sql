@@ -0,0 +1,203 @@
+-- V6__add_rollup_tables.sql
+-- Purpose: Serve freight / weight totals without aggregating raw LRs per request
+-- Changes:
+--   - lorry_daily_totals: trips, weight and freight per date
+--   - lorry_route_daily_totals: the same per date and from -> to route
+--   - lorry_consignor_daily_totals: the same per date and consignor
+--   - statement-level triggers on lorry that apply each statement's net delta
+--   - initial backfill from existing rows
+-- Notes:
+--   - Rollups keep the date grain so any from / to range can be answered by
+--     summing rollup rows; a year-long report reads at most 366 daily rows
+--   - Triggers (rather than application code) cover every write path: single
+--     saves, updates and deletes, COPY imports and set-based bulk statements
+--   - Transition tables hand the trigger all changed rows at once, so a bulk
+--     statement costs one grouped upsert per rollup rather than one per row
+--   - Updates that leave date, route, consignor, weight and freight untouched
+--     produce no delta
+--   - Missing from / to locations are stored as '' because they are part of
+--     the primary key
+--   - Drift (e.g. from manual fixes with triggers disabled) is repaired by
+--     lorry_rollup_rebuild(), which the application runs on a schedule
+
+CREATE TABLE lorry_daily_totals (
+    date DATE PRIMARY KEY,
+    trips BIGINT NOT NULL,
+    total_weight NUMERIC(18,2) NOT NULL,
+    total_freight NUMERIC(18,2) NOT NULL
+);
+
+CREATE TABLE lorry_route_daily_totals (
+    date DATE NOT NULL,
+    from_location VARCHAR(100) NOT NULL,
+    to_location VARCHAR(100) NOT NULL,
+    trips BIGINT NOT NULL,
+    total_weight NUMERIC(18,2) NOT NULL,
+    total_freight NUMERIC(18,2) NOT NULL,
+    PRIMARY KEY (date, from_location, to_location)
+);
+
+CREATE TABLE lorry_consignor_daily_totals (
+    date DATE NOT NULL,
+    consignor_name VARCHAR(100) NOT NULL,
+    trips BIGINT NOT NULL,
+    total_weight NUMERIC(18,2) NOT NULL,
+    total_freight NUMERIC(18,2) NOT NULL,
+    PRIMARY KEY (date, consignor_name)
+);
+
+-- Turns the statement's transition tables into a delta of (date, from_location,
+-- to_location, consignor_name, trips, weight, freight) rows and adds it to all three
+-- rollups. Transition tables are only visible to queries run by the trigger function
+-- itself, hence the EXECUTEs here rather than a helper function.
+CREATE FUNCTION lorry_rollup_trigger() RETURNS trigger
+LANGUAGE plpgsql AS $$
+DECLARE
+    delta TEXT;
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        delta := $sql$
+            SELECT date, coalesce(from_location, '') AS from_location, coalesce(to_location, '') AS to_location,
+                   consignor_name, 1 AS trips, weight, coalesce(freight, 0) AS freight
+            FROM new_rows
+        $sql$;
+    ELSIF TG_OP = 'DELETE' THEN
+        delta := $sql$
+            SELECT date, coalesce(from_location, '') AS from_location, coalesce(to_location, '') AS to_location,
+                   consignor_name, -1 AS trips, -weight AS weight, -coalesce(freight, 0) AS freight
+            FROM old_rows
+        $sql$;
+    ELSE
+        delta := $sql$
+            SELECT v.*
+            FROM old_rows o
+            JOIN new_rows n ON n.lr = o.lr
+            CROSS JOIN LATERAL (VALUES
+                (o.date, coalesce(o.from_location, ''), coalesce(o.to_location, ''),
+                 o.consignor_name, -1, -o.weight, -coalesce(o.freight, 0)),
+                (n.date, coalesce(n.from_location, ''), coalesce(n.to_location, ''),
+                 n.consignor_name, 1, n.weight, coalesce(n.freight, 0))
+            ) AS v(date, from_location, to_location, consignor_name, trips, weight, freight)
+            WHERE (o.date, o.from_location, o.to_location, o.consignor_name, o.weight, o.freight)
+                IS DISTINCT FROM (n.date, n.from_location, n.to_location, n.consignor_name, n.weight, n.freight)
+        $sql$;
+    END IF;
+
+    EXECUTE format($sql$
+        WITH delta AS (%s),
+        daily AS (
+            INSERT INTO lorry_daily_totals AS t (date, trips, total_weight, total_freight)
+            SELECT date, sum(trips), sum(weight), sum(freight)
+            FROM delta
+            GROUP BY date
+            ORDER BY date
+            ON CONFLICT (date) DO UPDATE SET
+                trips = t.trips + excluded.trips,
+                total_weight = t.total_weight + excluded.total_weight,
+                total_freight = t.total_freight + excluded.total_freight
+        ),
+        route AS (
+            INSERT INTO lorry_route_daily_totals AS t (date, from_location, to_location, trips, total_weight, total_freight)
+            SELECT date, from_location, to_location, sum(trips), sum(weight), sum(freight)
+            FROM delta
+            GROUP BY date, from_location, to_location
+            ORDER BY date, from_location, to_location
+            ON CONFLICT (date, from_location, to_location) DO UPDATE SET
+                trips = t.trips + excluded.trips,
+                total_weight = t.total_weight + excluded.total_weight,
+                total_freight = t.total_freight + excluded.total_freight
+        )
+        INSERT INTO lorry_consignor_daily_totals AS t (date, consignor_name, trips, total_weight, total_freight)
+        SELECT date, consignor_name, sum(trips), sum(weight), sum(freight)
+        FROM delta
+        GROUP BY date, consignor_name
+        ORDER BY date, consignor_name
+        ON CONFLICT (date, consignor_name) DO UPDATE SET
+            trips = t.trips + excluded.trips,
+            total_weight = t.total_weight + excluded.total_weight,
+            total_freight = t.total_freight + excluded.total_freight
+    $sql$, delta);
+
+    -- the upserts cannot see their own results, so groups they emptied are removed
+    -- by a second statement; only groups this delta touched are checked
+    IF TG_OP <> 'INSERT' THEN
+        EXECUTE format($sql$
+            WITH delta AS (%s),
+            daily AS (
+                DELETE FROM lorry_daily_totals t
+                USING (SELECT DISTINCT date FROM delta) d
+                WHERE t.date = d.date AND t.trips = 0
+            ),
+            route AS (
+                DELETE FROM lorry_route_daily_totals t
+                USING (SELECT DISTINCT date, from_location, to_location FROM delta) d
+                WHERE t.date = d.date AND t.from_location = d.from_location
+                  AND t.to_location = d.to_location AND t.trips = 0
+            )
+            DELETE FROM lorry_consignor_daily_totals t
+            USING (SELECT DISTINCT date, consignor_name FROM delta) d
+            WHERE t.date = d.date AND t.consignor_name = d.consignor_name AND t.trips = 0
+        $sql$, delta);
+    END IF;
+    RETURN NULL;
+END;
+$$;
+
+-- transition tables require one trigger per event
+CREATE TRIGGER lorry_rollup_insert
+    AFTER INSERT ON lorry
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION lorry_rollup_trigger();
+
+CREATE TRIGGER lorry_rollup_update
+    AFTER UPDATE ON lorry
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION lorry_rollup_trigger();
+
+CREATE TRIGGER lorry_rollup_delete
+    AFTER DELETE ON lorry
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION lorry_rollup_trigger();
+
+CREATE FUNCTION lorry_rollup_truncate() RETURNS trigger
+LANGUAGE plpgsql AS $$
+BEGIN
+    TRUNCATE lorry_daily_totals, lorry_route_daily_totals, lorry_consignor_daily_totals;
+    RETURN NULL;
+END;
+$$;
+
+-- TRUNCATE fires no DELETE triggers
+CREATE TRIGGER lorry_rollup_truncate
+    AFTER TRUNCATE ON lorry
+    FOR EACH STATEMENT EXECUTE FUNCTION lorry_rollup_truncate();
+
+-- Recomputes every rollup from lorry. SHARE mode lets reads continue but holds
+-- writers back so no delta is lost between the clear and the reload. DELETE rather
+-- than TRUNCATE so analytics readers keep seeing the old totals until commit.
+CREATE FUNCTION lorry_rollup_rebuild() RETURNS void
+LANGUAGE plpgsql AS $$
+BEGIN
+    LOCK TABLE lorry IN SHARE MODE;
+    DELETE FROM lorry_daily_totals;
+    DELETE FROM lorry_route_daily_totals;
+    DELETE FROM lorry_consignor_daily_totals;
+
+    INSERT INTO lorry_daily_totals (date, trips, total_weight, total_freight)
+    SELECT date, count(*), sum(weight), coalesce(sum(freight), 0)
+    FROM lorry
+    GROUP BY date;
+
+    INSERT INTO lorry_route_daily_totals (date, from_location, to_location, trips, total_weight, total_freight)
+    SELECT date, coalesce(from_location, ''), coalesce(to_location, ''), count(*), sum(weight), coalesce(sum(freight), 0)
+    FROM lorry
+    GROUP BY date, coalesce(from_location, ''), coalesce(to_location, '');
+
+    INSERT INTO lorry_consignor_daily_totals (date, consignor_name, trips, total_weight, total_freight)
+    SELECT date, consignor_name, count(*), sum(weight), coalesce(sum(freight), 0)
+    FROM lorry
+    GROUP BY date, consignor_name;
+END;
+$$;
+
+SELECT lorry_rollup_rebuild();
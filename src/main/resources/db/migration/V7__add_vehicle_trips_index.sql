@@ -0,0 +1,16 @@
+-- V7__add_vehicle_trips_index.sql
+-- Purpose: Index-backed trip history per lorry number
+-- Changes:
+--   - composite index (lorry_number, date DESC, lr DESC)
+--   - drop idx_lorry_lorry_number
+-- Notes:
+--   - GET /api/lorry/vehicle/{lorryNumber}/trips filters on lorry_number = ?
+--     and seeks past (date, lr) of the previous page, so every page is a short
+--     range read in index order with no sort
+--   - The old single-column index is a prefix of the new one; equality lookups
+--     and the distinct / count-by lorry number queries use the composite index
+
+CREATE INDEX IF NOT EXISTS idx_lorry_vehicle_trips
+    ON lorry (lorry_number, date DESC, lr DESC);
+
+DROP INDEX IF EXISTS idx_lorry_lorry_number;
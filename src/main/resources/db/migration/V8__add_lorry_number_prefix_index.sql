@@ -0,0 +1,13 @@
+-- V8__add_lorry_number_prefix_index.sql
+-- Purpose: Index-backed plate searches from the list page search box
+-- Changes:
+--   - B-tree on lorry_number with varchar_pattern_ops
+-- Notes:
+--   - Search terms that look like the start of a plate (MH12, MH12AB1234)
+--     become lorry_number LIKE 'MH12%'; under a non-C collation the default
+--     operator class (idx_lorry_vehicle_trips) cannot serve LIKE prefixes
+--   - Digit-only terms go to the lr primary key and other text to the
+--     search_text trigram index (V3), so neither needs this index
+
+CREATE INDEX IF NOT EXISTS idx_lorry_lorry_number_prefix
+    ON lorry (lorry_number varchar_pattern_ops);
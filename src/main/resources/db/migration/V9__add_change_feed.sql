@@ -0,0 +1,101 @@
+-- V9__add_change_feed.sql
+-- Purpose: Incremental sync for offline clients (GET /api/lorry/changes)
+-- Changes:
+--   - lorry.updated_at, change_seq and change_xid, stamped by a trigger on every insert / update
+--   - lorry_tombstone: one row per deleted LR, stamped the same way
+--   - lorry_feed_state: how far tombstones have been purged
+--   - (change_xid, change_seq) indexes on both tables for the feed's keyset scan
+-- Notes:
+--   - change_seq comes from a sequence, so it is unique and increasing, but values
+--     are taken at write time, not commit time: a transaction may commit a lower
+--     change_seq after a higher one is already visible. The feed therefore orders by
+--     (change_xid, change_seq) and only returns rows whose transaction id is below
+--     the xmin of its snapshot. Every such transaction has finished, so nothing
+--     can appear behind a token later
+--   - Tombstones are removed when the same LR is inserted again, and purged after
+--     a retention period; tokens older than the purge horizon must resync in full
+--   - Existing rows are stamped once here so a first sync picks them all up
+
+CREATE SEQUENCE lorry_change_seq;
+
+ALTER TABLE lorry
+    ADD COLUMN updated_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+    ADD COLUMN change_seq BIGINT,
+    ADD COLUMN change_xid XID8;
+
+UPDATE lorry
+SET change_seq = nextval('lorry_change_seq'),
+    change_xid = pg_current_xact_id();
+
+ALTER TABLE lorry
+    ALTER COLUMN change_seq SET NOT NULL,
+    ALTER COLUMN change_xid SET NOT NULL;
+
+CREATE INDEX idx_lorry_change ON lorry (change_xid, change_seq);
+
+CREATE TABLE lorry_tombstone (
+    lr BIGINT PRIMARY KEY,
+    deleted_at TIMESTAMPTZ NOT NULL,
+    change_seq BIGINT NOT NULL,
+    change_xid XID8 NOT NULL
+);
+
+CREATE INDEX idx_lorry_tombstone_change ON lorry_tombstone (change_xid, change_seq);
+CREATE INDEX idx_lorry_tombstone_deleted_at ON lorry_tombstone (deleted_at);
+
+CREATE TABLE lorry_feed_state (
+    id SMALLINT PRIMARY KEY CHECK (id = 1),
+    -- highest change_xid of a purged tombstone; tokens at or below it are stale
+    purged_xid XID8 NOT NULL
+);
+
+INSERT INTO lorry_feed_state (id, purged_xid) VALUES (1, '0');
+
+CREATE FUNCTION lorry_stamp_change() RETURNS trigger
+LANGUAGE plpgsql AS $$
+BEGIN
+    NEW.updated_at := now();
+    NEW.change_seq := nextval('lorry_change_seq');
+    NEW.change_xid := pg_current_xact_id();
+    RETURN NEW;
+END;
+$$;
+
+CREATE TRIGGER lorry_stamp_change
+    BEFORE INSERT OR UPDATE ON lorry
+    FOR EACH ROW EXECUTE FUNCTION lorry_stamp_change();
+
+CREATE FUNCTION lorry_tombstone_deleted() RETURNS trigger
+LANGUAGE plpgsql AS $$
+BEGIN
+    INSERT INTO lorry_tombstone (lr, deleted_at, change_seq, change_xid)
+    SELECT lr, now(), nextval('lorry_change_seq'), pg_current_xact_id()
+    FROM old_rows
+    ORDER BY lr
+    ON CONFLICT (lr) DO UPDATE SET
+        deleted_at = excluded.deleted_at,
+        change_seq = excluded.change_seq,
+        change_xid = excluded.change_xid;
+    RETURN NULL;
+END;
+$$;
+
+CREATE FUNCTION lorry_tombstone_reinserted() RETURNS trigger
+LANGUAGE plpgsql AS $$
+BEGIN
+    DELETE FROM lorry_tombstone t
+    USING new_rows n
+    WHERE t.lr = n.lr;
+    RETURN NULL;
+END;
+$$;
+
+CREATE TRIGGER lorry_tombstone_deleted
+    AFTER DELETE ON lorry
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION lorry_tombstone_deleted();
+
+CREATE TRIGGER lorry_tombstone_reinserted
+    AFTER INSERT ON lorry
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION lorry_tombstone_reinserted();
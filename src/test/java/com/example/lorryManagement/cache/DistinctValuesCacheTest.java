@@ -0,0 +1,130 @@
+package com.example.lorryManagement.cache;
+
+import com.example.lorryManagement.event.LorryChangedEvent;
+import com.example.lorryManagement.event.LorrySnapshot;
+import com.example.lorryManagement.repository.LorryRepository;
+import com.example.lorryManagement.repository.ValueCount;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class DistinctValuesCacheTest {
+    @Mock
+    private LorryRepository lorryRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private DistinctValuesCache cache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new DistinctValuesCache(lorryRepository, meterRegistry, 3, Duration.ofMinutes(10));
+    }
+
+    @Test
+    void get_shouldLoadOnceAndServeFromMemory() {
+        when(lorryRepository.countByFromLocation())
+                .thenReturn(List.of(count("MUMBAI", 1), count("PUNE", 2)));
+
+        assertEquals(List.of("MUMBAI", "PUNE"), cache.get(DistinctField.FROM_LOCATION));
+        assertEquals(List.of("MUMBAI", "PUNE"), cache.get(DistinctField.FROM_LOCATION));
+
+        verify(lorryRepository, times(1)).countByFromLocation();
+        assertEquals(1.0, counter("from-locations", "hit"));
+        assertEquals(1.0, counter("from-locations", "miss"));
+    }
+
+    @Test
+    void onLorryChanged_shouldApplyWritesWithoutReloading() {
+        when(lorryRepository.countByFromLocation())
+                .thenReturn(List.of(count("MUMBAI", 1), count("NAGPUR", 1), count("PUNE", 2)));
+        cache.get(DistinctField.FROM_LOCATION);
+
+        // MUMBAI's only LR moves to NAGPUR, one of PUNE's two LRs is deleted
+        cache.onLorryChanged(new LorryChangedEvent(snapshot(1L, "MUMBAI"), snapshot(1L, "NAGPUR")));
+        cache.onLorryChanged(new LorryChangedEvent(snapshot(2L, "PUNE"), null));
+
+        assertEquals(List.of("NAGPUR", "PUNE"), cache.get(DistinctField.FROM_LOCATION));
+        verify(lorryRepository, times(1)).countByFromLocation();
+    }
+
+    @Test
+    void onLorryChanged_whenValueIsNew_shouldSlotItInWithoutReloading() {
+        // the database's collation decides the order, not Java's String ordering
+        when(lorryRepository.countByConsignorName()).thenReturn(List.of(count("alice", 1), count("Bob", 1)));
+        assertEquals(List.of("alice", "Bob"), cache.get(DistinctField.CONSIGNOR_NAME));
+
+        cache.onLorryChanged(new LorryChangedEvent(null,
+                new LorrySnapshot(3L, "MH12AB1234", null, "PUNE", "GOA", "Anil", null, null)));
+        cache.onLorryChanged(new LorryChangedEvent(null,
+                new LorrySnapshot(4L, "MH12AB1234", null, "PUNE", "GOA", "Anil", null, null)));
+
+        assertEquals(List.of("alice", "Anil", "Bob"), cache.get(DistinctField.CONSIGNOR_NAME));
+        verify(lorryRepository, times(1)).countByConsignorName();
+
+        // both of Anil's LRs have to go before the value does
+        cache.onLorryChanged(new LorryChangedEvent(
+                new LorrySnapshot(3L, "MH12AB1234", null, "PUNE", "GOA", "Anil", null, null), null));
+        assertEquals(List.of("alice", "Anil", "Bob"), cache.get(DistinctField.CONSIGNOR_NAME));
+    }
+
+    @Test
+    void onLorryChanged_whenBulk_shouldReload() {
+        when(lorryRepository.countByFromLocation())
+                .thenReturn(List.of(count("PUNE", 1)))
+                .thenReturn(List.of(count("PUNE", 1), count("SURAT", 4)));
+        cache.get(DistinctField.FROM_LOCATION);
+
+        cache.onLorryChanged(LorryChangedEvent.bulk());
+
+        assertEquals(List.of("PUNE", "SURAT"), cache.get(DistinctField.FROM_LOCATION));
+        verify(lorryRepository, times(2)).countByFromLocation();
+    }
+
+    @Test
+    void get_whenTooManyValues_shouldNotCache() {
+        when(lorryRepository.countByConsignorName())
+                .thenReturn(List.of(count("a", 1), count("B", 1), count("C", 1), count("d", 1)));
+
+        assertEquals(List.of("a", "B", "C", "d"), cache.get(DistinctField.CONSIGNOR_NAME));
+        cache.get(DistinctField.CONSIGNOR_NAME);
+
+        verify(lorryRepository, times(2)).countByConsignorName();
+    }
+
+    private double counter(String field, String result) {
+        return meterRegistry.get("lorry.distinct.cache")
+                .tag("field", field)
+                .tag("result", result)
+                .counter()
+                .count();
+    }
+
+    private static LorrySnapshot snapshot(Long lr, String fromLocation) {
+        return new LorrySnapshot(lr, "MH12AB1234", null, fromLocation, "GOA", "Alice", null, null);
+    }
+
+    private static ValueCount count(String term, long total) {
+        return new ValueCount() {
+            @Override
+            public String getTerm() {
+                return term;
+            }
+
+            @Override
+            public Long getTotal() {
+                return total;
+            }
+        };
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.lorryManagement.cache;
+
+import com.example.lorryManagement.event.LorryChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LorryCountCacheTest {
+    private final LorryCountCache cache = new LorryCountCache(new SimpleMeterRegistry(), Duration.ofMinutes(1), 10);
+
+    @Test
+    void get_shouldReuseTheTotalForTheSameFilters() {
+        AtomicLong loads = new AtomicLong();
+
+        cache.get("Pune", null, null, loads::incrementAndGet);
+        cache.get("PUNE", null, null, loads::incrementAndGet);
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void onLorryChanged_shouldDropTheTotals() {
+        AtomicLong loads = new AtomicLong();
+        cache.get(null, null, null, loads::incrementAndGet);
+
+        cache.onLorryChanged(LorryChangedEvent.bulk());
+
+        assertEquals(2, cache.get(null, null, null, loads::incrementAndGet));
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.lorryManagement.cache;
+
+import com.example.lorryManagement.entity.LorryEntity;
+import com.example.lorryManagement.event.LorryChangedEvent;
+import com.example.lorryManagement.event.LorrySnapshot;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class LorryEntityCacheEvictorTest {
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+
+    @Mock
+    private Cache cache;
+
+    private LorryEntityCacheEvictor evictor;
+
+    @BeforeEach
+    void setUp() {
+        when(entityManagerFactory.getCache()).thenReturn(cache);
+        evictor = new LorryEntityCacheEvictor(entityManagerFactory);
+    }
+
+    @Test
+    void onLorryChanged_shouldEvictTheChangedLr() {
+        evictor.onLorryChanged(new LorryChangedEvent(snapshot(7L), snapshot(7L)));
+        evictor.onLorryChanged(new LorryChangedEvent(snapshot(8L), null));
+
+        verify(cache, times(2)).evict(LorryEntity.class, 7L);
+        verify(cache).evict(LorryEntity.class, 8L);
+        verify(cache, never()).evict(LorryEntity.class);
+    }
+
+    @Test
+    void onLorryChanged_whenBulk_shouldEvictEveryLr() {
+        evictor.onLorryChanged(LorryChangedEvent.bulk());
+
+        verify(cache).evict(LorryEntity.class);
+        verifyNoMoreInteractions(cache);
+    }
+
+    private static LorrySnapshot snapshot(Long lr) {
+        return new LorrySnapshot(lr, "MH12AB1234", LocalDate.of(2024, 1, 15),
+                "PUNE", "MUMBAI", "ALICE", BigDecimal.TEN, BigDecimal.ONE);
+    }
+}
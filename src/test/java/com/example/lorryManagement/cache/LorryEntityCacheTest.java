@@ -0,0 +1,122 @@
+package com.example.lorryManagement.cache;
+
+import com.example.lorryManagement.entity.LorryEntity;
+import com.example.lorryManagement.service.LorryService;
+import com.example.lorryManagement.support.PostgresIntegrationTest;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+ * LorryEntity point lookups through the second-level cache, and eviction by the
+ * write paths that bypass Hibernate.
+ */
+public class LorryEntityCacheTest extends PostgresIntegrationTest {
+    @Autowired
+    private LorryService lorryService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        entityManagerFactory.getCache().evict(LorryEntity.class);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.execute("TRUNCATE lorry");
+        entityManagerFactory.getCache().evict(LorryEntity.class);
+    }
+
+    @Test
+    void findByLr_shouldServeRepeatedLookupsFromTheCache() {
+        lorryService.save(newLorry(910001L));
+        entityManagerFactory.getCache().evict(LorryEntity.class);
+        double hits = gets("hit");
+
+        lorryService.findByLr(910001L);
+        lorryService.findByLr(910001L);
+
+        assertTrue(entityManagerFactory.getCache().contains(LorryEntity.class, 910001L));
+        assertEquals(hits + 1, gets("hit"));
+    }
+
+    @Test
+    void update_shouldEvictTheCachedLr() {
+        lorryService.save(newLorry(910002L));
+        lorryService.findByLr(910002L);
+
+        LorryEntity changes = new LorryEntity();
+        changes.setLr(910002L);
+        changes.setConsignorName("Bob");
+        lorryService.update(changes);
+
+        assertFalse(entityManagerFactory.getCache().contains(LorryEntity.class, 910002L));
+        assertEquals("Bob", lorryService.findByLr(910002L).orElseThrow().getConsignorName());
+    }
+
+    @Test
+    void deleteByLr_shouldEvictTheCachedLr() {
+        lorryService.save(newLorry(910003L));
+        lorryService.findByLr(910003L);
+
+        lorryService.deleteByLr(910003L);
+
+        assertFalse(entityManagerFactory.getCache().contains(LorryEntity.class, 910003L));
+        assertTrue(lorryService.findByLr(910003L).isEmpty());
+    }
+
+    @Test
+    void listPagesAndExports_shouldNotFillTheCache() {
+        lorryService.save(newLorry(910004L));
+        lorryService.save(newLorry(910005L));
+        entityManagerFactory.getCache().evict(LorryEntity.class);
+
+        assertEquals(2, lorryService.findWithFilters(null, null, null, PageRequest.of(0, 10)).getNumberOfElements());
+        assertEquals(2, lorryService.findSliceWithFilters(null, null, null, PageRequest.of(0, 10)).getNumberOfElements());
+        List<Long> exported = new ArrayList<>();
+        lorryService.forEachWithFilters(null, null, null, entity -> exported.add(entity.getLr()));
+
+        assertEquals(List.of(910005L, 910004L), exported);
+        assertFalse(entityManagerFactory.getCache().contains(LorryEntity.class, 910004L));
+        assertFalse(entityManagerFactory.getCache().contains(LorryEntity.class, 910005L));
+    }
+
+    private double gets(String result) {
+        return meterRegistry.get("cache.gets")
+                .tags("cache", "lorry.entity", "result", result)
+                .functionCounter()
+                .count();
+    }
+
+    private static LorryEntity newLorry(Long lr) {
+        LorryEntity entity = new LorryEntity();
+        entity.setLr(lr);
+        entity.setLorryNumber("MH12AB1234");
+        entity.setDate(LocalDate.now());
+        entity.setFromLocation("Pune");
+        entity.setToLocation("Mumbai");
+        entity.setConsignorName("Alice");
+        entity.setWeight(BigDecimal.valueOf(1000));
+        return entity;
+    }
+}
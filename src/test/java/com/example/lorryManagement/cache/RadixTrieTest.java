@@ -0,0 +1,80 @@
+package com.example.lorryManagement.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class RadixTrieTest {
+
+    @Test
+    void top_shouldReturnMostFrequentKeysUnderPrefix() {
+        RadixTrie trie = new RadixTrie();
+        trie.add("MH12AB1234", "MH12AB1234", 3);
+        trie.add("MH12AB1", "MH12AB1", 7);
+        trie.add("MH14XY9", "MH14XY9", 5);
+        trie.add("GJ01AA1", "GJ01AA1", 50);
+
+        assertEquals(List.of("MH12AB1", "MH14XY9", "MH12AB1234"), values(trie.top("MH1", 10)));
+        assertEquals(List.of("MH12AB1", "MH12AB1234"), values(trie.top("MH12", 10)));
+        assertEquals(List.of("GJ01AA1", "MH12AB1"), values(trie.top("", 2)));
+        assertEquals(List.of(), values(trie.top("MH13", 10)));
+        assertEquals(4, trie.size());
+    }
+
+    @Test
+    void top_whenPrefixEndsInsideEdge_shouldMatch() {
+        RadixTrie trie = new RadixTrie();
+        trie.add("NAGPUR", "Nagpur", 1);
+        trie.add("NASHIK", "Nashik", 2);
+
+        assertEquals(List.of("Nagpur"), values(trie.top("NAG", 10)));
+        assertEquals(List.of("Nashik", "Nagpur"), values(trie.top("NA", 10)));
+    }
+
+    @Test
+    void top_whenCountsTie_shouldOrderAlphabetically() {
+        RadixTrie trie = new RadixTrie();
+        trie.add("PUNE", "PUNE", 2);
+        trie.add("PALI", "PALI", 2);
+        trie.add("PATNA", "PATNA", 2);
+
+        assertEquals(List.of("PALI", "PATNA", "PUNE"), values(trie.top("P", 10)));
+    }
+
+    @Test
+    void add_withNegativeDelta_shouldRemoveKeyAndKeepOthers() {
+        RadixTrie trie = new RadixTrie();
+        trie.add("PUNE", "PUNE", 1);
+        trie.add("PUNJAB", "PUNJAB", 4);
+        trie.add("PUN", "PUN", 2);
+
+        trie.add("PUNJAB", "PUNJAB", -4);
+        trie.add("PUN", "PUN", -1);
+
+        assertEquals(List.of("PUN", "PUNE"), values(trie.top("PU", 10)));
+        assertEquals(List.of(), values(trie.top("PUNJ", 10)));
+        assertEquals(2, trie.size());
+
+        trie.add("PUN", "PUN", -1);
+        trie.add("PUNE", "PUNE", -1);
+        trie.add("MISSING", "MISSING", -1);
+
+        assertEquals(List.of(), values(trie.top("", 10)));
+        assertEquals(0, trie.size());
+    }
+
+    @Test
+    void add_shouldKeepFirstDisplayValueForKey() {
+        RadixTrie trie = new RadixTrie();
+        trie.add("RAMESH TRADERS", "Ramesh Traders", 1);
+        trie.add("RAMESH TRADERS", "RAMESH TRADERS", 1);
+
+        assertEquals(List.of(new RadixTrie.Entry("Ramesh Traders", 2)), trie.top("RAM", 10));
+    }
+
+    private static List<String> values(List<RadixTrie.Entry> entries) {
+        return entries.stream().map(RadixTrie.Entry::value).toList();
+    }
+}
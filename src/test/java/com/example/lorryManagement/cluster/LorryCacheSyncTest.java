@@ -0,0 +1,159 @@
+package com.example.lorryManagement.cluster;
+
+import com.example.lorryManagement.dtos.LorryRequestDto;
+import com.example.lorryManagement.entity.LorryEntity;
+import com.example.lorryManagement.event.LorryChangedEvent;
+import com.example.lorryManagement.event.LorrySnapshot;
+import com.example.lorryManagement.service.LorryImportService;
+import com.example.lorryManagement.service.LorryService;
+import com.example.lorryManagement.support.PostgresIntegrationTest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+ * Two instances sharing one database, with the other instance played by the test:
+ * it writes with plain SQL and sends the notification its broadcaster would.
+ */
+public class LorryCacheSyncTest extends PostgresIntegrationTest {
+    @Autowired
+    private LorryService lorryService;
+
+    @Autowired
+    private LorryImportService importService;
+
+    @Autowired
+    private LorryChangeBroadcaster broadcaster;
+
+    @Autowired
+    private LorryChangeListener listener;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        await(listener::isConnected);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.execute("TRUNCATE lorry");
+        entityManagerFactory.getCache().evict(LorryEntity.class);
+    }
+
+    @Test
+    void anotherInstancesUpdate_shouldEvictTheCachedLr() throws Exception {
+        LorryEntity saved = lorryService.save(newLorry(920001L));
+        lorryService.findByLr(920001L);
+        assertTrue(entityManagerFactory.getCache().contains(LorryEntity.class, 920001L));
+
+        jdbcTemplate.update("UPDATE lorry SET consignor_name = 'Bob' WHERE lr = 920001");
+        LorrySnapshot before = LorrySnapshot.of(saved);
+        notifyAsOtherInstance(new LorryChangedEvent(before, before));
+
+        await(() -> !entityManagerFactory.getCache().contains(LorryEntity.class, 920001L));
+        assertEquals("Bob", lorryService.findByLr(920001L).orElseThrow().getConsignorName());
+    }
+
+    @Test
+    void save_shouldNotifyOtherInstancesOnCommit() throws Exception {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(true);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("LISTEN " + LorryChangeBroadcaster.CHANNEL);
+            }
+
+            lorryService.save(newLorry(920002L));
+
+            PGNotification[] notifications = connection.unwrap(PGConnection.class).getNotifications(5000);
+            assertNotNull(notifications);
+            assertEquals(1, notifications.length);
+            LorryChangeMessage message = objectMapper.readValue(notifications[0].getParameter(), LorryChangeMessage.class);
+            assertEquals(broadcaster.instanceId(), message.origin());
+            assertNull(message.before());
+            assertEquals(920002L, message.after().lr());
+        }
+    }
+
+    @Test
+    void createAll_shouldNotifyOtherInstancesOnceForTheBatch() throws Exception {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(true);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("LISTEN " + LorryChangeBroadcaster.CHANNEL);
+            }
+
+            importService.createAll(List.of(newItem(920003L), newItem(920004L), newItem(920005L)));
+
+            PGNotification[] notifications = connection.unwrap(PGConnection.class).getNotifications(5000);
+            assertNotNull(notifications);
+            assertEquals(1, notifications.length);
+            LorryChangeMessage message = objectMapper.readValue(notifications[0].getParameter(), LorryChangeMessage.class);
+            assertTrue(message.toEvent().isBulk());
+        }
+    }
+
+    private void notifyAsOtherInstance(LorryChangedEvent event) throws Exception {
+        String payload = objectMapper.writeValueAsString(LorryChangeMessage.of("other-instance", event));
+        jdbcTemplate.query("SELECT pg_notify(?, ?)", rs -> {
+        }, LorryChangeBroadcaster.CHANNEL, payload);
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not met within 10s");
+            Thread.sleep(50);
+        }
+    }
+
+    private static LorryEntity newLorry(Long lr) {
+        LorryEntity entity = new LorryEntity();
+        entity.setLr(lr);
+        entity.setLorryNumber("MH12AB1234");
+        entity.setDate(LocalDate.now());
+        entity.setFromLocation("Pune");
+        entity.setToLocation("Mumbai");
+        entity.setConsignorName("Alice");
+        entity.setWeight(BigDecimal.valueOf(1000));
+        return entity;
+    }
+
+    private static LorryRequestDto newItem(Long lr) {
+        LorryRequestDto dto = new LorryRequestDto();
+        dto.setLr(lr);
+        dto.setLorryNumber("MH12AB1234");
+        dto.setDate(LocalDate.now());
+        dto.setFromLocation("Pune");
+        dto.setToLocation("Mumbai");
+        dto.setConsignorName("Alice");
+        dto.setWeight(BigDecimal.valueOf(1000));
+        return dto;
+    }
+}
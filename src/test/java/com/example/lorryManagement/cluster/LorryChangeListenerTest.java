@@ -0,0 +1,82 @@
+package com.example.lorryManagement.cluster;
+
+import com.example.lorryManagement.cache.LocalLorryCache;
+import com.example.lorryManagement.event.LorryChangedEvent;
+import com.example.lorryManagement.event.LorrySnapshot;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class LorryChangeListenerTest {
+    @Mock
+    private DataSource dataSource;
+
+    @Mock
+    private LorryChangeBroadcaster broadcaster;
+
+    @Mock
+    private LocalLorryCache first;
+
+    @Mock
+    private LocalLorryCache second;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private SimpleMeterRegistry meterRegistry;
+    private LorryChangeListener listener;
+
+    @BeforeEach
+    void setUp() {
+        when(broadcaster.instanceId()).thenReturn("this-instance");
+        meterRegistry = new SimpleMeterRegistry();
+        listener = new LorryChangeListener(dataSource, objectMapper, broadcaster, List.of(first, second),
+                meterRegistry, Duration.ofSeconds(5), Duration.ofSeconds(5));
+    }
+
+    @Test
+    void handle_shouldApplyAnotherInstancesChangeToEveryCache() throws Exception {
+        LorryChangedEvent event = new LorryChangedEvent(snapshot("PUNE"), snapshot("NAGPUR"));
+
+        listener.handle(objectMapper.writeValueAsString(LorryChangeMessage.of("other-instance", event)));
+
+        verify(first).onLorryChanged(event);
+        verify(second).onLorryChanged(event);
+        assertEquals(1.0, meterRegistry.get("lorry.cache.sync.applied").counter().count());
+    }
+
+    @Test
+    void handle_shouldSkipThisInstancesOwnChanges() throws Exception {
+        LorryChangedEvent event = new LorryChangedEvent(null, snapshot("PUNE"));
+
+        listener.handle(objectMapper.writeValueAsString(LorryChangeMessage.of("this-instance", event)));
+
+        verifyNoInteractions(first, second);
+    }
+
+    @Test
+    void handle_whenPayloadIsUnreadable_shouldDropEveryCache() {
+        listener.handle("not json");
+
+        verify(first).invalidateAll();
+        verify(second).invalidateAll();
+        verify(first, never()).onLorryChanged(any());
+    }
+
+    private static LorrySnapshot snapshot(String fromLocation) {
+        return new LorrySnapshot(7L, "MH12AB1234", LocalDate.of(2024, 1, 15),
+                fromLocation, "MUMBAI", "ALICE", new BigDecimal("1000.00"), null);
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.lorryManagement.controller;
+
+import com.example.lorryManagement.dtos.DailyTotalDto;
+import com.example.lorryManagement.dtos.RouteTotalDto;
+import com.example.lorryManagement.service.LorryAnalyticsService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(LorryAnalyticsController.class)
+public class LorryAnalyticsControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private LorryAnalyticsService analyticsService;
+
+    @Test
+    void dailyTotals_shouldPassDateRangeThrough() throws Exception {
+        LocalDate from = LocalDate.of(2024, 1, 1);
+        LocalDate to = LocalDate.of(2024, 12, 31);
+        when(analyticsService.dailyTotals(from, to)).thenReturn(List.of(
+                new DailyTotalDto(LocalDate.of(2024, 1, 15), 2, BigDecimal.valueOf(2000), BigDecimal.valueOf(9000))
+        ));
+
+        mockMvc.perform(get("/api/lorry/analytics/daily").param("from", "2024-01-01").param("to", "2024-12-31"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].date").value("2024-01-15"))
+                .andExpect(jsonPath("$[0].trips").value(2))
+                .andExpect(jsonPath("$[0].totalFreight").value(9000));
+    }
+
+    @Test
+    void dailyTotals_whenFromAfterTo_shouldReturn400() throws Exception {
+        when(analyticsService.dailyTotals(any(), any()))
+                .thenThrow(new IllegalArgumentException("From date cannot be after To date"));
+
+        mockMvc.perform(get("/api/lorry/analytics/daily").param("from", "2024-02-01").param("to", "2024-01-01"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void routeTotals_shouldUseDefaultLimit() throws Exception {
+        when(analyticsService.routeTotals(isNull(), isNull(), eq(100))).thenReturn(List.of(
+                new RouteTotalDto("PUNE", "MUMBAI", 3, BigDecimal.valueOf(3000), BigDecimal.valueOf(15000))
+        ));
+
+        mockMvc.perform(get("/api/lorry/analytics/routes"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].fromLocation").value("PUNE"))
+                .andExpect(jsonPath("$[0].toLocation").value("MUMBAI"));
+    }
+
+    @Test
+    void consignorTotals_whenLimitTooLarge_shouldReturn400() throws Exception {
+        mockMvc.perform(get("/api/lorry/analytics/consignors").param("limit", "5000"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(analyticsService);
+    }
+}
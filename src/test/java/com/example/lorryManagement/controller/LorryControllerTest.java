@@ -1,24 +1,56 @@
 package com.example.lorryManagement.controller;
 
+import com.example.lorryManagement.cache.DistinctField;
+import com.example.lorryManagement.dtos.BatchItemResult;
+import com.example.lorryManagement.dtos.BatchResponseDto;
+import com.example.lorryManagement.dtos.ChangeFeedDto;
+import com.example.lorryManagement.dtos.ChangeToken;
+import com.example.lorryManagement.dtos.ImportReportDto;
+import com.example.lorryManagement.dtos.ImportRowError;
+import com.example.lorryManagement.dtos.LorryChangeDto;
+import com.example.lorryManagement.dtos.LorryCursor;
+import com.example.lorryManagement.dtos.LorryListItemDto;
 import com.example.lorryManagement.dtos.LorryRequestDto;
+import com.example.lorryManagement.dtos.VehicleSummaryDto;
+import com.example.lorryManagement.dtos.VehicleTripCursor;
 import com.example.lorryManagement.entity.LorryEntity;
+import com.example.lorryManagement.exception.ArchivedLrException;
+import com.example.lorryManagement.exception.ChangeTokenExpiredException;
+import com.example.lorryManagement.service.LorryChangeFeedService;
+import com.example.lorryManagement.service.LorryImportService;
 import com.example.lorryManagement.service.LorryService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
@@ -36,6 +68,12 @@ public class LorryControllerTest {
     @MockBean
     private LorryService lorryService;
 
+    @MockBean
+    private LorryImportService lorryImportService;
+
+    @MockBean
+    private LorryChangeFeedService changeFeedService;
+
     @Test
     void addLorry_whenValid_shouldReturn201AndBody() throws Exception {
         LorryRequestDto requestDto = new LorryRequestDto();
@@ -145,7 +183,7 @@ public class LorryControllerTest {
         updatedEntity.setToLocation("Pune");
         updatedEntity.setFromLocation("Nagpur");
 
-        when(lorryService.update(any(LorryEntity.class))).thenReturn(updatedEntity);
+        when(lorryService.update(any(LorryEntity.class), anyCollection())).thenReturn(updatedEntity);
 
         String jsonBody = objectMapper.writeValueAsString(requestDto);
 
@@ -157,7 +195,7 @@ public class LorryControllerTest {
                 .andExpect(jsonPath("$.lr").value(lr))
                 .andExpect(jsonPath("$.lorryNumber").value("MH12AB1234"));
 
-        verify(lorryService).update(any(LorryEntity.class));
+        verify(lorryService).update(any(LorryEntity.class), anyCollection());
     }
 
     @Test
@@ -173,7 +211,7 @@ public class LorryControllerTest {
         requestDto.setToLocation("Pune");
         requestDto.setFromLocation("Nagpur");
 
-        when(lorryService.update(any(LorryEntity.class)))
+        when(lorryService.update(any(LorryEntity.class), anyCollection()))
                 .thenThrow(new NoSuchElementException("LR not found: " + lr));
 
         String jsonBody = objectMapper.writeValueAsString(requestDto);
@@ -185,7 +223,148 @@ public class LorryControllerTest {
                 )
                 .andExpect(status().isNotFound());
 
-        verify(lorryService).update(any(LorryEntity.class));
+        verify(lorryService).update(any(LorryEntity.class), anyCollection());
+    }
+
+    @Test
+    void getLorry_shouldExposeVersionAsETag() throws Exception {
+        LorryEntity entity = new LorryEntity();
+        entity.setLr(1111L);
+        entity.setVersion(3L);
+
+        when(lorryService.findByLr(1111L)).thenReturn(Optional.of(entity));
+
+        mockMvc.perform(get("/api/lorry/{lr}", 1111L))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"3\""))
+                .andExpect(jsonPath("$.version").value(3));
+    }
+
+    @Test
+    void getLorry_whenArchived_shouldOmitTheETag() throws Exception {
+        // archive reads carry no version: the LR is read-only
+        LorryEntity entity = new LorryEntity();
+        entity.setLr(1111L);
+
+        when(lorryService.findByLr(1111L)).thenReturn(Optional.of(entity));
+
+        mockMvc.perform(get("/api/lorry/{lr}", 1111L))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("ETag"));
+    }
+
+    @Test
+    void getLorry_whenIfNoneMatchCurrent_shouldReturn304() throws Exception {
+        LorryEntity entity = new LorryEntity();
+        entity.setLr(1111L);
+        entity.setVersion(3L);
+
+        when(lorryService.findByLr(1111L)).thenReturn(Optional.of(entity));
+
+        mockMvc.perform(get("/api/lorry/{lr}", 1111L).header("If-None-Match", "\"3\""))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void updateLorry_whenIfMatchGiven_shouldPassExpectedVersion() throws Exception {
+        LorryEntity updated = new LorryEntity();
+        updated.setLr(1111L);
+        updated.setVersion(4L);
+
+        when(lorryService.update(any(LorryEntity.class), anyCollection())).thenReturn(updated);
+
+        mockMvc.perform(
+                        put("/api/lorry/{lr}", 1111L)
+                                .header("If-Match", "\"3\"")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(validRequest(1111L)))
+                )
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"4\""));
+
+        verify(lorryService).update(any(LorryEntity.class), eq(List.of(3L)));
+    }
+
+    @Test
+    void updateLorry_whenIfMatchListsSeveralTags_shouldAcceptAnyOfOurs() throws Exception {
+        LorryEntity updated = new LorryEntity();
+        updated.setLr(1111L);
+        updated.setVersion(5L);
+
+        when(lorryService.update(any(LorryEntity.class), anyCollection())).thenReturn(updated);
+
+        mockMvc.perform(
+                        put("/api/lorry/{lr}", 1111L)
+                                .header("If-Match", "\"xyzzy\", \"3\",W/\"9\" , \"4\"")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(validRequest(1111L)))
+                )
+                .andExpect(status().isOk());
+
+        verify(lorryService).update(any(LorryEntity.class), eq(List.of(3L, 4L)));
+    }
+
+    @Test
+    void updateLorry_whenIfMatchIsStar_shouldUpdateWhileTheLrExists() throws Exception {
+        LorryEntity updated = new LorryEntity();
+        updated.setLr(1111L);
+
+        when(lorryService.update(any(LorryEntity.class), anyCollection())).thenReturn(updated);
+
+        mockMvc.perform(
+                        put("/api/lorry/{lr}", 1111L)
+                                .header("If-Match", "*")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(validRequest(1111L)))
+                )
+                .andExpect(status().isOk());
+
+        verify(lorryService).update(any(LorryEntity.class), eq(List.<Long>of()));
+    }
+
+    @Test
+    void updateLorry_whenVersionStale_shouldReturn412() throws Exception {
+        when(lorryService.update(any(LorryEntity.class), anyCollection()))
+                .thenThrow(new OptimisticLockingFailureException("LR 1111 was modified since version 3"));
+
+        mockMvc.perform(
+                        put("/api/lorry/{lr}", 1111L)
+                                .header("If-Match", "\"3\"")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(validRequest(1111L)))
+                )
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.status").value(412));
+    }
+
+    @Test
+    void updateLorry_whenIfMatchNotOurs_shouldReturn412WithoutUpdating() throws Exception {
+        mockMvc.perform(
+                        put("/api/lorry/{lr}", 1111L)
+                                .header("If-Match", "\"abc\"")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(validRequest(1111L)))
+                )
+                .andExpect(status().isPreconditionFailed());
+
+        verify(lorryService, never()).update(any(LorryEntity.class), anyCollection());
+    }
+
+    @Test
+    void updateLorry_withoutIfMatch_shouldUpdateUnconditionally() throws Exception {
+        LorryEntity updated = new LorryEntity();
+        updated.setLr(1111L);
+
+        when(lorryService.update(any(LorryEntity.class), anyCollection())).thenReturn(updated);
+
+        mockMvc.perform(
+                        put("/api/lorry/{lr}", 1111L)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(validRequest(1111L)))
+                )
+                .andExpect(status().isOk());
+
+        verify(lorryService).update(any(LorryEntity.class), eq(List.<Long>of()));
     }
 
     @Test
@@ -210,7 +389,7 @@ public class LorryControllerTest {
                 )
                 .andExpect(status().isBadRequest());
 
-        verify(lorryService, never()).update(any(LorryEntity.class));
+        verify(lorryService, never()).update(any(LorryEntity.class), anyCollection());
     }
 
 
@@ -241,4 +420,561 @@ public class LorryControllerTest {
         verify(lorryService).deleteByLr(lr);
     }
 
+    @Test
+    void deleteLorry_whenLrArchived_shouldReturn409() throws Exception {
+        doThrow(new ArchivedLrException(1111L)).when(lorryService).deleteByLr(1111L);
+
+        mockMvc.perform(delete("/api/lorry/{lr}", 1111L))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message").value("LR 1111 is archived and can no longer be changed"));
+    }
+
+    @Test
+    void getLorriesByCursor_whenFirstPage_shouldReturnNextCursorWithFilters() throws Exception {
+        LorryEntity first = new LorryEntity();
+        first.setLr(2222L);
+        LorryEntity second = new LorryEntity();
+        second.setLr(1111L);
+
+        when(lorryService.findWithFiltersAfter(eq("pune"), isNull(), isNull(), isNull(), eq(2)))
+                .thenReturn(new SliceImpl<>(List.of(first, second), PageRequest.of(0, 2), true));
+
+        String expectedCursor = new LorryCursor(1111L, "pune", null, null).encode();
+
+        mockMvc.perform(
+                get("/api/lorry")
+                        .param("cursor", "")
+                        .param("search", "pune")
+                        .param("size", "2")
+        )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].lr").value(2222))
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andExpect(jsonPath("$.nextCursor").value(expectedCursor));
+    }
+
+    @Test
+    void getLorriesByCursor_whenCursorGiven_shouldSeekFromCursorLr() throws Exception {
+        String cursor = new LorryCursor(1111L, "pune", LocalDate.of(2024, 1, 1), null).encode();
+
+        when(lorryService.findWithFiltersAfter("pune", LocalDate.of(2024, 1, 1), null, 1111L, 10))
+                .thenReturn(new SliceImpl<>(List.of(), PageRequest.of(0, 10), false));
+
+        mockMvc.perform(
+                get("/api/lorry").param("cursor", cursor)
+        )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hasNext").value(false))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+
+        verify(lorryService).findWithFiltersAfter("pune", LocalDate.of(2024, 1, 1), null, 1111L, 10);
+    }
+
+    @Test
+    void getVehicleTrips_whenFirstPage_shouldReturnSummaryAndNextCursor() throws Exception {
+        LorryListItemDto newest = new LorryListItemDto(
+                12L, "MH12AB1234", LocalDate.of(2024, 3, 2), "PUNE", "MUMBAI", "Rashmi", BigDecimal.TEN, null);
+        LorryListItemDto older = new LorryListItemDto(
+                11L, "MH12AB1234", LocalDate.of(2024, 3, 1), "MUMBAI", "PUNE", "Rashmi", BigDecimal.TEN, null);
+
+        when(lorryService.findVehicleTrips("MH12AB1234", null, null, 2))
+                .thenReturn(new SliceImpl<>(List.of(newest, older), PageRequest.of(0, 2), true));
+        when(lorryService.summarizeVehicle("MH12AB1234")).thenReturn(new VehicleSummaryDto(
+                5L, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 3, 2), BigDecimal.valueOf(50), null));
+
+        mockMvc.perform(
+                get("/api/lorry/vehicle/MH12AB1234/trips").param("size", "2")
+        )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].lr").value(12))
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andExpect(jsonPath("$.nextCursor").value(new VehicleTripCursor(LocalDate.of(2024, 3, 1), 11L).encode()))
+                .andExpect(jsonPath("$.summary.totalTrips").value(5))
+                .andExpect(jsonPath("$.summary.totalFreight").value(0));
+    }
+
+    @Test
+    void getVehicleTrips_whenCursorGiven_shouldSeekWithoutSummary() throws Exception {
+        String cursor = new VehicleTripCursor(LocalDate.of(2024, 3, 1), 11L).encode();
+
+        when(lorryService.findVehicleTrips("MH12AB1234", LocalDate.of(2024, 3, 1), 11L, 10))
+                .thenReturn(new SliceImpl<>(List.of(), PageRequest.of(0, 10), false));
+
+        mockMvc.perform(
+                get("/api/lorry/vehicle/MH12AB1234/trips").param("cursor", cursor)
+        )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.summary").doesNotExist())
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+
+        verify(lorryService, never()).summarizeVehicle(any());
+    }
+
+    @Test
+    void getVehicleTrips_whenCursorMalformed_shouldReturn400() throws Exception {
+        mockMvc.perform(
+                get("/api/lorry/vehicle/MH12AB1234/trips").param("cursor", "not-a-cursor")
+        )
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getLorriesByCursor_whenCursorMalformed_shouldReturn400() throws Exception {
+        mockMvc.perform(
+                get("/api/lorry").param("cursor", "not-a-cursor")
+        )
+                .andExpect(status().isBadRequest());
+
+        verify(lorryService, never()).findWithFiltersAfter(any(), any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void getAllLorries_whenTotalNone_shouldReturnSliceWithoutCount() throws Exception {
+        LorryEntity entity = new LorryEntity();
+        entity.setLr(1111L);
+
+        when(lorryService.findSliceWithFilters(isNull(), isNull(), isNull(), any()))
+                .thenReturn(new SliceImpl<>(List.of(entity), PageRequest.of(0, 10), true));
+
+        mockMvc.perform(
+                get("/api/lorry").param("total", "none")
+        )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].lr").value(1111))
+                .andExpect(jsonPath("$.page").value(0))
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andExpect(jsonPath("$.totalElements").doesNotExist());
+
+        verify(lorryService, never()).findWithFilters(any(), any(), any(), any());
+        verify(lorryService, never()).estimateCount(any(), any(), any());
+    }
+
+    @Test
+    void getAllLorries_whenTotalEstimate_shouldReturnEstimatedTotal() throws Exception {
+        when(lorryService.findSliceWithFilters(eq("pune"), isNull(), isNull(), any()))
+                .thenReturn(new SliceImpl<>(List.of(), PageRequest.of(0, 10), false));
+        when(lorryService.estimateCount("pune", null, null)).thenReturn(420L);
+
+        mockMvc.perform(
+                get("/api/lorry").param("search", "pune").param("total", "estimate")
+        )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(420))
+                .andExpect(jsonPath("$.totalEstimated").value(true));
+    }
+
+    @Test
+    void getAllLorries_whenTotalUnknown_shouldReturn400() throws Exception {
+        mockMvc.perform(
+                get("/api/lorry").param("total", "sometimes")
+        )
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getAllLorries_whenViewList_shouldReturnProjectedPage() throws Exception {
+        LorryListItemDto item = new LorryListItemDto(
+                1111L, "MH12AB1234", LocalDate.of(2024, 1, 15), "PUNE", "MUMBAI", "Rashmi", BigDecimal.TEN, null);
+
+        when(lorryService.findListItemsWithFilters(isNull(), isNull(), isNull(), any()))
+                .thenReturn(new PageImpl<>(List.of(item), PageRequest.of(0, 10), 1));
+
+        mockMvc.perform(
+                get("/api/lorry").param("view", "list")
+        )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].lr").value(1111))
+                .andExpect(jsonPath("$.content[0].toLocation").value("MUMBAI"))
+                .andExpect(jsonPath("$.content[0].description").doesNotExist())
+                .andExpect(jsonPath("$.totalElements").value(1));
+
+        verify(lorryService, never()).findWithFilters(any(), any(), any(), any());
+    }
+
+    @Test
+    void getAllLorries_whenViewListWithoutTotal_shouldReturnProjectedSlice() throws Exception {
+        when(lorryService.findListItemSliceWithFilters(isNull(), isNull(), isNull(), any()))
+                .thenReturn(new SliceImpl<>(List.of(), PageRequest.of(0, 10), false));
+
+        mockMvc.perform(
+                get("/api/lorry").param("view", "list").param("total", "none")
+        )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hasNext").value(false));
+
+        verify(lorryService, never()).findSliceWithFilters(any(), any(), any(), any());
+    }
+
+    @Test
+    void getAllLorries_whenFieldsGiven_shouldSelectOnlyThoseFields() throws Exception {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("lr", 1111L);
+        row.put("date", LocalDate.of(2024, 1, 15));
+        row.put("freight", BigDecimal.TEN);
+
+        when(lorryService.findFieldsWithFilters(isNull(), isNull(), isNull(), any(), eq(List.of("lr", "date", "freight"))))
+                .thenReturn(new PageImpl<>(List.of(row), PageRequest.of(0, 10), 1));
+
+        mockMvc.perform(
+                get("/api/lorry").param("fields", "lr, date,freight,lr")
+        )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].lr").value(1111))
+                .andExpect(jsonPath("$.content[0].date").value("2024-01-15"))
+                .andExpect(jsonPath("$.content[0].consignorName").doesNotExist())
+                .andExpect(jsonPath("$.totalElements").value(1));
+
+        verify(lorryService, never()).findWithFilters(any(), any(), any(), any());
+    }
+
+    @Test
+    void getAllLorries_whenFieldUnknown_shouldReturn400() throws Exception {
+        mockMvc.perform(
+                get("/api/lorry").param("fields", "lr,searchText")
+        )
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getAllLorries_whenFieldsWithViewList_shouldReturn400() throws Exception {
+        mockMvc.perform(
+                get("/api/lorry").param("fields", "lr").param("view", "list")
+        )
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getLorry_whenFieldsGiven_shouldKeepETagButOmitUnrequestedVersion() throws Exception {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("lr", 1111L);
+        row.put("freight", BigDecimal.TEN);
+        row.put("version", 3L);
+
+        when(lorryService.findFieldsByLr(1111L, List.of("lr", "freight", "version"))).thenReturn(Optional.of(row));
+
+        mockMvc.perform(get("/api/lorry/1111").param("fields", "lr,freight"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"3\""))
+                .andExpect(jsonPath("$.freight").value(10))
+                .andExpect(jsonPath("$.version").doesNotExist());
+
+        verify(lorryService, never()).findByLr(any());
+    }
+
+    @Test
+    void getLorry_whenFieldsGivenAndLrNotFound_shouldReturn404() throws Exception {
+        when(lorryService.findFieldsByLr(eq(1111L), any())).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/lorry/1111").param("fields", "lr"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void getAllLorries_whenViewUnknown_shouldReturn400() throws Exception {
+        mockMvc.perform(
+                get("/api/lorry").param("view", "compact")
+        )
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void suggest_shouldReturnTopValuesForField() throws Exception {
+        when(lorryService.suggest(DistinctField.LORRY_NUMBER, "MH12", 5))
+                .thenReturn(List.of("MH12AB1234", "MH12CD1"));
+
+        mockMvc.perform(
+                get("/api/lorry/suggest/{field}", "lorry-numbers")
+                        .param("prefix", "MH12")
+                        .param("limit", "5")
+        )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0]").value("MH12AB1234"))
+                .andExpect(jsonPath("$[1]").value("MH12CD1"));
+    }
+
+    @Test
+    void suggest_whenFieldUnknown_shouldReturn400() throws Exception {
+        mockMvc.perform(
+                get("/api/lorry/suggest/{field}", "weights").param("prefix", "1")
+        )
+                .andExpect(status().isBadRequest());
+
+        verify(lorryService, never()).suggest(any(), any(), anyInt());
+    }
+
+    @Test
+    void export_shouldStreamRowsAsCsv() throws Exception {
+        LorryEntity first = new LorryEntity();
+        first.setLr(2222L);
+        first.setLorryNumber("MH12AB1234");
+        LorryEntity second = new LorryEntity();
+        second.setLr(1111L);
+        second.setLorryNumber("MH12CD1");
+
+        doAnswer(invocation -> {
+            Consumer<LorryEntity> action = invocation.getArgument(3);
+            action.accept(first);
+            action.accept(second);
+            return null;
+        }).when(lorryService).forEachWithFilters(eq("pune"), isNull(), isNull(), any());
+
+        MvcResult result = mockMvc.perform(
+                get("/api/lorry/export").param("search", "pune").param("format", "csv")
+        )
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "text/csv"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"lorries.csv\""))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\r\n");
+        assertEquals(3, lines.length);
+        assertTrue(lines[1].startsWith("2222,MH12AB1234,"));
+        assertTrue(lines[2].startsWith("1111,MH12CD1,"));
+    }
+
+    @Test
+    void export_whenFormatUnknown_shouldReturn400() throws Exception {
+        mockMvc.perform(get("/api/lorry/export").param("format", "xlsx"))
+                .andExpect(status().isBadRequest());
+
+        verify(lorryService, never()).forEachWithFilters(any(), any(), any(), any());
+    }
+
+    @Test
+    void export_whenFromAfterTo_shouldReturn400BeforeStreaming() throws Exception {
+        mockMvc.perform(get("/api/lorry/export").param("from", "2024-02-01").param("to", "2024-01-01"))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("From date cannot be after To date"));
+
+        verify(lorryService, never()).forEachWithFilters(any(), any(), any(), any());
+    }
+
+    @Test
+    void importCsv_whenCsvBody_shouldReturnReport() throws Exception {
+        ImportReportDto report = new ImportReportDto();
+        report.setTotalRows(2);
+        report.setImported(1);
+        report.setFailed(1);
+        report.getErrors().add(new ImportRowError(3, 1002L, "lr", "LR 1002 already exists"));
+
+        when(lorryImportService.importCsv(any())).thenReturn(report);
+
+        mockMvc.perform(
+                        post("/api/lorry/import")
+                                .contentType("text/csv")
+                                .content("lr,lorryNumber\n1001,MH12AB1234\n1002,MH12AB1234\n")
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.errors[0].row").value(3))
+                .andExpect(jsonPath("$.errors[0].message").value("LR 1002 already exists"));
+    }
+
+    @Test
+    void importCsv_whenMultipartUpload_shouldReadFilePart() throws Exception {
+        when(lorryImportService.importCsv(any())).thenReturn(new ImportReportDto());
+
+        mockMvc.perform(
+                        multipart("/api/lorry/import")
+                                .file(new MockMultipartFile("file", "lorries.csv", "text/csv", "lr\n".getBytes()))
+                )
+                .andExpect(status().isOk());
+
+        verify(lorryImportService).importCsv(any());
+    }
+
+    @Test
+    void createBatch_shouldReturnPerItemStatuses() throws Exception {
+        BatchResponseDto response = new BatchResponseDto();
+        response.setCreated(1);
+        response.getItems().add(new BatchItemResult(0, 1111L, BatchItemResult.Status.CREATED, List.of()));
+
+        when(lorryImportService.createAll(anyList())).thenReturn(response);
+
+        mockMvc.perform(
+                        post("/api/lorry/batch")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(List.of(validRequest(1111L))))
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.items[0].status").value("created"))
+                .andExpect(jsonPath("$.items[0].errors").doesNotExist());
+    }
+
+    @Test
+    void getChanges_whenNoToken_shouldStartFromTheBeginning() throws Exception {
+        ChangeFeedDto feed = new ChangeFeedDto();
+        feed.setChanges(List.of(new LorryChangeDto(7L, true, null, null)));
+        feed.setNextToken(new ChangeToken(900, 0).encode());
+        when(changeFeedService.changesSince(null, 500)).thenReturn(feed);
+
+        mockMvc.perform(get("/api/lorry/changes"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changes[0].lr").value(7))
+                .andExpect(jsonPath("$.changes[0].deleted").value(true))
+                .andExpect(jsonPath("$.changes[0].lorry").doesNotExist())
+                .andExpect(jsonPath("$.hasMore").value(false));
+    }
+
+    @Test
+    void getChanges_whenTokenGiven_shouldResumeFromIt() throws Exception {
+        ChangeToken token = new ChangeToken(812, 44);
+        when(changeFeedService.changesSince(token, 100)).thenReturn(new ChangeFeedDto());
+
+        mockMvc.perform(get("/api/lorry/changes").param("since", token.encode()).param("limit", "100"))
+                .andExpect(status().isOk());
+
+        verify(changeFeedService).changesSince(token, 100);
+    }
+
+    @Test
+    void getChanges_whenTokenMalformed_shouldReturn400() throws Exception {
+        mockMvc.perform(get("/api/lorry/changes").param("since", "not-a-token"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getChanges_whenTokenExpired_shouldReturn410() throws Exception {
+        when(changeFeedService.changesSince(any(), anyInt()))
+                .thenThrow(new ChangeTokenExpiredException("resync"));
+
+        mockMvc.perform(get("/api/lorry/changes").param("since", new ChangeToken(1, 1).encode()))
+                .andExpect(status().isGone());
+    }
+
+    @Test
+    void createBatch_whenEmpty_shouldReturn400() throws Exception {
+        mockMvc.perform(
+                        post("/api/lorry/batch")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("[]")
+                )
+                .andExpect(status().isBadRequest());
+
+        verify(lorryImportService, never()).createAll(anyList());
+    }
+
+    @Test
+    void getLorriesByLr_shouldReturnFoundInOrderAndListMissing() throws Exception {
+        LorryEntity second = new LorryEntity();
+        second.setLr(102L);
+        LorryEntity first = new LorryEntity();
+        first.setLr(101L);
+
+        when(lorryService.findAllByLr(List.of(102L, 101L, 999L))).thenReturn(List.of(second, first));
+
+        mockMvc.perform(get("/api/lorry").param("lr", "102,101,999,101"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].lr").value(102))
+                .andExpect(jsonPath("$.content[1].lr").value(101))
+                .andExpect(jsonPath("$.notFound[0]").value(999))
+                .andExpect(jsonPath("$.notFound.length()").value(1));
+
+        verify(lorryService, never()).findWithFilters(any(), any(), any(), any());
+    }
+
+    @Test
+    void getLorriesByLr_whenCursorAlsoGiven_shouldReturn400() throws Exception {
+        mockMvc.perform(get("/api/lorry").param("lr", "101").param("cursor", ""))
+                .andExpect(status().isBadRequest());
+
+        verify(lorryService, never()).findAllByLr(anyList());
+        verify(lorryService, never()).findSliceWithFilters(any(), any(), any(), any());
+    }
+
+    @Test
+    void getLorriesByLr_whenTooMany_shouldReturn400() throws Exception {
+        String lrs = LongStream.rangeClosed(1, 201)
+                .mapToObj(String::valueOf)
+                .collect(Collectors.joining(","));
+
+        mockMvc.perform(get("/api/lorry").param("lr", lrs))
+                .andExpect(status().isBadRequest());
+
+        verify(lorryService, never()).findAllByLr(anyList());
+    }
+
+    @Test
+    void bulkUpdate_whenLrsGiven_shouldReturnAffectedCount() throws Exception {
+        when(lorryService.updateAll(eq(List.of(1L, 2L)), isNull(), isNull(), isNull(), any(LorryEntity.class)))
+                .thenReturn(2L);
+
+        mockMvc.perform(
+                        post("/api/lorry/bulk/update")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"lrs\":[1,2],\"date\":\"2024-02-01\"}")
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.affected").value(2));
+
+        verify(lorryService).updateAll(eq(List.of(1L, 2L)), isNull(), isNull(), isNull(),
+                argThat(changes -> LocalDate.of(2024, 2, 1).equals(changes.getDate()) && changes.getLr() == null));
+    }
+
+    @Test
+    void bulkUpdate_whenNoFieldsToSet_shouldReturn400() throws Exception {
+        mockMvc.perform(
+                        post("/api/lorry/bulk/update")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"lrs\":[1,2]}")
+                )
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(lorryService);
+    }
+
+    @Test
+    void bulkDelete_whenBothLrsAndFiltersGiven_shouldReturn400() throws Exception {
+        mockMvc.perform(
+                        post("/api/lorry/bulk/delete")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"lrs\":[1],\"search\":\"pune\"}")
+                )
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(lorryService);
+    }
+
+    @Test
+    void bulkDelete_whenNoSelection_shouldReturn400() throws Exception {
+        mockMvc.perform(
+                        post("/api/lorry/bulk/delete")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{}")
+                )
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(lorryService);
+    }
+
+    @Test
+    void bulkDelete_whenFiltersGiven_shouldReturnAffectedCount() throws Exception {
+        when(lorryService.deleteAll(isNull(), eq("test"), isNull(), isNull())).thenReturn(7L);
+
+        mockMvc.perform(
+                        post("/api/lorry/bulk/delete")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"search\":\"test\"}")
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.affected").value(7));
+    }
+
+    private static LorryRequestDto validRequest(Long lr) {
+        LorryRequestDto requestDto = new LorryRequestDto();
+        requestDto.setLr(lr);
+        requestDto.setLorryNumber("MH12AB1234");
+        requestDto.setDate(LocalDate.now());
+        requestDto.setWeight(BigDecimal.valueOf(100));
+        requestDto.setConsignorName("Rashmi");
+        requestDto.setToLocation("Pune");
+        requestDto.setFromLocation("Nagpur");
+        return requestDto;
+    }
 }
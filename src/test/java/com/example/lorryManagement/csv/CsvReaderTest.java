@@ -0,0 +1,50 @@
+package com.example.lorryManagement.csv;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CsvReaderTest {
+
+    @Test
+    void next_shouldSplitRecordsAndUnquoteFields() throws IOException {
+        CsvReader reader = new CsvReader(new StringReader(
+                "\uFEFFa,b,c\r\n1,\"x, y\",\"say \"\"hi\"\"\"\n2,\"multi\nline\",\n"));
+
+        assertEquals(List.of("a", "b", "c"), reader.next());
+        assertEquals(List.of("1", "x, y", "say \"hi\""), reader.next());
+        assertEquals(2, reader.recordNumber());
+        assertEquals(List.of("2", "multi\nline", ""), reader.next());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void next_shouldSkipBlankLinesAndReadLastRecordWithoutNewline() throws IOException {
+        CsvReader reader = new CsvReader(new StringReader("a\n\n\nb"));
+
+        assertEquals(List.of("a"), reader.next());
+        assertEquals(List.of("b"), reader.next());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void next_whenQuoteNeverClosed_shouldThrow() {
+        CsvReader reader = new CsvReader(new StringReader("\"open,1\n"));
+
+        MalformedCsvException e = assertThrows(MalformedCsvException.class, reader::next);
+        assertEquals(1, e.recordNumber());
+    }
+
+    @Test
+    void field_shouldRoundTripThroughReader() throws IOException {
+        String value = "12\" pipes, \"fragile\"\r\nhandle with care";
+
+        CsvReader reader = new CsvReader(new StringReader(Csv.field(value) + "," + Csv.field(null) + "\n"));
+
+        assertEquals(List.of(value, ""), reader.next());
+    }
+}
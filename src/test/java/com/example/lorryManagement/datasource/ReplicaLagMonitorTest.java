@@ -0,0 +1,58 @@
+package com.example.lorryManagement.datasource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class ReplicaLagMonitorTest {
+    private final JdbcTemplate replica = mock(JdbcTemplate.class);
+    private final ReplicaLagMonitor monitor =
+            new ReplicaLagMonitor(replica, Duration.ofSeconds(5), Duration.ofSeconds(2));
+
+    @Test
+    void beforeTheFirstSample_shouldKeepReadsOnThePrimary() {
+        assertFalse(monitor.hasReplayed(null));
+    }
+
+    @Test
+    void laggingReplica_shouldOnlyServeWritesItHasReplayed() {
+        when(replica.queryForObject(anyString(), eq(Long.class))).thenReturn(1_000L);
+
+        monitor.check();
+
+        assertTrue(monitor.hasReplayed(null));
+        assertTrue(monitor.hasReplayed(Instant.now().minusSeconds(10)));
+        assertFalse(monitor.hasReplayed(Instant.now()));
+    }
+
+    @Test
+    void replicaBeyondMaxLag_shouldNotBeUsed() {
+        when(replica.queryForObject(anyString(), eq(Long.class))).thenReturn(0L, 60_000L);
+
+        monitor.check();
+        assertTrue(monitor.hasReplayed(null));
+
+        monitor.check();
+        assertFalse(monitor.hasReplayed(null));
+    }
+
+    @Test
+    void unreachableReplica_shouldNotBeUsed() {
+        when(replica.queryForObject(anyString(), eq(Long.class)))
+                .thenReturn(0L)
+                .thenThrow(new DataAccessResourceFailureException("connection refused"));
+
+        monitor.check();
+        monitor.check();
+
+        assertFalse(monitor.hasReplayed(null));
+    }
+}
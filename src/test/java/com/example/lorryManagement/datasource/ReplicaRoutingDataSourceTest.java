@@ -0,0 +1,120 @@
+package com.example.lorryManagement.datasource;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class ReplicaRoutingDataSourceTest {
+    private final ReplicaLagMonitor lagMonitor = mock(ReplicaLagMonitor.class);
+    private final ReplicaRoutingDataSource routing =
+            new ReplicaRoutingDataSource(mock(DataSource.class), mock(DataSource.class), lagMonitor);
+
+    @BeforeEach
+    void setUp() {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.unbindResourceIfPossible(this);
+        TransactionSynchronizationManager.clear();
+        ReadYourWrites.end();
+    }
+
+    @Test
+    void readOnlyTransaction_shouldUseTheReplicaWhileItKeepsUp() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        when(lagMonitor.hasReplayed(null)).thenReturn(true);
+
+        assertEquals(ReplicaRoutingDataSource.Target.REPLICA, routing.determineCurrentLookupKey());
+    }
+
+    @Test
+    void readOnlyTransaction_whenReplicaLags_shouldUseThePrimary() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        when(lagMonitor.hasReplayed(null)).thenReturn(false);
+
+        assertEquals(ReplicaRoutingDataSource.Target.PRIMARY, routing.determineCurrentLookupKey());
+    }
+
+    @Test
+    void noTransaction_shouldUseThePrimary() {
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+
+        assertEquals(ReplicaRoutingDataSource.Target.PRIMARY, routing.determineCurrentLookupKey());
+        verifyNoInteractions(lagMonitor);
+    }
+
+    @Test
+    void write_shouldPinTheRestOfTheRequestToThePrimary() {
+        List<Instant> commits = new ArrayList<>();
+        ReadYourWrites.begin(null, commits::add);
+
+        assertEquals(ReplicaRoutingDataSource.Target.PRIMARY, routing.determineCurrentLookupKey());
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertEquals(1, commits.size());
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        lenient().when(lagMonitor.hasReplayed(any())).thenReturn(true);
+        assertEquals(ReplicaRoutingDataSource.Target.PRIMARY, routing.determineCurrentLookupKey());
+    }
+
+    @Test
+    void earlierWrite_shouldWaitForTheReplicaToReplayIt() {
+        Instant lastWrite = Instant.now();
+        ReadYourWrites.begin(lastWrite, at -> { });
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        when(lagMonitor.hasReplayed(lastWrite)).thenReturn(false);
+
+        assertEquals(ReplicaRoutingDataSource.Target.PRIMARY, routing.determineCurrentLookupKey());
+    }
+
+    @Test
+    void replicaRead_shouldNotFillTheEntityCache() {
+        Session session = boundSession();
+        when(session.getCacheMode()).thenReturn(CacheMode.NORMAL);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        when(lagMonitor.hasReplayed(null)).thenReturn(true);
+
+        assertEquals(ReplicaRoutingDataSource.Target.REPLICA, routing.determineCurrentLookupKey());
+        verify(session).setCacheMode(CacheMode.GET);
+
+        when(session.isOpen()).thenReturn(true);
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        verify(session).setCacheMode(CacheMode.NORMAL);
+    }
+
+    @Test
+    void primaryRead_shouldKeepFillingTheEntityCache() {
+        Session session = boundSession();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        when(lagMonitor.hasReplayed(null)).thenReturn(false);
+
+        assertEquals(ReplicaRoutingDataSource.Target.PRIMARY, routing.determineCurrentLookupKey());
+        verify(session, never()).setCacheMode(any());
+    }
+
+    private Session boundSession() {
+        Session session = mock(Session.class);
+        EntityManager entityManager = mock(EntityManager.class);
+        when(entityManager.unwrap(Session.class)).thenReturn(session);
+        TransactionSynchronizationManager.bindResource(this, new EntityManagerHolder(entityManager));
+        return session;
+    }
+}
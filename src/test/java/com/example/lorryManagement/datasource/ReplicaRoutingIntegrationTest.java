@@ -0,0 +1,125 @@
+package com.example.lorryManagement.datasource;
+
+import com.example.lorryManagement.cache.DistinctValuesCache;
+import com.example.lorryManagement.entity.LorryEntity;
+import com.example.lorryManagement.service.LorryService;
+import com.example.lorryManagement.support.LorryTestData;
+import com.example.lorryManagement.support.PostgresIntegrationTest;
+import jakarta.persistence.EntityManagerFactory;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+ * A second, unreplicated PostgreSQL stands in for the replica: an LR that only
+ * exists there shows which database a read was routed to.
+ */
+public class ReplicaRoutingIntegrationTest extends PostgresIntegrationTest {
+    private static final PostgreSQLContainer<?> REPLICA = new PostgreSQLContainer<>("postgres:16");
+
+    @DynamicPropertySource
+    static void replicaProperties(DynamicPropertyRegistry registry) {
+        REPLICA.start();
+        Flyway.configure()
+                .dataSource(REPLICA.getJdbcUrl(), REPLICA.getUsername(), REPLICA.getPassword())
+                .load()
+                .migrate();
+        registry.add("lorry.datasource.replica.url", REPLICA::getJdbcUrl);
+        registry.add("lorry.datasource.replica.username", REPLICA::getUsername);
+        registry.add("lorry.datasource.replica.password", REPLICA::getPassword);
+    }
+
+    @Autowired
+    private LorryService lorryService;
+
+    @Autowired
+    private ReplicaLagMonitor lagMonitor;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private DistinctValuesCache distinctValuesCache;
+
+    private final JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(
+            REPLICA.getJdbcUrl(), REPLICA.getUsername(), REPLICA.getPassword()));
+
+    @BeforeEach
+    void setUp() {
+        lagMonitor.check();
+        LorryTestData.insertRange(replica, 1, 1);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        ReadYourWrites.end();
+        LorryTestData.deleteAll(replica);
+        LorryTestData.deleteAll(jdbcTemplate);
+    }
+
+    @Test
+    void readOnlyMethods_shouldReadFromTheReplica() {
+        assertTrue(lorryService.findByLr(1L).isPresent());
+        assertEquals(1, lorryService.findWithFilters(null, null, null, Pageable.ofSize(5))
+                .getTotalElements());
+    }
+
+    @Test
+    void replicaRead_shouldNotFillTheEntityCache() {
+        entityManagerFactory.getCache().evictAll();
+
+        assertTrue(lorryService.findByLr(1L).isPresent());
+        assertFalse(entityManagerFactory.getCache().contains(LorryEntity.class, 1L));
+    }
+
+    @Test
+    void distinctValues_shouldLoadFromThePrimary() {
+        distinctValuesCache.invalidateAll();
+
+        assertTrue(lorryService.getDistinctLorryNumbers().isEmpty());
+    }
+
+    @Test
+    void writes_shouldGoToThePrimary() {
+        lorryService.save(lorry(2L));
+
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT count(*) FROM lorry WHERE lr = 2", Integer.class));
+        assertEquals(0, replica.queryForObject("SELECT count(*) FROM lorry WHERE lr = 2", Integer.class));
+    }
+
+    @Test
+    void readAfterWriteInTheSameRequest_shouldReadFromThePrimary() {
+        ReadYourWrites.begin(null, at -> { });
+
+        lorryService.save(lorry(2L));
+
+        assertTrue(lorryService.findByLr(2L).isPresent());
+        assertTrue(lorryService.findByLr(1L).isEmpty());
+    }
+
+    private static LorryEntity lorry(Long lr) {
+        LorryEntity entity = new LorryEntity();
+        entity.setLr(lr);
+        entity.setLorryNumber("MH12AB1234");
+        entity.setDate(LocalDate.now());
+        entity.setConsignorName("ACME");
+        entity.setWeight(BigDecimal.TEN);
+        return entity;
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.lorryManagement.export;
+
+import com.example.lorryManagement.dtos.LorryResponseDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LorryExportWriterTest {
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @Test
+    void csv_shouldWriteHeaderAndQuoteSpecialCharacters() throws IOException {
+        LorryResponseDto row = new LorryResponseDto();
+        row.setLr(1111L);
+        row.setLorryNumber("MH12AB1234");
+        row.setDate(LocalDate.of(2024, 1, 15));
+        row.setConsignorName("Patil, Sons");
+        row.setDescription("12\" pipes\nfragile");
+        row.setWeight(new BigDecimal("1000.50"));
+
+        String csv = export(ExportFormat.CSV, row);
+
+        String[] lines = csv.split("\r\n");
+        assertEquals("lr,lorryNumber,date,fromLocation,toLocation,consignorName,consignorAddress,description,weight,freight", lines[0]);
+        assertEquals("1111,MH12AB1234,2024-01-15,,,\"Patil, Sons\",,\"12\"\" pipes\nfragile\",1000.50,", lines[1]);
+    }
+
+    @Test
+    void csv_whenNoRows_shouldWriteHeaderOnly() throws IOException {
+        String csv = export(ExportFormat.CSV);
+
+        assertTrue(csv.startsWith("lr,lorryNumber,"));
+        assertEquals(1, csv.split("\r\n").length);
+    }
+
+    @Test
+    void ndjson_shouldWriteOneObjectPerLine() throws IOException {
+        LorryResponseDto first = new LorryResponseDto();
+        first.setLr(2L);
+        LorryResponseDto second = new LorryResponseDto();
+        second.setLr(1L);
+
+        String ndjson = export(ExportFormat.NDJSON, first, second);
+
+        String[] lines = ndjson.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(2L, objectMapper.readTree(lines[0]).get("lr").asLong());
+        assertEquals(1L, objectMapper.readTree(lines[1]).get("lr").asLong());
+    }
+
+    @Test
+    void fromParam_whenUnknown_shouldThrow() {
+        assertEquals(ExportFormat.NDJSON, ExportFormat.fromParam("NDJSON"));
+        assertThrows(IllegalArgumentException.class, () -> ExportFormat.fromParam("xlsx"));
+    }
+
+    private String export(ExportFormat format, LorryResponseDto... rows) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (LorryExportWriter writer = LorryExportWriter.open(format, out, objectMapper)) {
+            for (LorryResponseDto row : rows) {
+                writer.write(row);
+            }
+        }
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
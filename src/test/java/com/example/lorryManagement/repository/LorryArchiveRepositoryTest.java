@@ -0,0 +1,138 @@
+package com.example.lorryManagement.repository;
+
+import com.example.lorryManagement.dtos.LorryListItemDto;
+import com.example.lorryManagement.entity.LorryEntity;
+import com.example.lorryManagement.specification.LorrySpecification;
+import com.example.lorryManagement.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Transactional
+public class LorryArchiveRepositoryTest extends PostgresIntegrationTest {
+    private static final LocalDate OLD = LocalDate.of(2001, 3, 1);
+    private static final LocalDate CUTOFF = LocalDate.of(2010, 1, 1);
+
+    @Autowired
+    private LorryArchiveRepository archiveRepository;
+
+    @Autowired
+    private LorryRepository lorryRepository;
+
+    @Autowired
+    private LorryRollupRepository rollupRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("TRUNCATE lorry, lorry_archive, lorry_tombstone");
+        insert(1, OLD);
+        insert(2, OLD.plusDays(1));
+        insert(3, OLD.plusDays(2));
+        insert(4, LocalDate.now());
+    }
+
+    @Test
+    void moveBatch_shouldMoveTheOldestLrsFirst() {
+        assertEquals(2, archiveRepository.moveBatch(CUTOFF, 2));
+
+        assertEquals(List.of(1L, 2L), jdbcTemplate.queryForList("SELECT lr FROM lorry_archive ORDER BY lr", Long.class));
+        assertEquals(List.of(3L, 4L), jdbcTemplate.queryForList("SELECT lr FROM lorry ORDER BY lr", Long.class));
+
+        assertEquals(1, archiveRepository.moveBatch(CUTOFF, 2));
+        assertEquals(0, archiveRepository.moveBatch(CUTOFF, 2));
+        assertEquals(Optional.of(OLD.plusDays(2)), archiveRepository.findLatestDate());
+    }
+
+    @Test
+    void moveBatch_shouldNotLookLikeADeletion() {
+        archiveRepository.moveBatch(CUTOFF, 10);
+
+        // rollups keep archived totals, no tombstone reaches the change feed, and the LR stays taken
+        assertEquals(4, jdbcTemplate.queryForObject("SELECT sum(trips) FROM lorry_daily_totals", Integer.class));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM lorry_tombstone", Integer.class));
+        assertThrows(DataIntegrityViolationException.class, () -> insert(1, LocalDate.now()));
+    }
+
+    @Test
+    void rollupRebuildAfterArchiving_shouldKeepArchivedTotals() {
+        archiveRepository.moveBatch(CUTOFF, 10);
+
+        rollupRepository.rebuild();
+
+        assertEquals(4, jdbcTemplate.queryForObject("SELECT sum(trips) FROM lorry_daily_totals", Integer.class));
+        assertEquals(4, jdbcTemplate.queryForObject("SELECT sum(trips) FROM lorry_consignor_daily_totals", Integer.class));
+    }
+
+    @Test
+    void deleteAfterArchiving_shouldStillBeADeletion() {
+        archiveRepository.moveBatch(CUTOFF, 10);
+        jdbcTemplate.update("DELETE FROM lorry WHERE lr = 4");
+
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT count(*) FROM lorry_tombstone", Integer.class));
+    }
+
+    @Test
+    void findByLr_shouldReadTheArchive() {
+        archiveRepository.moveBatch(CUTOFF, 10);
+
+        LorryEntity archived = archiveRepository.findByLr(2L).orElseThrow();
+        assertEquals(OLD.plusDays(1), archived.getDate());
+        assertEquals("ACME", archived.getConsignorName());
+        assertNull(archived.getVersion());
+        assertTrue(archiveRepository.findByLr(4L).isEmpty());
+        assertTrue(archiveRepository.existsByLr(2L));
+        assertFalse(archiveRepository.existsByLr(4L));
+    }
+
+    @Test
+    void findAllByLr_shouldReadOnlyArchivedLrs() {
+        archiveRepository.moveBatch(CUTOFF, 10);
+
+        List<Long> found = archiveRepository.findAllByLr(List.of(1L, 2L, 4L, 99L)).stream()
+                .map(LorryEntity::getLr)
+                .sorted()
+                .toList();
+        assertEquals(List.of(1L, 2L), found);
+    }
+
+    @Test
+    void withArchive_shouldReadHotAndArchivedLrsTogether() {
+        archiveRepository.moveBatch(CUTOFF, 10);
+        PageRequest page = PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "lr"));
+
+        assertEquals(List.of(4L), lorryRepository.findAll(page).map(LorryEntity::getLr).getContent());
+        assertEquals(
+                List.of(4L, 3L, 2L, 1L),
+                lorryRepository.findAllWithArchive(LorrySpecification.hasDateBetween(OLD, null), page)
+                        .map(LorryEntity::getLr).getContent()
+        );
+        assertEquals(
+                List.of(2L),
+                lorryRepository.findListItemSliceWithArchive(
+                        LorrySpecification.hasSearch("2").and(LorrySpecification.hasDateBetween(OLD, CUTOFF)), page)
+                        .map(LorryListItemDto::lr).getContent()
+        );
+        assertEquals(3, lorryRepository.countWithArchive(LorrySpecification.hasDateBetween(null, CUTOFF)));
+    }
+
+    private void insert(long lr, LocalDate date) {
+        jdbcTemplate.update("""
+                INSERT INTO lorry (lr, lorry_number, date, consignor_name, weight, freight)
+                VALUES (?, 'MH12AB1234', ?, 'ACME', 100, 1000)
+                """, lr, date);
+    }
+}
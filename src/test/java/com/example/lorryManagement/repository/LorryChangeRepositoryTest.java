@@ -0,0 +1,80 @@
+package com.example.lorryManagement.repository;
+
+import com.example.lorryManagement.support.LorryTestData;
+import com.example.lorryManagement.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// not @Transactional: the feed only returns changes of finished transactions
+public class LorryChangeRepositoryTest extends PostgresIntegrationTest {
+    @Autowired
+    private LorryChangeRepository changeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        LorryTestData.deleteAll(jdbcTemplate);
+        jdbcTemplate.execute("TRUNCATE lorry_tombstone");
+    }
+
+    @Test
+    void findChangesAfter_shouldReturnUpsertsAndTombstonesInCommitSafeOrder() {
+        long start = changeRepository.findChangeHorizon();
+        LorryTestData.insertRange(jdbcTemplate, 1, 3);
+        jdbcTemplate.update("UPDATE lorry SET freight = 1 WHERE lr = 1");
+        jdbcTemplate.update("DELETE FROM lorry WHERE lr = 2");
+
+        List<LorryChange> changes = changeRepository.findChangesAfter(
+                start, 0, changeRepository.findChangeHorizon(), 10);
+
+        assertEquals(List.of(3L, 1L, 2L), changes.stream().map(LorryChange::lr).toList());
+        assertFalse(changes.get(1).deleted());
+        assertEquals(0, changes.get(1).lorry().getFreight().compareTo(BigDecimal.ONE));
+        assertTrue(changes.get(2).deleted());
+        assertNotNull(changes.get(2).changedAt());
+    }
+
+    @Test
+    void findChangesAfter_shouldResumeAfterTheLastDeliveredChange() {
+        long start = changeRepository.findChangeHorizon();
+        LorryTestData.insertRange(jdbcTemplate, 1, 3);
+        long horizon = changeRepository.findChangeHorizon();
+
+        List<LorryChange> first = changeRepository.findChangesAfter(start, 0, horizon, 2);
+        LorryChange last = first.get(1);
+        List<LorryChange> rest = changeRepository.findChangesAfter(last.changeXid(), last.changeSeq(), horizon, 2);
+
+        assertEquals(1, rest.size());
+        assertFalse(first.stream().map(LorryChange::lr).toList().contains(rest.get(0).lr()));
+    }
+
+    @Test
+    void reinsert_shouldRemoveTheTombstone() {
+        LorryTestData.insertRange(jdbcTemplate, 1, 1);
+        jdbcTemplate.update("DELETE FROM lorry WHERE lr = 1");
+        LorryTestData.insertRange(jdbcTemplate, 1, 1);
+
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM lorry_tombstone", Long.class));
+    }
+
+    @Test
+    void purgeTombstones_shouldAdvanceThePurgeHorizon() {
+        LorryTestData.insertRange(jdbcTemplate, 1, 1);
+        jdbcTemplate.update("DELETE FROM lorry WHERE lr = 1");
+        long tombstoneXid = Long.parseLong(jdbcTemplate.queryForObject(
+                "SELECT change_xid::text FROM lorry_tombstone WHERE lr = 1", String.class));
+
+        assertEquals(1, changeRepository.purgeTombstones(OffsetDateTime.now().plusMinutes(1)));
+        assertTrue(changeRepository.findPurgedXid() >= tombstoneXid);
+    }
+}
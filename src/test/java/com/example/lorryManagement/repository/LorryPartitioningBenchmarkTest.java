@@ -0,0 +1,94 @@
+package com.example.lorryManagement.repository;
+
+import com.example.lorryManagement.support.LorryTestData;
+import com.example.lorryManagement.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/*
+ * Partitioned lorry against lorry_flat, an unpartitioned copy with the V2 date index,
+ * on the month-sized date range queries reports and the list filters run.
+ */
+@Tag("benchmark")
+public class LorryPartitioningBenchmarkTest extends PostgresIntegrationTest {
+    private static final int SAMPLES = 200;
+    private static final int ROWS = 400_000;
+    // LorryTestData.insertRange dates LRs from 2020-01-01 over 1500 days
+    private static final LocalDate FIRST_MONTH = LocalDate.of(2020, 1, 1);
+    private static final LocalDate LAST_MONTH = LocalDate.of(2024, 2, 1);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS lorry_flat");
+        LorryTestData.deleteAll(jdbcTemplate);
+    }
+
+    @Test
+    void monthRange_partitionedVsFlat() {
+        LorryTestData.deleteAll(jdbcTemplate);
+        jdbcTemplate.queryForList("""
+                SELECT lorry_create_partition(month::date)
+                FROM generate_series(?::date, ?::date, INTERVAL '1 month') AS month
+                """, Boolean.class, FIRST_MONTH, LAST_MONTH);
+        LorryTestData.insertRange(jdbcTemplate, 1, ROWS);
+
+        jdbcTemplate.execute("CREATE TABLE lorry_flat AS SELECT * FROM lorry");
+        jdbcTemplate.execute("ALTER TABLE lorry_flat ADD PRIMARY KEY (lr)");
+        jdbcTemplate.execute("CREATE INDEX idx_lorry_flat_date ON lorry_flat (date)");
+        jdbcTemplate.execute("ANALYZE lorry_flat");
+
+        String query = "SELECT count(*), sum(freight) FROM %s WHERE date >= ? AND date < ?";
+        long partitionedP99 = rangeP99(query.formatted("lorry"));
+        long flatP99 = rangeP99(query.formatted("lorry_flat"));
+
+        System.out.printf("one-month range p99: partitioned = %.2f ms, flat = %.2f ms%n",
+                partitionedP99 / 1e6, flatP99 / 1e6);
+
+        List<String> plan = jdbcTemplate.queryForList(
+                "EXPLAIN " + query.formatted("lorry"), String.class,
+                LocalDate.of(2022, 3, 1), LocalDate.of(2022, 4, 1));
+        String text = String.join("\n", plan);
+        assertTrue(text.contains("lorry_p2022_03"), text);
+        assertFalse(text.contains("lorry_p2022_04"), text);
+        assertFalse(text.contains("lorry_default"), text);
+
+        // a pruned scan reads one month's heap; it should never be far behind the index on the flat table
+        assertTrue(partitionedP99 < flatP99 * 2 + 2_000_000,
+                "partitioned p99 " + partitionedP99 + "ns vs flat " + flatP99 + "ns");
+    }
+
+    private long rangeP99(String sql) {
+        Random random = new Random(42);
+
+        // warm up plans and caches
+        for (int i = 0; i < 20; i++) {
+            queryMonth(sql, random);
+        }
+
+        long[] samples = new long[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            queryMonth(sql, random);
+            samples[i] = System.nanoTime() - start;
+        }
+        return LorryTestData.percentile(samples, 99);
+    }
+
+    private void queryMonth(String sql, Random random) {
+        LocalDate month = FIRST_MONTH.plusMonths(random.nextInt(48));
+        jdbcTemplate.queryForList(sql, month, month.plusMonths(1));
+    }
+}
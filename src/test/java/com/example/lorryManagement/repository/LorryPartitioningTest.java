@@ -0,0 +1,112 @@
+package com.example.lorryManagement.repository;
+
+import com.example.lorryManagement.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// months far ahead of the partition job, so each test creates (and rolls back) its own partitions
+@Transactional
+public class LorryPartitioningTest extends PostgresIntegrationTest {
+    private static final LocalDate JANUARY = LocalDate.of(2031, 1, 10);
+    private static final LocalDate FEBRUARY = LocalDate.of(2031, 2, 10);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        createPartition(JANUARY);
+        createPartition(FEBRUARY);
+    }
+
+    @Test
+    void createPartition_shouldBeIdempotent() {
+        assertFalse(createPartition(JANUARY));
+        assertNotNull(jdbcTemplate.queryForObject("SELECT to_regclass('lorry_p2031_01')::text", String.class));
+    }
+
+    @Test
+    void insert_shouldRouteRowsToTheirMonth() {
+        insert(1, JANUARY);
+        insert(2, FEBRUARY);
+        insert(3, LocalDate.of(2040, 6, 1));
+
+        assertEquals("lorry_p2031_01", partitionOf(1));
+        assertEquals("lorry_p2031_02", partitionOf(2));
+        assertEquals("lorry_default", partitionOf(3));
+    }
+
+    @Test
+    void insert_shouldRejectAnLrTakenInAnotherMonth() {
+        insert(1, JANUARY);
+
+        assertThrows(DataIntegrityViolationException.class, () -> insert(1, FEBRUARY));
+    }
+
+    @Test
+    void update_shouldMoveTheRowAndKeepItsLrRegistered() {
+        insert(1, JANUARY);
+
+        jdbcTemplate.update("UPDATE lorry SET date = ? WHERE lr = 1", FEBRUARY);
+
+        assertEquals("lorry_p2031_02", partitionOf(1));
+        assertEquals(1, registered(1));
+
+        jdbcTemplate.update("DELETE FROM lorry WHERE lr = 1");
+        assertEquals(0, registered(1));
+    }
+
+    @Test
+    void update_shouldRejectRenumbering() {
+        insert(1, JANUARY);
+
+        assertThrows(DataAccessException.class, () -> jdbcTemplate.update("UPDATE lorry SET lr = 2 WHERE lr = 1"));
+    }
+
+    @Test
+    void dateFilter_shouldBePrunedToTheMonthsItCovers() {
+        insert(1, JANUARY);
+        insert(2, FEBRUARY);
+        jdbcTemplate.execute("ANALYZE lorry");
+
+        List<String> plan = jdbcTemplate.queryForList(
+                "EXPLAIN SELECT lr FROM lorry WHERE date >= ? AND date <= ?",
+                String.class,
+                LocalDate.of(2031, 1, 1), LocalDate.of(2031, 1, 31)
+        );
+        String text = String.join("\n", plan);
+
+        assertTrue(text.contains("lorry_p2031_01"), text);
+        assertFalse(text.contains("lorry_p2031_02"), text);
+        assertFalse(text.contains("lorry_default"), text);
+    }
+
+    private boolean createPartition(LocalDate month) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT lorry_create_partition(?)", Boolean.class, month));
+    }
+
+    private void insert(long lr, LocalDate date) {
+        jdbcTemplate.update("""
+                INSERT INTO lorry (lr, lorry_number, date, consignor_name, weight)
+                VALUES (?, 'MH12AB1234', ?, 'ACME', 100)
+                """, lr, date);
+    }
+
+    private String partitionOf(long lr) {
+        return jdbcTemplate.queryForObject("SELECT tableoid::regclass::text FROM lorry WHERE lr = ?", String.class, lr);
+    }
+
+    private int registered(long lr) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM lorry_lr WHERE lr = ?", Integer.class, lr);
+    }
+}
@@ -0,0 +1,344 @@
+package com.example.lorryManagement.repository;
+
+import com.example.lorryManagement.dtos.LorryListItemDto;
+import com.example.lorryManagement.dtos.VehicleSummaryDto;
+import com.example.lorryManagement.entity.LorryEntity;
+import com.example.lorryManagement.specification.LorrySpecification;
+import com.example.lorryManagement.support.LorryTestData;
+import com.example.lorryManagement.support.PostgresIntegrationTest;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Transactional
+public class LorryRepositoryCustomImplTest extends PostgresIntegrationTest {
+    @Autowired
+    private LorryRepository lorryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @BeforeEach
+    void setUp() {
+        LorryTestData.insertRange(jdbcTemplate, 1, 3);
+    }
+
+    @Test
+    void updateSuppliedFields_shouldChangeOnlyNonNullFields() {
+        LorryEntity patch = new LorryEntity();
+        patch.setLr(2L);
+        patch.setToLocation("MUMBAI");
+        patch.setFreight(BigDecimal.valueOf(5000));
+
+        LorryUpdate result = lorryRepository.updateSuppliedFields(patch).orElseThrow();
+
+        assertEquals("TOWN2", result.before().getToLocation());
+        assertEquals("MUMBAI", result.after().getToLocation());
+        assertEquals(0, BigDecimal.valueOf(5000).compareTo(result.after().getFreight()));
+        assertEquals(result.before().getLorryNumber(), result.after().getLorryNumber());
+        assertEquals(result.before().getWeight(), result.after().getWeight());
+        assertTrue(result.after().getSearchText().contains("mumbai"));
+
+        assertEquals("MUMBAI", jdbcTemplate.queryForObject(
+                "SELECT to_location FROM lorry WHERE lr = 2", String.class));
+        assertEquals("TOWN3", jdbcTemplate.queryForObject(
+                "SELECT to_location FROM lorry WHERE lr = 3", String.class));
+    }
+
+    @Test
+    void updateSuppliedFields_whenNothingSupplied_shouldReturnCurrentRow() {
+        LorryEntity patch = new LorryEntity();
+        patch.setLr(1L);
+
+        LorryUpdate result = lorryRepository.updateSuppliedFields(patch).orElseThrow();
+
+        assertEquals("CITY1", result.after().getFromLocation());
+        assertEquals(result.before().getFromLocation(), result.after().getFromLocation());
+    }
+
+    @Test
+    void updateSuppliedFields_whenLrUnknown_shouldReturnEmpty() {
+        LorryEntity patch = new LorryEntity();
+        patch.setLr(999L);
+        patch.setToLocation("MUMBAI");
+
+        Optional<LorryUpdate> result = lorryRepository.updateSuppliedFields(patch);
+
+        assertTrue(result.isEmpty());
+    }
+
+    @Test
+    void updateSuppliedFields_shouldIncrementVersion() {
+        LorryEntity patch = new LorryEntity();
+        patch.setLr(1L);
+        patch.setToLocation("MUMBAI");
+
+        LorryUpdate result = lorryRepository.updateSuppliedFields(patch).orElseThrow();
+
+        assertEquals(0L, result.before().getVersion());
+        assertEquals(1L, result.after().getVersion());
+    }
+
+    @Test
+    void updateSuppliedFields_whenExpectedVersionMatches_shouldApply() {
+        LorryEntity patch = new LorryEntity();
+        patch.setLr(1L);
+        patch.setToLocation("MUMBAI");
+        patch.setVersion(0L);
+
+        LorryUpdate result = lorryRepository.updateSuppliedFields(patch).orElseThrow();
+
+        assertEquals("MUMBAI", result.after().getToLocation());
+    }
+
+    @Test
+    void updateSuppliedFields_whenRowIsAtAnyExpectedVersion_shouldApply() {
+        jdbcTemplate.update("UPDATE lorry SET version = 5 WHERE lr = 1");
+
+        LorryEntity patch = new LorryEntity();
+        patch.setLr(1L);
+        patch.setToLocation("MUMBAI");
+
+        LorryUpdate result = lorryRepository.updateSuppliedFields(patch, List.of(2L, 5L)).orElseThrow();
+
+        assertEquals(6L, result.after().getVersion());
+    }
+
+    @Test
+    void updateSuppliedFields_whenExpectedVersionStale_shouldThrowAndLeaveRowUnchanged() {
+        jdbcTemplate.update("UPDATE lorry SET version = 5 WHERE lr = 1");
+
+        LorryEntity patch = new LorryEntity();
+        patch.setLr(1L);
+        patch.setToLocation("MUMBAI");
+        patch.setVersion(4L);
+
+        assertThrows(OptimisticLockingFailureException.class,
+                () -> lorryRepository.updateSuppliedFields(patch));
+        assertEquals("TOWN1", jdbcTemplate.queryForObject(
+                "SELECT to_location FROM lorry WHERE lr = 1", String.class));
+    }
+
+    @Test
+    void updateSuppliedFields_whenExpectedVersionGivenButLrUnknown_shouldReturnEmpty() {
+        LorryEntity patch = new LorryEntity();
+        patch.setLr(999L);
+        patch.setToLocation("MUMBAI");
+        patch.setVersion(0L);
+
+        assertTrue(lorryRepository.updateSuppliedFields(patch).isEmpty());
+    }
+
+    @Test
+    void streamAll_shouldStreamMatchingRowsInOrderWithoutKeepingThemManaged() {
+        LorryTestData.insertRange(jdbcTemplate, 4, 2500);
+        Specification<LorryEntity> spec = LorrySpecification.hasLrBelow(2001L);
+
+        List<Long> lrs;
+        try (Stream<LorryEntity> rows = lorryRepository.streamAll(spec, Sort.by(Sort.Direction.DESC, "lr"), 100)) {
+            lrs = rows.peek(row -> assertFalse(entityManager.contains(row)))
+                    .map(LorryEntity::getLr)
+                    .toList();
+        }
+
+        assertEquals(2000, lrs.size());
+        assertEquals(2000L, lrs.get(0));
+        assertEquals(1L, lrs.get(lrs.size() - 1));
+    }
+
+    @Test
+    void insertIgnoringExisting_shouldCopyNewRowsAndSkipExistingLrs() {
+        LorryEntity existing = newRow(2L, "Already there");
+        LorryEntity fresh = newRow(10L, "Patil, \"Sons\"");
+
+        Set<Long> inserted = lorryRepository.insertIgnoringExisting(List.of(existing, fresh));
+
+        assertEquals(Set.of(10L), inserted);
+        assertEquals("Patil, \"Sons\"", jdbcTemplate.queryForObject(
+                "SELECT consignor_name FROM lorry WHERE lr = 10", String.class));
+        assertNull(jdbcTemplate.queryForObject(
+                "SELECT freight FROM lorry WHERE lr = 10", BigDecimal.class));
+        assertNotEquals("Already there", jdbcTemplate.queryForObject(
+                "SELECT consignor_name FROM lorry WHERE lr = 2", String.class));
+    }
+
+    @Test
+    void moveLrSequencePast_shouldSkipPastAnExplicitLr() {
+        lorryRepository.moveLrSequencePast(9_000_000L);
+
+        Long next = jdbcTemplate.queryForObject("SELECT nextval('lorry_lr_seq')", Long.class);
+        assertTrue(next > 9_000_000L);
+    }
+
+    @Test
+    void moveLrSequencePast_shouldNotMoveBackIntoAReservedBlock() {
+        long block = lorryRepository.reserveLrBlock();
+        long blockSize = lorryRepository.findLrBlockSize();
+
+        lorryRepository.moveLrSequencePast(block + 1);
+
+        assertEquals(block + blockSize, lorryRepository.reserveLrBlock());
+    }
+
+    @Test
+    void countUpTo_shouldStopAtTheLimit() {
+        assertEquals(2, lorryRepository.countUpTo(LorrySpecification.hasLrIn(List.of(1L, 2L, 3L)), 2));
+        assertEquals(1, lorryRepository.countUpTo(LorrySpecification.hasLrIn(List.of(1L, 999L)), 5));
+    }
+
+    @Test
+    void updateMatching_shouldSetSuppliedFieldsOnMatchingRowsOnly() {
+        LorryEntity changes = new LorryEntity();
+        changes.setDate(LocalDate.of(2024, 2, 1));
+
+        long affected = lorryRepository.updateMatching(LorrySpecification.hasLrIn(List.of(1L, 3L)), changes);
+
+        assertEquals(2, affected);
+        assertEquals(2, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM lorry WHERE date = DATE '2024-02-01' AND version = 1", Integer.class));
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT version FROM lorry WHERE lr = 2", Integer.class));
+    }
+
+    @Test
+    void deleteMatching_shouldDeleteRowsMatchingFilter() {
+        long affected = lorryRepository.deleteMatching(LorrySpecification.hasSearch("town2"));
+
+        assertEquals(1, affected);
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT count(*) FROM lorry", Integer.class));
+    }
+
+    @Test
+    void findListItems_shouldProjectListColumnsWithoutManagingEntities() {
+        Page<LorryListItemDto> page = lorryRepository.findListItems(
+                LorrySpecification.hasSearch("town"),
+                PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "lr"))
+        );
+
+        assertEquals(3, page.getTotalElements());
+        assertEquals(List.of(3L, 2L), page.getContent().stream().map(LorryListItemDto::lr).toList());
+        assertEquals("TOWN3", page.getContent().get(0).toLocation());
+        assertEquals(0, entityManager.unwrap(Session.class).getStatistics().getEntityCount());
+    }
+
+    @Test
+    void findFields_shouldSelectOnlyRequestedAttributesInOrder() {
+        Page<Map<String, Object>> page = lorryRepository.findFields(
+                LorrySpecification.hasSearch("town"),
+                PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "lr")),
+                List.of("freight", "lr", "toLocation")
+        );
+
+        assertEquals(3, page.getTotalElements());
+        Map<String, Object> first = page.getContent().get(0);
+        assertEquals(List.of("freight", "lr", "toLocation"), List.copyOf(first.keySet()));
+        assertEquals(3L, first.get("lr"));
+        assertEquals("TOWN3", first.get("toLocation"));
+        assertEquals(0, entityManager.unwrap(Session.class).getStatistics().getEntityCount());
+    }
+
+    @Test
+    void findFieldSlice_shouldReportHasNextWithoutCounting() {
+        Slice<Map<String, Object>> slice = lorryRepository.findFieldSlice(
+                LorrySpecification.hasSearch("town"),
+                PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "lr")),
+                List.of("lr")
+        );
+
+        assertTrue(slice.hasNext());
+        assertEquals(List.of(Map.of("lr", 3L), Map.of("lr", 2L)), slice.getContent());
+    }
+
+    @Test
+    void vehicleTrips_shouldSeekByDateThenLrForOnePlateOnly() {
+        // 10 and 11 share a date, so the second page has to break the tie on lr
+        jdbcTemplate.update("""
+                INSERT INTO lorry (lr, lorry_number, date, consignor_name, weight, freight)
+                VALUES (10, 'MH12AB1234', DATE '2024-03-01', 'ACME', 100, 1000),
+                       (11, 'MH12AB1234', DATE '2024-03-01', 'ACME', 100, 1000),
+                       (12, 'MH12AB1234', DATE '2024-03-02', 'ACME', 100, NULL),
+                       (13, 'MH12AB9999', DATE '2024-03-03', 'MH12AB1234 LOGISTICS', 100, 1000)
+                """);
+        PageRequest firstTwo = PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "date", "lr"));
+
+        Slice<LorryListItemDto> first = lorryRepository.findListItemSlice(
+                LorrySpecification.hasLorryNumber("MH12AB1234"), firstTwo);
+        Slice<LorryListItemDto> second = lorryRepository.findListItemSlice(
+                LorrySpecification.hasLorryNumber("MH12AB1234")
+                        .and(LorrySpecification.isTripBefore(LocalDate.of(2024, 3, 1), 11L)),
+                firstTwo);
+
+        assertEquals(List.of(12L, 11L), first.getContent().stream().map(LorryListItemDto::lr).toList());
+        assertTrue(first.hasNext());
+        assertEquals(List.of(10L), second.getContent().stream().map(LorryListItemDto::lr).toList());
+        assertFalse(second.hasNext());
+
+        VehicleSummaryDto summary = lorryRepository.summarizeVehicle("MH12AB1234");
+        assertEquals(3L, summary.totalTrips());
+        assertEquals(LocalDate.of(2024, 3, 1), summary.firstTripDate());
+        assertEquals(LocalDate.of(2024, 3, 2), summary.lastTripDate());
+        assertEquals(0, BigDecimal.valueOf(2000).compareTo(summary.totalFreight()));
+    }
+
+    @Test
+    void hasSearch_shouldRouteDigitsToLrAndPlatesToLorryNumber() {
+        jdbcTemplate.update("""
+                INSERT INTO lorry (lr, lorry_number, date, consignor_name, weight)
+                VALUES (12, 'KA01AB0001', DATE '2024-03-01', 'ACME 3', 100),
+                       (120, 'KA01AB0002', DATE '2024-03-01', 'ACME', 100),
+                       (312, 'MH12AB1234', DATE '2024-03-01', 'ACME', 100),
+                       (400, 'KA01AB0004', DATE '2024-03-01', 'ACME 98765', 100)
+                """);
+
+        // short numbers match LR prefixes and the digits of a plate
+        assertEquals(Set.of(12L, 120L, 312L), lrsMatching("12"));
+        assertEquals(Set.of(312L), lrsMatching("1234"));
+        // longer ones can only be LRs
+        assertEquals(Set.of(), lrsMatching("98765"));
+        assertEquals(Set.of(312L), lrsMatching("mh 12"));
+        assertEquals(Set.of(12L), lrsMatching("acme 3"));
+    }
+
+    private Set<Long> lrsMatching(String search) {
+        return lorryRepository.findAll(LorrySpecification.hasSearch(search)).stream()
+                .map(LorryEntity::getLr)
+                .collect(Collectors.toSet());
+    }
+
+    private static LorryEntity newRow(Long lr, String consignorName) {
+        LorryEntity entity = new LorryEntity();
+        entity.setLr(lr);
+        entity.setLorryNumber("MH12AB1234");
+        entity.setDate(LocalDate.of(2024, 1, 15));
+        entity.setFromLocation("PUNE");
+        entity.setToLocation("MUMBAI");
+        entity.setConsignorName(consignorName);
+        entity.setWeight(BigDecimal.valueOf(1000));
+        return entity;
+    }
+}
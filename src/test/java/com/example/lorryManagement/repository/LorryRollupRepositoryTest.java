@@ -0,0 +1,116 @@
+package com.example.lorryManagement.repository;
+
+import com.example.lorryManagement.dtos.ConsignorTotalDto;
+import com.example.lorryManagement.dtos.DailyTotalDto;
+import com.example.lorryManagement.dtos.RouteTotalDto;
+import com.example.lorryManagement.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// the rollups are maintained by triggers, so these tests write to lorry with plain SQL
+@Transactional
+public class LorryRollupRepositoryTest extends PostgresIntegrationTest {
+    private static final LocalDate DAY_1 = LocalDate.of(2024, 1, 15);
+    private static final LocalDate DAY_2 = LocalDate.of(2024, 1, 16);
+
+    @Autowired
+    private LorryRollupRepository rollupRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("TRUNCATE lorry");
+        insert(1, DAY_1, "PUNE", "MUMBAI", "ACME", 1000, 5000);
+        insert(2, DAY_1, "PUNE", "MUMBAI", "ACME", 500, 2500);
+        insert(3, DAY_2, "PUNE", null, "GLOBEX", 200, null);
+    }
+
+    @Test
+    void inserts_shouldBeRolledUpPerDayRouteAndConsignor() {
+        List<DailyTotalDto> daily = rollupRepository.dailyTotals(null, null);
+        assertEquals(2, daily.size());
+        assertEquals(DAY_1, daily.get(0).date());
+        assertEquals(2, daily.get(0).trips());
+        assertEquals(0, BigDecimal.valueOf(7500).compareTo(daily.get(0).totalFreight()));
+        assertEquals(0, BigDecimal.ZERO.compareTo(daily.get(1).totalFreight()));
+
+        List<RouteTotalDto> routes = rollupRepository.routeTotals(null, null, 10);
+        assertEquals(new RouteTotalDto("PUNE", "MUMBAI", 2, new BigDecimal("1500.00"), new BigDecimal("7500.00")), routes.get(0));
+        assertNull(routes.get(1).toLocation());
+    }
+
+    @Test
+    void dateRange_shouldBeInclusiveAndOptional() {
+        assertEquals(List.of(DAY_2), rollupRepository.dailyTotals(DAY_2, null).stream().map(DailyTotalDto::date).toList());
+        assertEquals(List.of(DAY_1), rollupRepository.dailyTotals(null, DAY_1).stream().map(DailyTotalDto::date).toList());
+        assertThrows(IllegalArgumentException.class, () -> rollupRepository.dailyTotals(DAY_2, DAY_1));
+    }
+
+    @Test
+    void update_shouldMoveTotalsBetweenGroups() {
+        jdbcTemplate.update("UPDATE lorry SET consignor_name = 'GLOBEX', freight = 3000 WHERE lr = 2");
+
+        List<ConsignorTotalDto> consignors = rollupRepository.consignorTotals(null, null, 10);
+        assertEquals(new ConsignorTotalDto("ACME", 1, new BigDecimal("1000.00"), new BigDecimal("5000.00")), consignors.get(0));
+        assertEquals(new ConsignorTotalDto("GLOBEX", 2, new BigDecimal("700.00"), new BigDecimal("3000.00")), consignors.get(1));
+        assertEquals(0, BigDecimal.valueOf(8000).compareTo(rollupRepository.dailyTotals(DAY_1, DAY_1).get(0).totalFreight()));
+    }
+
+    @Test
+    void delete_shouldDropGroupsThatBecomeEmpty() {
+        jdbcTemplate.update("DELETE FROM lorry WHERE lr = 3");
+
+        assertEquals(List.of(DAY_1), rollupRepository.dailyTotals(null, null).stream().map(DailyTotalDto::date).toList());
+        assertEquals(List.of("ACME"), rollupRepository.consignorTotals(null, null, 10).stream()
+                .map(ConsignorTotalDto::consignorName).toList());
+    }
+
+    @Test
+    void rebuild_shouldRepairDrift() {
+        jdbcTemplate.update("UPDATE lorry_daily_totals SET trips = 99");
+
+        rollupRepository.rebuild();
+
+        assertEquals(2, rollupRepository.dailyTotals(DAY_1, DAY_1).get(0).trips());
+    }
+
+    @Test
+    void tryLockRebuild_shouldLetOnlyOneTransactionRebuild() throws SQLException {
+        assertTrue(rollupRepository.tryLockRebuild());
+
+        // another session, as another instance would use, is turned away until this one ends
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(
+                     "SELECT pg_try_advisory_xact_lock(hashtext('lorry_rollup_rebuild'))")) {
+            rs.next();
+            assertFalse(rs.getBoolean(1));
+        }
+    }
+
+    private void insert(long lr, LocalDate date, String from, String to, String consignor, int weight, Integer freight) {
+        jdbcTemplate.update("""
+                INSERT INTO lorry (lr, lorry_number, date, from_location, to_location, consignor_name, weight, freight)
+                VALUES (?, 'MH12AB1234', ?, ?, ?, ?, ?, ?)
+                """, lr, date, from, to, consignor, weight, freight);
+    }
+}
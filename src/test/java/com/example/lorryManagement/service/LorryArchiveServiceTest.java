@@ -0,0 +1,84 @@
+package com.example.lorryManagement.service;
+
+import com.example.lorryManagement.event.LorryChangedEvent;
+import com.example.lorryManagement.repository.LorryArchiveRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class LorryArchiveServiceTest {
+    @Mock
+    private LorryArchiveRepository archiveRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private LorryArchiveService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new LorryArchiveService(archiveRepository, transactionTemplate, eventPublisher, Duration.ofDays(365), 2);
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    void archive_shouldMoveBatchesUntilOneComesBackShort() {
+        when(archiveRepository.moveBatch(eq(service.cutoff()), eq(2))).thenReturn(2, 2, 1);
+        when(archiveRepository.findLatestDate()).thenReturn(Optional.of(LocalDate.of(2020, 5, 1)));
+
+        service.archive();
+
+        verify(transactionTemplate, times(3)).execute(any());
+        verify(eventPublisher).publishEvent(LorryChangedEvent.bulk());
+    }
+
+    @Test
+    void archive_whenNothingIsOldEnough_shouldNotPublish() {
+        when(archiveRepository.moveBatch(any(), eq(2))).thenReturn(0);
+        when(archiveRepository.findLatestDate()).thenReturn(Optional.empty());
+
+        service.archive();
+
+        verify(transactionTemplate, times(1)).execute(any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void reachesArchive_shouldOnlyRouteRangesThatStartBeforeTheCutoff() {
+        LocalDate cutoff = service.cutoff();
+
+        assertFalse(service.reachesArchive(null, null));
+        assertTrue(service.reachesArchive(null, LocalDate.now()));
+        assertTrue(service.reachesArchive(cutoff.minusDays(1), null));
+        assertFalse(service.reachesArchive(cutoff, null));
+    }
+
+    @Test
+    void reachesArchive_shouldCoverLrsArchivedUnderAShorterAge() {
+        LocalDate latest = service.cutoff().plusDays(30);
+        when(archiveRepository.findLatestDate()).thenReturn(Optional.of(latest));
+        service.refresh();
+
+        assertTrue(service.reachesArchive(latest, null));
+        assertFalse(service.reachesArchive(latest.plusDays(1), null));
+    }
+}
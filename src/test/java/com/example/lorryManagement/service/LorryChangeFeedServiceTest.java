@@ -0,0 +1,86 @@
+package com.example.lorryManagement.service;
+
+import com.example.lorryManagement.dtos.ChangeFeedDto;
+import com.example.lorryManagement.dtos.ChangeToken;
+import com.example.lorryManagement.entity.LorryEntity;
+import com.example.lorryManagement.exception.ChangeTokenExpiredException;
+import com.example.lorryManagement.repository.LorryChange;
+import com.example.lorryManagement.repository.LorryChangeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class LorryChangeFeedServiceTest {
+    @Mock
+    private LorryChangeRepository changeRepository;
+
+    private LorryChangeFeedService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new LorryChangeFeedService(changeRepository, Duration.ofDays(30));
+    }
+
+    @Test
+    void changesSince_whenPageFull_shouldResumeFromLastChange() {
+        when(changeRepository.findChangeHorizon()).thenReturn(900L);
+        when(changeRepository.findChangesAfter(0, 0, 900, 2)).thenReturn(List.of(
+                new LorryChange(500, 1, 1L, null, lorry(1L)),
+                new LorryChange(501, 7, 2L, null, null)
+        ));
+
+        ChangeFeedDto feed = service.changesSince(null, 2);
+
+        assertTrue(feed.isHasMore());
+        assertEquals(new ChangeToken(501, 7), ChangeToken.decode(feed.getNextToken()));
+        assertEquals(1L, feed.getChanges().get(0).lorry().getLr());
+        assertTrue(feed.getChanges().get(1).deleted());
+        verify(changeRepository, never()).findPurgedXid();
+    }
+
+    @Test
+    void changesSince_whenDrained_shouldMoveTokenToHorizon() {
+        when(changeRepository.findPurgedXid()).thenReturn(0L);
+        when(changeRepository.findChangeHorizon()).thenReturn(900L);
+        when(changeRepository.findChangesAfter(800, 3, 900, 10)).thenReturn(List.of());
+
+        ChangeFeedDto feed = service.changesSince(new ChangeToken(800, 3), 10);
+
+        assertFalse(feed.isHasMore());
+        assertEquals(new ChangeToken(900, 0), ChangeToken.decode(feed.getNextToken()));
+    }
+
+    @Test
+    void changesSince_whenTokenAheadOfHorizon_shouldKeepToken() {
+        when(changeRepository.findPurgedXid()).thenReturn(0L);
+        when(changeRepository.findChangeHorizon()).thenReturn(900L);
+        when(changeRepository.findChangesAfter(900, 5, 900, 10)).thenReturn(List.of());
+
+        ChangeFeedDto feed = service.changesSince(new ChangeToken(900, 5), 10);
+
+        assertEquals(new ChangeToken(900, 5), ChangeToken.decode(feed.getNextToken()));
+    }
+
+    @Test
+    void changesSince_whenTokenPredatesPurge_shouldThrow() {
+        when(changeRepository.findPurgedXid()).thenReturn(700L);
+
+        assertThrows(ChangeTokenExpiredException.class, () -> service.changesSince(new ChangeToken(650, 1), 10));
+        verify(changeRepository, never()).findChangesAfter(anyLong(), anyLong(), anyLong(), anyInt());
+    }
+
+    private static LorryEntity lorry(Long lr) {
+        LorryEntity entity = new LorryEntity();
+        entity.setLr(lr);
+        return entity;
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.lorryManagement.service;
+
+import com.example.lorryManagement.dtos.ImportReportDto;
+import com.example.lorryManagement.support.LorryTestData;
+import com.example.lorryManagement.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Tag("benchmark")
+public class LorryImportBenchmarkTest extends PostgresIntegrationTest {
+    private static final int ROWS = 200_000;
+
+    @Autowired
+    private LorryImportService lorryImportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        LorryTestData.deleteAll(jdbcTemplate);
+    }
+
+    @Test
+    void importCsv_shouldLoadTensOfThousandsOfRowsPerSecond() throws IOException {
+        StringBuilder csv = new StringBuilder(
+                "lr,lorryNumber,date,fromLocation,toLocation,consignorName,consignorAddress,description,weight,freight\n");
+        for (int lr = 1; lr <= ROWS; lr++) {
+            csv.append(lr).append(",MH").append(lr % 50).append("AB").append(lr % 10000)
+                    .append(",2024-01-").append(10 + lr % 20)
+                    .append(",city").append(lr % 300).append(",town").append(lr % 400)
+                    .append(",Consignor ").append(lr)
+                    .append(",\"Plot ").append(lr).append(", MIDC\",general goods,")
+                    .append(100 + lr % 900).append(',').append(1000 + lr % 9000).append('\n');
+        }
+
+        long start = System.nanoTime();
+        ImportReportDto report = lorryImportService.importCsv(new StringReader(csv.toString()));
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        double rowsPerSecond = ROWS / seconds;
+        System.out.printf("import: %d rows in %.2f s = %.0f rows/s%n", ROWS, seconds, rowsPerSecond);
+
+        assertEquals(ROWS, report.getImported());
+        assertTrue(rowsPerSecond > 20_000, "only " + (long) rowsPerSecond + " rows/s");
+    }
+}
@@ -0,0 +1,259 @@
+package com.example.lorryManagement.service;
+
+import com.example.lorryManagement.dtos.BatchItemResult;
+import com.example.lorryManagement.dtos.BatchResponseDto;
+import com.example.lorryManagement.dtos.ImportReportDto;
+import com.example.lorryManagement.dtos.LorryRequestDto;
+import com.example.lorryManagement.entity.LorryEntity;
+import com.example.lorryManagement.event.LorryChangedEvent;
+import com.example.lorryManagement.exception.BadRequestException;
+import com.example.lorryManagement.repository.LorryRepository;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class LorryImportServiceTest {
+    private static final String HEADER =
+            "lr,lorryNumber,date,fromLocation,toLocation,consignorName,consignorAddress,description,weight,freight\n";
+
+    @Mock
+    private LorryRepository lorryRepository;
+
+    @Mock
+    private LrAllocator lrAllocator;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private LorryImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        importService = new LorryImportService(
+                lorryRepository,
+                lrAllocator,
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                transactionTemplate,
+                eventPublisher
+        );
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void importCsv_shouldNormalizeAndLoadValidRows() throws IOException {
+        when(lorryRepository.insertIgnoringExisting(anyList())).thenReturn(Set.of(1001L));
+
+        ImportReportDto report = importService.importCsv(new StringReader(HEADER
+                + "1001,MH12AB1234,2024-01-15, pune ,mumbai, Patil Sons ,,,1000.50,\n"));
+
+        assertEquals(1, report.getTotalRows());
+        assertEquals(1, report.getImported());
+        assertEquals(0, report.getFailed());
+
+        ArgumentCaptor<List<LorryEntity>> rows = ArgumentCaptor.forClass(List.class);
+        verify(lorryRepository).insertIgnoringExisting(rows.capture());
+        LorryEntity row = rows.getValue().get(0);
+        assertEquals("PUNE", row.getFromLocation());
+        assertEquals("MUMBAI", row.getToLocation());
+        assertEquals("Patil Sons", row.getConsignorName());
+        assertNull(row.getFreight());
+
+        verify(lorryRepository).moveLrSequencePast(1001L);
+        verify(eventPublisher).publishEvent(any(LorryChangedEvent.class));
+    }
+
+    @Test
+    void importCsv_shouldReportInvalidRowsWithTheirRowNumber() throws IOException {
+        when(lorryRepository.insertIgnoringExisting(anyList())).thenReturn(Set.of(1001L));
+
+        ImportReportDto report = importService.importCsv(new StringReader(HEADER
+                + "1001,MH12AB1234,2024-01-15,Pune,Mumbai,Patil Sons,,,100,\n"
+                + "1002,not-a-plate,2024-01-15,Pune,Mumbai,Patil Sons,,,100,\n"
+                + "1003,MH12AB1234,15/01/2024,Pune,Mumbai,Patil Sons,,,100,\n"
+                + "1004,MH12AB1234,2024-01-15,Pune,Mumbai,Patil Sons,,,heavy,\n"));
+
+        assertEquals(4, report.getTotalRows());
+        assertEquals(1, report.getImported());
+        assertEquals(3, report.getFailed());
+        assertEquals(3, report.getErrors().get(0).row());
+        assertEquals("lorryNumber", report.getErrors().get(0).field());
+        assertEquals("date", report.getErrors().get(1).field());
+        assertEquals(4, report.getErrors().get(1).row());
+        assertEquals("weight", report.getErrors().get(2).field());
+    }
+
+    @Test
+    void importCsv_whenLastQuotedFieldIsTruncated_shouldLoadEarlierRowsAndReportIt() throws IOException {
+        when(lorryRepository.insertIgnoringExisting(anyList())).thenReturn(Set.of(1001L));
+
+        ImportReportDto report = importService.importCsv(new StringReader(HEADER
+                + "1001,MH12AB1234,2024-01-15,Pune,Mumbai,Patil Sons,,,100,\n"
+                + "1002,MH12AB1234,2024-01-15,Pune,Mumbai,\"Patil Sons,,,100,\n"));
+
+        assertEquals(2, report.getTotalRows());
+        assertEquals(1, report.getImported());
+        assertEquals(1, report.getFailed());
+        assertEquals(3, report.getErrors().get(0).row());
+        assertEquals("Unterminated quoted field", report.getErrors().get(0).message());
+        verify(lorryRepository).insertIgnoringExisting(anyList());
+    }
+
+    @Test
+    void importCsv_shouldReportExistingAndRepeatedLrs() throws IOException {
+        when(lorryRepository.insertIgnoringExisting(anyList())).thenReturn(Set.of(1001L));
+
+        ImportReportDto report = importService.importCsv(new StringReader(HEADER
+                + "1001,MH12AB1234,2024-01-15,Pune,Mumbai,Patil Sons,,,100,\n"
+                + "1001,MH12AB1234,2024-01-16,Pune,Mumbai,Patil Sons,,,100,\n"
+                + "1002,MH12AB1234,2024-01-17,Pune,Mumbai,Patil Sons,,,100,\n"));
+
+        assertEquals(1, report.getImported());
+        assertEquals(2, report.getFailed());
+        assertEquals("Duplicate LR in file", report.getErrors().get(0).message());
+        assertEquals("LR 1002 already exists", report.getErrors().get(1).message());
+    }
+
+    @Test
+    void importCsv_whenLrBlank_shouldAllocateOne() throws IOException {
+        when(lrAllocator.nextLr()).thenReturn(5001L);
+        when(lorryRepository.insertIgnoringExisting(anyList())).thenReturn(Set.of(5001L));
+
+        ImportReportDto report = importService.importCsv(new StringReader(HEADER
+                + ",MH12AB1234,2024-01-15,Pune,Mumbai,Patil Sons,,,100,\n"));
+
+        assertEquals(1, report.getImported());
+        verify(lrAllocator).nextLr();
+        // the allocated LR is already behind the sequence
+        verify(lorryRepository, never()).moveLrSequencePast(anyLong());
+    }
+
+    @Test
+    void importCsv_shouldLoadInChunks() throws IOException {
+        StringBuilder csv = new StringBuilder(HEADER);
+        int rows = LorryImportService.CHUNK_SIZE + 10;
+        for (int lr = 1; lr <= rows; lr++) {
+            csv.append(lr).append(",MH12AB1234,2024-01-15,Pune,Mumbai,Patil Sons,,,100,\n");
+        }
+        when(lorryRepository.insertIgnoringExisting(anyList())).thenReturn(Set.of());
+
+        importService.importCsv(new StringReader(csv.toString()));
+
+        verify(lorryRepository, times(2)).insertIgnoringExisting(anyList());
+        verify(transactionTemplate, times(2)).execute(any());
+    }
+
+    @Test
+    void importCsv_whenChunkRejected_shouldReportItsRowsAndContinue() throws IOException {
+        when(lorryRepository.insertIgnoringExisting(anyList()))
+                .thenThrow(new DataIntegrityViolationException("numeric field overflow"));
+
+        ImportReportDto report = importService.importCsv(new StringReader(HEADER
+                + "1001,MH12AB1234,2024-01-15,Pune,Mumbai,Patil Sons,,,100,\n"));
+
+        assertEquals(0, report.getImported());
+        assertEquals(1, report.getFailed());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void importCsv_whenHeaderHasUnknownColumn_shouldThrowBadRequest() {
+        assertThrows(BadRequestException.class,
+                () -> importService.importCsv(new StringReader("lr,weightKg\n1,100\n")));
+    }
+
+    @Test
+    void importCsv_whenEmpty_shouldThrowBadRequest() {
+        assertThrows(BadRequestException.class, () -> importService.importCsv(new StringReader("")));
+    }
+
+    @Test
+    void createAll_shouldReportEachItemInRequestOrder() {
+        when(lorryRepository.insertIgnoringExisting(anyList())).thenReturn(Set.of(1001L));
+
+        LorryRequestDto invalid = item(1002L);
+        invalid.setLorryNumber("bad");
+
+        BatchResponseDto response = importService.createAll(List.of(
+                item(1001L), invalid, item(1001L), item(1003L)
+        ));
+
+        assertEquals(1, response.getCreated());
+        assertEquals(2, response.getConflicts());
+        assertEquals(1, response.getInvalid());
+        assertEquals(BatchItemResult.Status.CREATED, response.getItems().get(0).status());
+        assertEquals(BatchItemResult.Status.INVALID, response.getItems().get(1).status());
+        assertEquals("lorryNumber", response.getItems().get(1).errors().get(0).get("field"));
+        assertEquals("Duplicate LR in batch", response.getItems().get(2).errors().get(0).get("message"));
+        assertEquals("LR 1003 already exists", response.getItems().get(3).errors().get(0).get("message"));
+
+        verify(transactionTemplate, times(1)).execute(any());
+        verify(eventPublisher, times(1)).publishEvent(any(LorryChangedEvent.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void createAll_whenAmountDoesNotFitTheColumn_shouldRejectOnlyThatItem() {
+        when(lorryRepository.insertIgnoringExisting(anyList())).thenReturn(Set.of(1002L));
+
+        LorryRequestDto tooHeavy = item(1001L);
+        tooHeavy.setWeight(new BigDecimal("100000000"));
+
+        BatchResponseDto response = importService.createAll(List.of(tooHeavy, item(1002L)));
+
+        assertEquals(1, response.getInvalid());
+        assertEquals(1, response.getCreated());
+        assertEquals("weight", response.getItems().get(0).errors().get(0).get("field"));
+        assertEquals("Value is too large", response.getItems().get(0).errors().get(0).get("message"));
+
+        ArgumentCaptor<List<LorryEntity>> rows = ArgumentCaptor.forClass(List.class);
+        verify(lorryRepository).insertIgnoringExisting(rows.capture());
+        assertEquals(List.of(1002L), rows.getValue().stream().map(LorryEntity::getLr).toList());
+    }
+
+    @Test
+    void createAll_whenNothingValid_shouldNotTouchTheDatabase() {
+        LorryRequestDto invalid = item(1001L);
+        invalid.setWeight(null);
+
+        BatchResponseDto response = importService.createAll(List.of(invalid));
+
+        assertEquals(1, response.getInvalid());
+        verifyNoInteractions(lorryRepository, transactionTemplate, eventPublisher);
+    }
+
+    private static LorryRequestDto item(Long lr) {
+        LorryRequestDto dto = new LorryRequestDto();
+        dto.setLr(lr);
+        dto.setLorryNumber("MH12AB1234");
+        dto.setDate(LocalDate.of(2024, 1, 15));
+        dto.setFromLocation("Pune");
+        dto.setToLocation("Mumbai");
+        dto.setConsignorName("Patil Sons");
+        dto.setWeight(BigDecimal.valueOf(100));
+        return dto;
+    }
+}
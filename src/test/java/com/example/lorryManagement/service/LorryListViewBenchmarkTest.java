@@ -0,0 +1,100 @@
+package com.example.lorryManagement.service;
+
+import com.example.lorryManagement.mapper.LorryMapper;
+import com.example.lorryManagement.support.LorryTestData;
+import com.example.lorryManagement.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/*
+ * Compares one page of the list endpoint read as entities (view=full) and as the
+ * LorryListItemDto projection (view=list): latency and bytes allocated per page.
+ */
+@Tag("benchmark")
+public class LorryListViewBenchmarkTest extends PostgresIntegrationTest {
+    private static final int ROWS = 100_000;
+    private static final int PAGE_SIZE = 50;
+    private static final int WARMUP = 200;
+    private static final int SAMPLES = 1000;
+
+    @Autowired
+    private LorryService lorryService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        LorryTestData.insertRange(jdbcTemplate, 1, ROWS);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        LorryTestData.deleteAll(jdbcTemplate);
+    }
+
+    @Test
+    void listView_shouldAllocateLessAndBeFasterPerPage() {
+        // pages are read in a transaction, as with open-in-view, so the full view pays for dirty-check snapshots
+        Consumer<Pageable> full = pageable -> transactionTemplate.executeWithoutResult(status ->
+                lorryService.findWithFilters(null, null, null, pageable).map(LorryMapper::toDto).getContent());
+        Consumer<Pageable> list = pageable -> transactionTemplate.executeWithoutResult(status ->
+                lorryService.findListItemsWithFilters(null, null, null, pageable).getContent());
+
+        Result fullResult = measure(full);
+        Result listResult = measure(list);
+
+        System.out.printf("view=full: p50 %.2f ms, %d KB/page%n", fullResult.p50Nanos / 1e6, fullResult.bytesPerPage / 1024);
+        System.out.printf("view=list: p50 %.2f ms, %d KB/page%n", listResult.p50Nanos / 1e6, listResult.bytesPerPage / 1024);
+
+        assertTrue(listResult.bytesPerPage < fullResult.bytesPerPage * 0.8,
+                "list view allocated " + listResult.bytesPerPage + " B/page vs " + fullResult.bytesPerPage);
+        assertTrue(listResult.p50Nanos < fullResult.p50Nanos,
+                "list view p50 " + listResult.p50Nanos + " ns vs " + fullResult.p50Nanos);
+    }
+
+    private Result measure(Consumer<Pageable> readPage) {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+
+        for (int i = 0; i < WARMUP; i++) {
+            readPage.accept(page(i));
+        }
+
+        long[] latencies = new long[SAMPLES];
+        long allocatedBefore = threads.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            readPage.accept(page(i));
+            latencies[i] = System.nanoTime() - start;
+        }
+        long allocated = threads.getThreadAllocatedBytes(thread) - allocatedBefore;
+
+        return new Result(LorryTestData.percentile(latencies, 50), allocated / SAMPLES);
+    }
+
+    // first 20 pages; each is full, so both views also run the same count query
+    private static Pageable page(int i) {
+        return PageRequest.of(i % 20, PAGE_SIZE, Sort.by(Sort.Direction.DESC, "lr"));
+    }
+
+    private record Result(long p50Nanos, long bytesPerPage) {
+    }
+}
@@ -1,12 +1,23 @@
 package com.example.lorryManagement.service;
 
+import com.example.lorryManagement.cache.DistinctValuesCache;
+import com.example.lorryManagement.cache.LorryCountCache;
+import com.example.lorryManagement.dtos.VehicleSummaryDto;
+import com.example.lorryManagement.config.PaginationConfig;
 import com.example.lorryManagement.entity.LorryEntity;
+import com.example.lorryManagement.event.LorryChangedEvent;
+import com.example.lorryManagement.exception.ArchivedLrException;
+import com.example.lorryManagement.exception.BadRequestException;
 import com.example.lorryManagement.repository.LorryRepository;
+import com.example.lorryManagement.repository.LorryUpdate;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.DuplicateKeyException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
@@ -14,6 +25,7 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
 import java.math.BigDecimal;
+import java.sql.SQLException;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.NoSuchElementException;
@@ -30,6 +42,21 @@ public class LorryServiceImplTest {
     @Mock
     private LorryRepository lorryRepository;
 
+    @Mock
+    private LorryCountCache lorryCountCache;
+
+    @Mock
+    private DistinctValuesCache distinctValuesCache;
+
+    @Mock
+    private LrAllocator lrAllocator;
+
+    @Mock
+    private LorryArchiveService archiveService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @Test
     void save_whenLrDoesNotExist_shouldSaveAndReturnEntity() {
         LorryEntity input = new LorryEntity();
@@ -38,14 +65,27 @@ public class LorryServiceImplTest {
         LorryEntity saved = new LorryEntity();
         saved.setLr(1111L);
 
-        when(lorryRepository.existsById(1111L)).thenReturn(false);
-        when(lorryRepository.save(input)).thenReturn(saved);
+        when(lorryRepository.saveAndFlush(input)).thenReturn(saved);
 
         LorryEntity result = lorryService.save(input);
 
         assertEquals(saved, result);
-        verify(lorryRepository).existsById(1111L);
-        verify(lorryRepository).save(input);
+        assertTrue(input.isNew());
+        verify(lorryRepository, never()).existsById(any());
+        verify(lorryRepository).saveAndFlush(input);
+    }
+
+    @Test
+    void save_whenLrMissing_shouldAllocateOne() {
+        LorryEntity input = new LorryEntity();
+
+        when(lrAllocator.nextLr()).thenReturn(5001L);
+        when(lorryRepository.saveAndFlush(input)).thenReturn(input);
+
+        LorryEntity result = lorryService.save(input);
+
+        assertEquals(5001L, result.getLr());
+        verify(lrAllocator).nextLr();
     }
 
     @Test
@@ -53,12 +93,54 @@ public class LorryServiceImplTest {
         LorryEntity input = new LorryEntity();
         input.setLr(1111L);
 
-        when(lorryRepository.existsById(1111L)).thenReturn(true);
+        when(lorryRepository.saveAndFlush(input)).thenThrow(new DataIntegrityViolationException(
+                "could not execute statement",
+                new SQLException("duplicate key value violates unique constraint \"lorry_pkey\"", "23505")
+        ));
 
         assertThrows(DuplicateKeyException.class, () -> lorryService.save(input));
 
-        verify(lorryRepository).existsById(1111L);
-        verify(lorryRepository, never()).save(any());
+        verify(lorryRepository, never()).existsById(any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void save_whenOtherConstraintViolated_shouldRethrow() {
+        LorryEntity input = new LorryEntity();
+        input.setLr(1111L);
+
+        when(lorryRepository.saveAndFlush(input)).thenThrow(new DataIntegrityViolationException(
+                "could not execute statement",
+                new SQLException("null value in column \"lorry_number\"", "23502")
+        ));
+
+        DataIntegrityViolationException thrown =
+                assertThrows(DataIntegrityViolationException.class, () -> lorryService.save(input));
+        assertFalse(thrown instanceof DuplicateKeyException);
+    }
+
+    @Test
+    void summarizeVehicle_shouldLookUpNormalizedLorryNumber() {
+        VehicleSummaryDto summary = new VehicleSummaryDto(0L, null, null, null, null);
+        when(lorryRepository.summarizeVehicle("MH12AB1234")).thenReturn(summary);
+
+        assertSame(summary, lorryService.summarizeVehicle(" mh12 ab-1234"));
+    }
+
+    @Test
+    void findAllByLr_shouldReturnFoundRowsInRequestOrder() {
+        LorryEntity first = new LorryEntity();
+        first.setLr(101L);
+        LorryEntity third = new LorryEntity();
+        third.setLr(103L);
+
+        List<Long> requested = List.of(103L, 102L, 101L);
+        when(lorryRepository.findAllById(requested)).thenReturn(List.of(first, third));
+
+        List<LorryEntity> result = lorryService.findAllByLr(requested);
+
+        assertEquals(List.of(third, first), result);
+        verify(lorryRepository, never()).findById(any());
     }
 
     @Test
@@ -66,12 +148,24 @@ public class LorryServiceImplTest {
         LorryEntity input = new LorryEntity();
         input.setLr(1111L);
 
-        when(lorryRepository.findById(1111L)).thenReturn(Optional.empty());
+        when(lorryRepository.updateSuppliedFields(eq(input), anyCollection())).thenReturn(Optional.empty());
 
         assertThrows(NoSuchElementException.class, () -> lorryService.update(input));
 
-        verify(lorryRepository).findById(1111L);
-        verify(lorryRepository, never()).save(any());
+        verify(lorryRepository).updateSuppliedFields(eq(input), anyCollection());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void update_whenLrArchived_shouldThrowArchivedLrException() {
+        LorryEntity input = new LorryEntity();
+        input.setLr(1111L);
+
+        when(lorryRepository.updateSuppliedFields(eq(input), anyCollection())).thenReturn(Optional.empty());
+        when(archiveService.isArchived(1111L)).thenReturn(true);
+
+        assertThrows(ArchivedLrException.class, () -> lorryService.update(input));
+        verifyNoInteractions(eventPublisher);
     }
 
     @Test
@@ -81,61 +175,49 @@ public class LorryServiceImplTest {
 
         assertThrows(IllegalArgumentException.class, () -> lorryService.update(input));
 
-        verify(lorryRepository, never()).findById(any());
-        verify(lorryRepository, never()).save(any());
+        verify(lorryRepository, never()).updateSuppliedFields(any(), anyCollection());
     }
 
     @Test
-    void update_whenLrFound_shouldSaveAndReturnEntity() {
-        LorryEntity existing = new LorryEntity();
-        existing.setLr(1111L);
-        existing.setLorryNumber("OLD123");
+    void update_whenLrFound_shouldReturnUpdatedRow() {
+        LorryEntity before = new LorryEntity();
+        before.setLr(1111L);
+        before.setLorryNumber("OLD123");
 
         LorryEntity input = new LorryEntity();
         input.setLr(1111L);
         input.setLorryNumber("NEW123");
 
-        LorryEntity saved = new LorryEntity();
-        saved.setLr(1111L);
-        saved.setLorryNumber("NEW123");
+        LorryEntity after = new LorryEntity();
+        after.setLr(1111L);
+        after.setLorryNumber("NEW123");
 
-        when(lorryRepository.findById(1111L)).thenReturn(Optional.of(existing));
-        when(lorryRepository.save(existing)).thenReturn(saved);
+        when(lorryRepository.updateSuppliedFields(eq(input), anyCollection())).thenReturn(Optional.of(new LorryUpdate(before, after)));
 
         LorryEntity result = lorryService.update(input);
 
         assertEquals("NEW123", result.getLorryNumber());
 
-        verify(lorryRepository).findById(1111L);
-        verify(lorryRepository).save(existing);
+        verify(lorryRepository).updateSuppliedFields(eq(input), anyCollection());
+        verify(lorryRepository, never()).findById(any());
+        verify(lorryRepository, never()).save(any());
     }
 
     @Test
-    void update_whenLrFound_shouldUpdateOnlyNonNullFields() {
-        LorryEntity existing = new LorryEntity();
-        existing.setLr(1111L);
-        existing.setLorryNumber("OLD123");
-        existing.setWeight(BigDecimal.valueOf(100));
-
+    void update_shouldPassOnlySuppliedFieldsToRepository() {
         LorryEntity input = new LorryEntity();
         input.setLr(1111L);
-        input.setLorryNumber("NEW123");
-
-        LorryEntity saved = new LorryEntity();
-        saved.setLr(1111L);
-        saved.setLorryNumber("NEW123");
-        saved.setWeight(BigDecimal.valueOf(100));
+        input.setToLocation(" mumbai ");
 
-        when(lorryRepository.findById(1111L)).thenReturn(Optional.of(existing));
-        when(lorryRepository.save(existing)).thenReturn(saved);
+        when(lorryRepository.updateSuppliedFields(eq(input), anyCollection())).thenReturn(Optional.of(new LorryUpdate(input, input)));
 
-        LorryEntity result = lorryService.update(input);
-        assertEquals("NEW123", result.getLorryNumber());
-        assertEquals(BigDecimal.valueOf(100), result.getWeight());
-        assertNull(input.getWeight());
+        lorryService.update(input);
 
-        verify(lorryRepository).findById(1111L);
-        verify(lorryRepository).save(existing);
+        ArgumentCaptor<LorryEntity> patch = ArgumentCaptor.forClass(LorryEntity.class);
+        verify(lorryRepository).updateSuppliedFields(patch.capture(), anyCollection());
+        assertEquals("MUMBAI", patch.getValue().getToLocation());
+        assertNull(patch.getValue().getWeight());
+        assertNull(patch.getValue().getLorryNumber());
     }
 
     @Test
@@ -269,12 +351,133 @@ public class LorryServiceImplTest {
     }
 
     @Test
-    void deleteByLr_shouldCallRepositoryDeleteById() {
+    void deleteByLr_shouldDeleteExistingEntityAndPublishEvent() {
         Long lr = 1111L;
-        when(lorryRepository.existsById(lr)).thenReturn(true);
+        LorryEntity existing = new LorryEntity();
+        existing.setLr(lr);
+        existing.setConsignorName("Alice");
+        when(lorryRepository.findById(lr)).thenReturn(Optional.of(existing));
 
         lorryService.deleteByLr(lr);
-        verify(lorryRepository).deleteById(lr);
+        verify(lorryRepository).delete(existing);
+        verify(eventPublisher).publishEvent(LorryChangedEvent.deleted(existing));
+    }
+
+    @Test
+    void deleteByLr_whenLrNotFound_shouldThrowNoSuchElementException() {
+        when(lorryRepository.findById(1111L)).thenReturn(Optional.empty());
+
+        assertThrows(NoSuchElementException.class, () -> lorryService.deleteByLr(1111L));
+
+        verify(lorryRepository, never()).delete(any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void deleteByLr_whenLrArchived_shouldThrowArchivedLrException() {
+        when(lorryRepository.findById(1111L)).thenReturn(Optional.empty());
+        when(archiveService.isArchived(1111L)).thenReturn(true);
+
+        assertThrows(ArchivedLrException.class, () -> lorryService.deleteByLr(1111L));
+        verify(lorryRepository, never()).delete(any());
+    }
+
+    @Test
+    void update_whenLrFound_shouldPublishBeforeAndAfterValues() {
+        LorryEntity before = new LorryEntity();
+        before.setLr(1111L);
+        before.setFromLocation("PUNE");
+
+        LorryEntity after = new LorryEntity();
+        after.setLr(1111L);
+        after.setFromLocation("NAGPUR");
+
+        LorryEntity input = new LorryEntity();
+        input.setLr(1111L);
+        input.setFromLocation(" nagpur ");
+
+        when(lorryRepository.updateSuppliedFields(eq(input), anyCollection())).thenReturn(Optional.of(new LorryUpdate(before, after)));
+
+        lorryService.update(input);
+
+        ArgumentCaptor<LorryChangedEvent> event = ArgumentCaptor.forClass(LorryChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals("PUNE", event.getValue().before().fromLocation());
+        assertEquals("NAGPUR", event.getValue().after().fromLocation());
+    }
+
+    @Test
+    void updateAll_shouldNormalizeChangesAndPublishBulkEvent() {
+        LorryEntity changes = new LorryEntity();
+        changes.setToLocation(" mumbai ");
+
+        when(lorryRepository.updateMatching(any(), eq(changes))).thenReturn(3L);
+
+        assertEquals(3L, lorryService.updateAll(List.of(1L, 2L, 3L), null, null, null, changes));
+        assertEquals("MUMBAI", changes.getToLocation());
+
+        ArgumentCaptor<LorryChangedEvent> event = ArgumentCaptor.forClass(LorryChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertTrue(event.getValue().isBulk());
+    }
+
+    @Test
+    void deleteAll_whenSelectionTooLarge_shouldRejectBeforeDeleting() {
+        when(lorryRepository.countUpTo(any(), eq(PaginationConfig.MAX_BULK_ROWS + 1)))
+                .thenReturn((long) PaginationConfig.MAX_BULK_ROWS + 1);
+
+        assertThrows(BadRequestException.class,
+                () -> lorryService.deleteAll(null, "pune", null, null));
+
+        verify(lorryRepository, never()).deleteMatching(any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void deleteAll_whenSelectionGrewPastTheCap_shouldThrowSoTheTransactionRollsBack() {
+        when(lorryRepository.deleteMatching(any())).thenReturn(5000L);
+
+        assertThrows(BadRequestException.class,
+                () -> lorryService.deleteAll(null, "pune", null, null));
+
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void deleteAll_whenNothingMatched_shouldNotPublish() {
+        when(lorryRepository.deleteMatching(any())).thenReturn(0L);
+
+        assertEquals(0L, lorryService.deleteAll(List.of(42L), null, null, null));
+
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void estimateCount_whenUnfiltered_shouldUsePlannerEstimate() {
+        when(lorryRepository.findEstimatedRowCount()).thenReturn(250_000L);
+
+        assertEquals(250_000L, lorryService.estimateCount(null, null, null));
+
+        verify(lorryRepository, never()).count();
+        verifyNoInteractions(lorryCountCache);
+    }
+
+    @Test
+    void estimateCount_whenTableNeverAnalyzed_shouldFallBackToExactCount() {
+        when(lorryRepository.findEstimatedRowCount()).thenReturn(-1L);
+        when(lorryRepository.count()).thenReturn(12L);
+
+        assertEquals(12L, lorryService.estimateCount("", null, null));
+    }
+
+    @Test
+    void estimateCount_whenFiltered_shouldUseCountCache() {
+        LocalDate from = LocalDate.of(2024, 1, 1);
+        when(lorryCountCache.get(eq("pune"), eq(from), isNull(), any())).thenReturn(42L);
+
+        assertEquals(42L, lorryService.estimateCount("pune", from, null));
+
+        verify(lorryRepository, never()).findEstimatedRowCount();
     }
 
 }
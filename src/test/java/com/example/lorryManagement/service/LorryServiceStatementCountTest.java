@@ -0,0 +1,80 @@
+package com.example.lorryManagement.service;
+
+import com.example.lorryManagement.entity.LorryEntity;
+import com.example.lorryManagement.support.PostgresIntegrationTest;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+ * Counts the SQL statements Hibernate prepares for each service write.
+ */
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+public class LorryServiceStatementCountTest extends PostgresIntegrationTest {
+    @Autowired
+    private LorryService lorryService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.execute("TRUNCATE lorry");
+    }
+
+    @Test
+    void save_shouldIssueASingleInsert() {
+        lorryService.save(newLorry(900001L));
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getEntityInsertCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void save_whenLrExists_shouldFailOnTheInsertItself() {
+        lorryService.save(newLorry(900002L));
+        statistics.clear();
+
+        assertThrows(DuplicateKeyException.class, () -> lorryService.save(newLorry(900002L)));
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM lorry WHERE lr = 900002", Integer.class));
+    }
+
+    private static LorryEntity newLorry(Long lr) {
+        LorryEntity entity = new LorryEntity();
+        entity.setLr(lr);
+        entity.setLorryNumber("MH12AB1234");
+        entity.setDate(LocalDate.of(2024, 1, 15));
+        entity.setFromLocation("Pune");
+        entity.setToLocation("Mumbai");
+        entity.setConsignorName("Alice");
+        entity.setWeight(BigDecimal.valueOf(1000));
+        return entity;
+    }
+}
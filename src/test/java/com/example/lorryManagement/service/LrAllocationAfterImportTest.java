@@ -0,0 +1,71 @@
+package com.example.lorryManagement.service;
+
+import com.example.lorryManagement.dtos.BatchResponseDto;
+import com.example.lorryManagement.dtos.LorryRequestDto;
+import com.example.lorryManagement.entity.LorryEntity;
+import com.example.lorryManagement.repository.LorryRepository;
+import com.example.lorryManagement.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+ * Imports and single creates draw LRs from the same allocator blocks; an import
+ * must not rewind the sequence into a block that is still being handed out.
+ */
+public class LrAllocationAfterImportTest extends PostgresIntegrationTest {
+    @Autowired
+    private LorryImportService importService;
+
+    @Autowired
+    private LorryService lorryService;
+
+    @Autowired
+    private LorryRepository lorryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.execute("TRUNCATE lorry");
+    }
+
+    @Test
+    void createsAfterAnImport_shouldNeverReuseAnLr() {
+        BatchResponseDto imported = importService.createAll(List.of(item(null), item(null), item(8_000_000L)));
+        assertEquals(3, imported.getCreated());
+
+        int creates = (int) lorryRepository.findLrBlockSize() + 10;
+        Set<Long> lrs = new HashSet<>();
+        for (int i = 0; i < creates; i++) {
+            LorryEntity entity = new LorryEntity();
+            entity.setLorryNumber("MH12AB1234");
+            entity.setDate(LocalDate.now());
+            entity.setConsignorName("Alice");
+            entity.setWeight(BigDecimal.valueOf(1000));
+            assertTrue(lrs.add(lorryService.save(entity).getLr()));
+        }
+
+        assertEquals(creates + 3, jdbcTemplate.queryForObject("SELECT count(DISTINCT lr) FROM lorry", Integer.class));
+    }
+
+    private static LorryRequestDto item(Long lr) {
+        LorryRequestDto dto = new LorryRequestDto();
+        dto.setLr(lr);
+        dto.setLorryNumber("MH12AB1234");
+        dto.setDate(LocalDate.now());
+        dto.setConsignorName("Patil Sons");
+        dto.setWeight(BigDecimal.valueOf(100));
+        return dto;
+    }
+}
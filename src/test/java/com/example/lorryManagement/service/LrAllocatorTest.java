@@ -0,0 +1,63 @@
+package com.example.lorryManagement.service;
+
+import com.example.lorryManagement.repository.LorryRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class LrAllocatorTest {
+    @InjectMocks
+    private LrAllocator lrAllocator;
+
+    @Mock
+    private LorryRepository lorryRepository;
+
+    @Test
+    void nextLr_shouldHandOutWholeBlockBeforeReservingNext() {
+        when(lorryRepository.findLrBlockSize()).thenReturn(3L);
+        when(lorryRepository.reserveLrBlock()).thenReturn(100L, 103L);
+
+        assertEquals(100L, lrAllocator.nextLr());
+        assertEquals(101L, lrAllocator.nextLr());
+        assertEquals(102L, lrAllocator.nextLr());
+        assertEquals(103L, lrAllocator.nextLr());
+
+        verify(lorryRepository, times(2)).reserveLrBlock();
+        verify(lorryRepository, times(1)).findLrBlockSize();
+    }
+
+    @Test
+    void nextLr_whenCalledConcurrently_shouldNeverRepeatANumber() throws InterruptedException {
+        AtomicLong sequence = new AtomicLong(1);
+        when(lorryRepository.findLrBlockSize()).thenReturn(50L);
+        when(lorryRepository.reserveLrBlock()).thenAnswer(invocation -> sequence.getAndAdd(50));
+
+        Set<Long> issued = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 8; i++) {
+            executor.submit(() -> {
+                for (int j = 0; j < 1000; j++) {
+                    assertTrue(issued.add(lrAllocator.nextLr()));
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(8000, issued.size());
+        verify(lorryRepository, times(160)).reserveLrBlock();
+    }
+}
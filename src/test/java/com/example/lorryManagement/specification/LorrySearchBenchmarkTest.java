@@ -0,0 +1,90 @@
+package com.example.lorryManagement.specification;
+
+import com.example.lorryManagement.service.LorryService;
+import com.example.lorryManagement.support.LorryTestData;
+import com.example.lorryManagement.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Tag("benchmark")
+public class LorrySearchBenchmarkTest extends PostgresIntegrationTest {
+    private static final int SAMPLES = 200;
+
+    @Autowired
+    private LorryService lorryService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        LorryTestData.deleteAll(jdbcTemplate);
+    }
+
+    @Test
+    void search_p99ShouldStayFlatAsRowCountGrows() {
+        LorryTestData.insertRange(jdbcTemplate, 1, 20_000);
+        long smallP99 = searchP99(20_000);
+
+        LorryTestData.insertRange(jdbcTemplate, 20_001, 400_000);
+        long largeP99 = searchP99(400_000);
+
+        System.out.printf("search p99: 20k rows = %.2f ms, 400k rows = %.2f ms%n",
+                smallP99 / 1e6, largeP99 / 1e6);
+
+        // 20x the rows; a sequential scan would grow roughly linearly
+        assertTrue(largeP99 < smallP99 * 3 + 2_000_000,
+                "p99 grew from " + smallP99 + "ns to " + largeP99 + "ns");
+    }
+
+    @Test
+    void search_shouldUseTrigramIndex() {
+        LorryTestData.insertRange(jdbcTemplate, 1, 100_000);
+
+        List<String> plan = jdbcTemplate.queryForList(
+                "EXPLAIN SELECT lr FROM lorry WHERE search_text LIKE ?",
+                String.class,
+                "%" + md5Slice(4242) + "%"
+        );
+
+        assertTrue(
+                plan.stream().anyMatch(line -> line.contains("idx_lorry_search_text_trgm")),
+                String.join("\n", plan)
+        );
+    }
+
+    private long searchP99(long maxLr) {
+        Random random = new Random(42);
+        Pageable pageable = PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "lr"));
+
+        // warm up plans and caches
+        for (int i = 0; i < 20; i++) {
+            lorryService.findWithFilters(md5Slice(1 + random.nextInt((int) maxLr)), null, null, pageable);
+        }
+
+        long[] samples = new long[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            String term = md5Slice(1 + random.nextInt((int) maxLr));
+            long start = System.nanoTime();
+            lorryService.findWithFilters(term, null, null, pageable);
+            samples[i] = System.nanoTime() - start;
+        }
+        return LorryTestData.percentile(samples, 99);
+    }
+
+    private String md5Slice(long lr) {
+        String md5 = jdbcTemplate.queryForObject("SELECT md5(?::text)", String.class, String.valueOf(lr));
+        return md5.substring(4, 14);
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.lorryManagement.specification;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LorrySpecificationTest {
+
+    @Test
+    void searchKind_shouldClassifyNumbersPlatesAndText() {
+        assertEquals(LorrySpecification.SearchKind.LR, LorrySpecification.SearchKind.of("1234"));
+        assertEquals(LorrySpecification.SearchKind.PLATE, LorrySpecification.SearchKind.of("MH12"));
+        assertEquals(LorrySpecification.SearchKind.PLATE, LorrySpecification.SearchKind.of("mh 12 ab-1234"));
+        assertEquals(LorrySpecification.SearchKind.TEXT, LorrySpecification.SearchKind.of("pune"));
+        assertEquals(LorrySpecification.SearchKind.TEXT, LorrySpecification.SearchKind.of("12 main road"));
+        assertEquals(LorrySpecification.SearchKind.TEXT, LorrySpecification.SearchKind.of("3a4f9b1c2d"));
+    }
+
+    @Test
+    void lrPrefixRanges_shouldCoverEveryLengthStartingWithPrefix() {
+        List<long[]> ranges = LorrySpecification.lrPrefixRanges(123);
+
+        assertArrayEquals(new long[]{123, 123}, ranges.get(0));
+        assertArrayEquals(new long[]{1230, 1239}, ranges.get(1));
+        assertArrayEquals(new long[]{12300, 12399}, ranges.get(2));
+        assertArrayEquals(new long[]{1_230_000_000_000_000_000L, 1_239_999_999_999_999_999L}, ranges.get(ranges.size() - 1));
+    }
+
+    @Test
+    void lrPrefixRanges_shouldStopAtLongMaxValue() {
+        List<long[]> ranges = LorrySpecification.lrPrefixRanges(9);
+
+        assertArrayEquals(new long[]{9_000_000_000_000_000_000L, Long.MAX_VALUE}, ranges.get(ranges.size() - 1));
+        assertEquals(List.of(0L), LorrySpecification.lrPrefixRanges(0).stream().map(range -> range[0]).toList());
+    }
+}
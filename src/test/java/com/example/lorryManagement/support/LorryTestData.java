@@ -0,0 +1,43 @@
+package com.example.lorryManagement.support;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+public final class LorryTestData {
+
+    private LorryTestData() {
+    }
+
+    /*
+     * Inserts synthetic LRs firstLr..lastLr (inclusive) in a single statement.
+     * Consignor names embed md5(lr) so a slice of it is a selective search term.
+     */
+    public static void insertRange(JdbcTemplate jdbcTemplate, long firstLr, long lastLr) {
+        jdbcTemplate.update("""
+                INSERT INTO lorry (lr, lorry_number, date, from_location, to_location,
+                                   consignor_name, consignor_address, description, weight, freight)
+                SELECT g,
+                       'MH' || (g % 50) || 'AB' || (g % 10000),
+                       DATE '2020-01-01' + (g % 1500)::int,
+                       'CITY' || (g % 300),
+                       'TOWN' || (g % 400),
+                       'CONSIGNOR ' || md5(g::text),
+                       repeat('address line ', 10),
+                       repeat('description ', 30),
+                       100 + (g % 900),
+                       1000 + (g % 9000)
+                FROM generate_series(?::bigint, ?::bigint) AS g
+                """, firstLr, lastLr);
+        jdbcTemplate.execute("ANALYZE lorry");
+    }
+
+    public static void deleteAll(JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.execute("TRUNCATE lorry");
+    }
+
+    public static long percentile(long[] samples, double percentile) {
+        long[] sorted = samples.clone();
+        java.util.Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, index)];
+    }
+}